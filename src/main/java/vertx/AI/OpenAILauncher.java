@@ -1,10 +1,15 @@
 package vertx.AI;
 
+import io.vertx.core.Future;
 import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
 import vertx.AI.verticle.MainVerticle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Entry point for launching the Vert.x-based OpenAI RAG application.
  * <p>
@@ -14,28 +19,57 @@ import org.slf4j.LoggerFactory;
  * </p>
  *
  * <p>
- * If the deployment is successful, a log message is printed. Otherwise, the error is logged
- * and the Vert.x instance is gracefully shut down.
+ * With the {@code -cluster} argument the runtime joins a Hazelcast cluster, and the node's
+ * {@code cluster.role} decides whether it serves HTTP, runs chat workers, or both.
+ * </p>
+ *
+ * <p>
+ * If the deployment is successful, a log message is printed and a shutdown hook is registered that announces
+ * the node leaving the cluster before closing Vert.x. Otherwise, the error is logged and the Vert.x instance is
+ * gracefully shut down.
  * </p>
  */
 public class OpenAILauncher {
 
   private static final Logger logger = LoggerFactory.getLogger(OpenAILauncher.class);
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
 
   /**
    * Main method used to bootstrap the application.
    *
-   * @param args command-line arguments (not used)
+   * @param args command-line arguments; {@code -cluster} starts a clustered node
    */
   public static void main(String[] args) {
-    Vertx vertx = Vertx.vertx();
-    vertx.deployVerticle(new MainVerticle(), res -> {
-      if (res.succeeded()) {
-        logger.info("MainVerticle deployed successfully!");
-      } else {
-        logger.error("Failed to deploy MainVerticle: ", res.cause());
-        vertx.close();
-      }
-    });
+    boolean clustered = Arrays.asList(args).contains("-cluster");
+    Future<Vertx> runtime = clustered
+      ? Vertx.clusteredVertx(new VertxOptions())
+      : Future.succeededFuture(Vertx.vertx());
+
+    MainVerticle mainVerticle = new MainVerticle();
+    runtime.onFailure(err -> logger.error("Failed to join the cluster: ", err))
+      .onSuccess(vertx -> vertx.deployVerticle(mainVerticle, res -> {
+        if (res.succeeded()) {
+          logger.info("MainVerticle deployed successfully!");
+          Runtime.getRuntime().addShutdownHook(new Thread(() -> shutdown(vertx, mainVerticle)));
+        } else {
+          logger.error("Failed to deploy MainVerticle: ", res.cause());
+          vertx.close();
+        }
+      }));
+  }
+
+  /**
+   * Announces that the node leaves the cluster before closing Vert.x, so that front-end nodes stop routing
+   * sessions to its chat verticles before they are undeployed.
+   */
+  private static void shutdown(Vertx vertx, MainVerticle mainVerticle) {
+    try {
+      mainVerticle.leaveCluster()
+        .compose(v -> vertx.close())
+        .toCompletionStage().toCompletableFuture()
+        .get(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    } catch (Exception e) {
+      logger.error("Failed to shut down cleanly: ", e);
+    }
   }
 }
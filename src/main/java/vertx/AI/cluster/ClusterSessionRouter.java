@@ -0,0 +1,146 @@
+package vertx.AI.cluster;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonObject;
+import vertx.AI.constants.EventBusAddresses;
+import vertx.AI.metrics.MetricsSource;
+import vertx.AI.session.ConsistentHashRing;
+import vertx.AI.session.SessionRouter;
+import vertx.AI.session.SessionShards;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Routes chat sessions to the worker nodes of a cluster, for the front-end verticles of a node.
+ * <p>
+ * Worker nodes announce themselves through {@link WorkerAnnouncer}; the router keeps the live workers, dropping
+ * those that leave or miss heartbeats for {@code workerTimeoutMs}, and places them on a
+ * {@link ConsistentHashRing} keyed by node id. A session goes to the worker owning it on the ring, then to the
+ * shard owning it on that worker, so all of a session's turns reach the same {@code OpenAIVerticle} and a worker
+ * joining or leaving only moves about {@code 1/workers} of the sessions.
+ * <p>
+ * Membership is tracked on the context that created the router; the ring is swapped atomically on every
+ * change, so {@link #addressFor} can be called from any HTTP server event loop. While no worker is known,
+ * requests go to the plain addresses, where they fail with no handlers.
+ */
+public class ClusterSessionRouter implements SessionRouter, MetricsSource, AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger(ClusterSessionRouter.class);
+
+  private final Vertx vertx;
+  private final int virtualNodes;
+  private final long workerTimeoutMs;
+  private final Map<String, Worker> workers = new HashMap<>();
+  private final MessageConsumer<JsonObject> announceConsumer;
+  private final long expiryTimerId;
+  private volatile ConsistentHashRing<SessionShards> ring;
+  private volatile int liveWorkers;
+
+  private final LongAdder membershipChanges = new LongAdder();
+  private final LongAdder unroutable = new LongAdder();
+
+  /**
+   * Starts listening for worker announcements and asks the workers already running to announce themselves.
+   * Must be created on an event loop context.
+   *
+   * @param vertx           the clustered Vert.x instance
+   * @param virtualNodes    the ring points per worker node
+   * @param workerTimeoutMs how long a worker may go without a heartbeat before its sessions are moved
+   */
+  public ClusterSessionRouter(Vertx vertx, int virtualNodes, long workerTimeoutMs) {
+    this.vertx = vertx;
+    this.virtualNodes = virtualNodes;
+    this.workerTimeoutMs = workerTimeoutMs;
+    this.announceConsumer = vertx.eventBus().consumer(EventBusAddresses.CLUSTER_WORKER_ANNOUNCE,
+      msg -> onAnnouncement(msg.body()));
+    this.expiryTimerId = vertx.setPeriodic(Math.max(1, workerTimeoutMs / 2), id -> expireWorkers());
+    vertx.eventBus().publish(EventBusAddresses.CLUSTER_WORKER_DISCOVER, new JsonObject());
+  }
+
+  @Override
+  public String addressFor(String baseAddress, String sessionId) {
+    ConsistentHashRing<SessionShards> current = ring;
+    if (current == null) {
+      unroutable.increment();
+      return baseAddress;
+    }
+    return current.memberFor(sessionId).addressFor(baseAddress, sessionId);
+  }
+
+  private void onAnnouncement(JsonObject announcement) {
+    String nodeId = announcement.getString("nodeId");
+    if (announcement.getBoolean("leaving", false)) {
+      if (workers.remove(nodeId) != null) {
+        logger.info("Worker node {} left the cluster", nodeId);
+        rebuildRing();
+      }
+      return;
+    }
+
+    int shards = announcement.getInteger("shards");
+    int shardVirtualNodes = announcement.getInteger("virtualNodes");
+    Worker known = workers.get(nodeId);
+    if (known != null && known.shards.shardCount() == shards && known.virtualNodes == shardVirtualNodes) {
+      known.lastSeenMs = System.currentTimeMillis();
+      return;
+    }
+
+    logger.info("Worker node {} joined the cluster with {} chat shard(s)", nodeId, shards);
+    workers.put(nodeId, new Worker(new SessionShards(nodeId, shards, shardVirtualNodes), shardVirtualNodes));
+    rebuildRing();
+  }
+
+  private void expireWorkers() {
+    long deadline = System.currentTimeMillis() - workerTimeoutMs;
+    if (workers.values().removeIf(worker -> worker.lastSeenMs < deadline)) {
+      logger.warn("Worker node(s) missed their heartbeat, moving their sessions");
+      rebuildRing();
+    }
+  }
+
+  private void rebuildRing() {
+    membershipChanges.increment();
+    if (workers.isEmpty()) {
+      ring = null;
+    } else {
+      Map<String, SessionShards> members = new HashMap<>();
+      workers.forEach((nodeId, worker) -> members.put(nodeId, worker.shards));
+      ring = new ConsistentHashRing<>(members, virtualNodes);
+    }
+    // Published after the ring, so that whoever sees the new worker count also routes with the new ring
+    liveWorkers = workers.size();
+  }
+
+  /**
+   * Stops tracking workers.
+   */
+  @Override
+  public void close() {
+    vertx.cancelTimer(expiryTimerId);
+    announceConsumer.unregister();
+  }
+
+  @Override
+  public JsonObject toJson() {
+    return new JsonObject()
+      .put("workers", liveWorkers)
+      .put("membershipChanges", membershipChanges.sum())
+      .put("unroutable", unroutable.sum());
+  }
+
+  private static final class Worker {
+    private final SessionShards shards;
+    private final int virtualNodes;
+    private long lastSeenMs = System.currentTimeMillis();
+
+    private Worker(SessionShards shards, int virtualNodes) {
+      this.shards = shards;
+      this.virtualNodes = virtualNodes;
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package vertx.AI.cluster;
+
+/**
+ * Selects which verticles a node deploys, configured by {@code cluster.role} in {@code config.json} or the
+ * {@code CLUSTER_ROLE} environment variable. Front-end and worker roles only make sense on a clustered event bus,
+ * where HTTP nodes reach the chat and ingestion verticles of worker nodes.
+ */
+public enum NodeRole {
+
+  /**
+   * Runs the HTTP server, chat and ingestion verticles; the only role of a standalone node.
+   */
+  ALL("all"),
+
+  /**
+   * Runs the HTTP server only and routes chat requests to the worker node owning each session.
+   */
+  HTTP("http"),
+
+  /**
+   * Runs the chat and ingestion verticles only, serving the sessions the cluster assigns to it.
+   */
+  WORKER("worker");
+
+  private final String configName;
+
+  NodeRole(String configName) {
+    this.configName = configName;
+  }
+
+  /**
+   * @return the name used for this role in the configuration
+   */
+  public String configName() {
+    return configName;
+  }
+
+  /**
+   * @return whether the node runs the HTTP server
+   */
+  public boolean servesHttp() {
+    return this != WORKER;
+  }
+
+  /**
+   * @return whether the node runs the chat and ingestion verticles
+   */
+  public boolean runsWorkers() {
+    return this != HTTP;
+  }
+
+  /**
+   * Resolves a role from its configuration name.
+   *
+   * @param configName the configured role, e.g. {@code "worker"}
+   * @return the matching role
+   * @throws IllegalArgumentException if no role has that name
+   */
+  public static NodeRole fromConfig(String configName) {
+    for (NodeRole role : values()) {
+      if (role.configName.equalsIgnoreCase(configName)) {
+        return role;
+      }
+    }
+    throw new IllegalArgumentException("Unknown node role: " + configName);
+  }
+}
@@ -0,0 +1,61 @@
+package vertx.AI.cluster;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonObject;
+import vertx.AI.constants.EventBusAddresses;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Advertises a worker node's chat shards to the front-end nodes of the cluster.
+ * <p>
+ * The announcement carries the node id and its shard layout and is published on
+ * {@link EventBusAddresses#CLUSTER_WORKER_ANNOUNCE} every {@code heartbeatIntervalMs}, and immediately whenever a
+ * front-end node asks through {@link EventBusAddresses#CLUSTER_WORKER_DISCOVER}. On close a final announcement
+ * tells front-ends the node is leaving, so its sessions move before its heartbeat times out.
+ */
+public class WorkerAnnouncer implements AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger(WorkerAnnouncer.class);
+
+  private final Vertx vertx;
+  private final JsonObject announcement;
+  private final MessageConsumer<JsonObject> discoverConsumer;
+  private final long timerId;
+
+  /**
+   * Starts announcing the node. Its chat verticles must already listen on their shard addresses.
+   *
+   * @param vertx               the clustered Vert.x instance
+   * @param nodeId              the id scoping the node's shard addresses
+   * @param shardCount          the number of chat shards on the node
+   * @param virtualNodes        the ring points per shard used by the node's {@code SessionShards}
+   * @param heartbeatIntervalMs the interval between announcements
+   */
+  public WorkerAnnouncer(Vertx vertx, String nodeId, int shardCount, int virtualNodes, long heartbeatIntervalMs) {
+    this.vertx = vertx;
+    this.announcement = new JsonObject()
+      .put("nodeId", nodeId)
+      .put("shards", shardCount)
+      .put("virtualNodes", virtualNodes);
+    this.discoverConsumer = vertx.eventBus().consumer(EventBusAddresses.CLUSTER_WORKER_DISCOVER, msg -> announce());
+    this.timerId = vertx.setPeriodic(heartbeatIntervalMs, id -> announce());
+    logger.info("Announcing worker node {} with {} chat shard(s)", nodeId, shardCount);
+    announce();
+  }
+
+  private void announce() {
+    vertx.eventBus().publish(EventBusAddresses.CLUSTER_WORKER_ANNOUNCE, announcement);
+  }
+
+  /**
+   * Stops the heartbeat and tells the front-end nodes that this node is leaving.
+   */
+  @Override
+  public void close() {
+    vertx.cancelTimer(timerId);
+    discoverConsumer.unregister();
+    vertx.eventBus().publish(EventBusAddresses.CLUSTER_WORKER_ANNOUNCE, announcement.copy().put("leaving", true));
+  }
+}
@@ -23,8 +23,74 @@ public class OpenAIConfigDefaults {
   public static final int MAX_RETRIES = 3;
 
   public static final String EMBEDDING_MODEL_NAME = "text-embedding-3-small";
+  public static final boolean EMBEDDING_BATCH_ENABLED = true;
+  public static final int EMBEDDING_BATCH_MAX_SIZE = 64;
+  public static final long EMBEDDING_BATCH_MAX_DELAY_MS = 5;
   public static final int MAX_RESULT = 5;
   public static final double MIN_SCORE = 0.7;
+  public static final String QUERY_TRANSFORM_MODE = "adaptive";
+  public static final int QUERY_TRANSFORM_SHORT_QUERY_MAX_WORDS = 6;
+  public static final double QUERY_TRANSFORM_PROBE_MIN_SCORE = 0.85;
+  public static final boolean QUERY_TRANSFORM_SPECULATIVE = false;
+  public static final double QUERY_TRANSFORM_SPECULATIVE_MIN_SCORE = 0.9;
+  public static final String QUERY_TRANSFORM_EXPANSION = "llm";
+  public static final String LOCAL_EXPANSION_TOKENIZER = "bge-small-en-v1.5-q-tokenizer.json";
+  public static final int LOCAL_EXPANSION_VARIANTS = 3;
+  public static final int LOCAL_EXPANSION_TERMS_PER_VARIANT = 3;
+  public static final int LOCAL_EXPANSION_MAX_TERMS = 50_000;
+  public static final int LOCAL_EXPANSION_MAX_NEIGHBORS = 32;
 
   public static final String DOCUMENTS_DIRECTORY = "documents/";
+  public static final String UPLOADS_STAGING_DIRECTORY = "uploads-staging/";
+  public static final long MAX_CHAT_BODY_SIZE = 64 * 1024;
+  public static final int MAX_SESSION_ID_LENGTH = 128;
+  public static final int HTTP_SERVER_INSTANCES = Runtime.getRuntime().availableProcessors();
+  public static final int CHAT_SHARDS = Runtime.getRuntime().availableProcessors();
+  public static final int CHAT_SHARD_VIRTUAL_NODES = 160;
+
+  public static final String CLUSTER_NODE_ROLE = "all";
+  public static final int CLUSTER_VIRTUAL_NODES = 160;
+  public static final long CLUSTER_HEARTBEAT_INTERVAL_MS = 2000;
+  public static final long CLUSTER_WORKER_TIMEOUT_MS = 6000;
+
+  public static final long SSE_FLUSH_INTERVAL_MS = 20;
+  public static final int SSE_MAX_FRAME_SIZE = 1024;
+
+  public static final int BATCH_MAX_CONCURRENCY = 8;
+  public static final int BATCH_MAX_ITEMS = 1000;
+  public static final long BATCH_MAX_BODY_SIZE = 4 * 1024 * 1024;
+
+  public static final int ADMISSION_MAX_IN_FLIGHT = 256;
+  public static final int ADMISSION_MAX_QUEUE = 64;
+  public static final long ADMISSION_MAX_WAIT_MS = 1000;
+  public static final long ADMISSION_RETRY_AFTER_SECONDS = 1;
+
+  public static final int UPSTREAM_INITIAL_LIMIT = 20;
+  public static final int UPSTREAM_MIN_LIMIT = 2;
+  public static final int UPSTREAM_MAX_LIMIT = 200;
+  public static final long UPSTREAM_LATENCY_THRESHOLD_MS = 10000;
+  public static final double UPSTREAM_BACKOFF_RATIO = 0.9;
+  public static final int UPSTREAM_MAX_QUEUE = 500;
+  public static final long UPSTREAM_MAX_WAIT_MS = 30000;
+  public static final String EXECUTION_MODE = "worker";
+  public static final int CHAT_EXECUTOR_POOL_SIZE = 20;
+  public static final int CHAT_EXECUTOR_MAX_QUEUE = 1000;
+  public static final int RETRIEVAL_EXECUTOR_POOL_SIZE = 32;
+  public static final int RETRIEVAL_EXECUTOR_MAX_QUEUE = 1000;
+  public static final int INGESTION_EXECUTOR_POOL_SIZE = 2;
+  public static final int INGESTION_EXECUTOR_MAX_QUEUE = 500;
+  public static final int FILE_IO_EXECUTOR_POOL_SIZE = 4;
+  public static final int FILE_IO_EXECUTOR_MAX_QUEUE = 500;
+
+  public static final int SESSION_MAX_SESSIONS = 10000;
+  public static final long SESSION_MAX_TOTAL_TOKENS = 20_000_000;
+  public static final long SESSION_IDLE_TTL_MS = 30 * 60 * 1000;
+  public static final long SESSION_SWEEP_INTERVAL_MS = 60 * 1000;
+  public static final String SESSION_HISTORY_MODE = "raw";
+  public static final int SESSION_MAX_PENDING_TURNS = 8;
+  public static final boolean SESSION_PERSISTENCE_ENABLED = true;
+  public static final String SESSION_PERSISTENCE_PATH = "data/chat-memory.log";
+  public static final int SESSION_PERSISTENCE_INITIAL_SIZE_BYTES = 16 * 1024 * 1024;
+  public static final double SESSION_PERSISTENCE_COMPACTION_RATIO = 0.5;
+  public static final long SESSION_PERSISTENCE_RETENTION_MS = 7L * 24 * 60 * 60 * 1000;
 }
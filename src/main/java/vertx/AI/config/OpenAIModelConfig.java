@@ -13,6 +13,7 @@ import java.util.List;
 public class OpenAIModelConfig {
 
   private String apiKey;
+  private String baseUrl;
   private String modelName;
   private double temperature;
   private Double topP;
@@ -48,6 +49,11 @@ public class OpenAIModelConfig {
       return this;
     }
 
+    public Builder baseUrl(String baseUrl) {
+      cfg.baseUrl = baseUrl;
+      return this;
+    }
+
     public Builder modelName(String modelName) {
       cfg.modelName = modelName;
       return this;
@@ -102,6 +108,10 @@ public class OpenAIModelConfig {
     return apiKey;
   }
 
+  public String getBaseUrl() {
+    return baseUrl;
+  }
+
   public String getModelName() {
     return modelName;
   }
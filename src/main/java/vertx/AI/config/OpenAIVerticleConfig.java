@@ -1,11 +1,12 @@
 package vertx.AI.config;
 
 import io.vertx.core.json.JsonObject;
+import vertx.AI.memory.HistoryMode;
 
 /**
  * Configuration class that encapsulates all model and retriever settings
  * required by the {@code OpenAIVerticle}, including streaming and non-streaming
- * model parameters, embedding model name, and retrieval thresholds.
+ * model parameters, embedding model name, retrieval thresholds and what chat turns keep in the session history.
  */
 public class OpenAIVerticleConfig {
 
@@ -14,6 +15,8 @@ public class OpenAIVerticleConfig {
   private final String embeddingModelName;
   private final int maxRetrieverResults;
   private final double minRetrieverScore;
+  private final HistoryMode historyMode;
+  private final int maxPendingTurns;
 
   /**
    * Constructs the full OpenAI verticle configuration with the provided values.
@@ -23,17 +26,23 @@ public class OpenAIVerticleConfig {
    * @param embeddingModelName      The name of the embedding model
    * @param maxRetrieverResults     Maximum number of documents retrieved for RAG
    * @param minRetrieverScore       Minimum similarity score for document inclusion
+   * @param historyMode             What a chat turn records in the session history
+   * @param maxPendingTurns         Maximum number of turns waiting behind the running turn of a session
    */
   private OpenAIVerticleConfig(OpenAIModelConfig streamingModelConfig,
                                OpenAIModelConfig nonStreamingModelConfig,
                                String embeddingModelName,
                                int maxRetrieverResults,
-                               double minRetrieverScore) {
+                               double minRetrieverScore,
+                               HistoryMode historyMode,
+                               int maxPendingTurns) {
     this.streamingModelConfig = streamingModelConfig;
     this.nonStreamingModelConfig = nonStreamingModelConfig;
     this.embeddingModelName = embeddingModelName;
     this.maxRetrieverResults = maxRetrieverResults;
     this.minRetrieverScore = minRetrieverScore;
+    this.historyMode = historyMode;
+    this.maxPendingTurns = maxPendingTurns;
   }
 
   /**
@@ -42,7 +51,7 @@ public class OpenAIVerticleConfig {
    *
    * @param config The JSON configuration containing OpenAI model settings
    * @return a fully initialized {@code OpenAIVerticleConfig}
-   * @throws IllegalArgumentException if the API key is missing
+   * @throws IllegalArgumentException if the API key is missing or the history mode is unknown
    */
   public static OpenAIVerticleConfig from(JsonObject config) {
     String apiKey = config.getString("OPENAI_API_KEY");
@@ -54,6 +63,7 @@ public class OpenAIVerticleConfig {
     JsonObject streaming = config.getJsonObject("streamingChatModel", new JsonObject());
     OpenAIModelConfig streamingModel = OpenAIModelConfig.builder()
       .apiKey(apiKey)
+      .baseUrl(streaming.getString("baseUrl"))
       .modelName(streaming.getString("modelName", OpenAIConfigDefaults.MODEL_NAME))
       .temperature(streaming.getDouble("temperature", OpenAIConfigDefaults.TEMPERATURE))
       .topP(streaming.getDouble("topP", OpenAIConfigDefaults.TOP_P))
@@ -68,6 +78,7 @@ public class OpenAIVerticleConfig {
     JsonObject nonStreaming = config.getJsonObject("chatModel", new JsonObject());
     OpenAIModelConfig nonStreamingModel = OpenAIModelConfig.builder()
       .apiKey(apiKey)
+      .baseUrl(nonStreaming.getString("baseUrl"))
       .modelName(nonStreaming.getString("modelName", OpenAIConfigDefaults.MODEL_NAME))
       .temperature(nonStreaming.getDouble("temperature", OpenAIConfigDefaults.TEMPERATURE))
       .topP(nonStreaming.getDouble("topP", OpenAIConfigDefaults.TOP_P))
@@ -88,12 +99,19 @@ public class OpenAIVerticleConfig {
     int maxResults = retriever.getInteger("maxResult", OpenAIConfigDefaults.MAX_RESULT);
     double minScore = retriever.getDouble("minScore", OpenAIConfigDefaults.MIN_SCORE);
 
+    // -- Session history settings
+    JsonObject sessions = config.getJsonObject("sessions", new JsonObject());
+    HistoryMode historyMode = HistoryMode.fromConfig(sessions.getString("historyMode", OpenAIConfigDefaults.SESSION_HISTORY_MODE));
+    int maxPendingTurns = sessions.getInteger("maxPendingTurns", OpenAIConfigDefaults.SESSION_MAX_PENDING_TURNS);
+
     return new OpenAIVerticleConfig(
       streamingModel,
       nonStreamingModel,
       embeddingModelName,
       maxResults,
-      minScore
+      minScore,
+      historyMode,
+      maxPendingTurns
     );
   }
 
@@ -122,4 +140,14 @@ public class OpenAIVerticleConfig {
   public double getMinRetrieverScore() {
     return minRetrieverScore;
   }
+
+  /** @return what a chat turn records in the session history */
+  public HistoryMode getHistoryMode() {
+    return historyMode;
+  }
+
+  /** @return the maximum number of turns waiting behind the running turn of a session */
+  public int getMaxPendingTurns() {
+    return maxPendingTurns;
+  }
 }
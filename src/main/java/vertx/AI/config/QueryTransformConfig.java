@@ -0,0 +1,130 @@
+package vertx.AI.config;
+
+import io.vertx.core.json.JsonObject;
+import vertx.AI.rag.QueryExpansionMode;
+import vertx.AI.rag.QueryTransformMode;
+
+/**
+ * Settings of the query transformation step that runs before retrieval, read from the {@code queryTransform}
+ * section of {@code config.json}.
+ */
+public class QueryTransformConfig {
+
+  private final QueryTransformMode mode;
+  private final int shortQueryMaxWords;
+  private final double probeMinScore;
+  private final boolean speculative;
+  private final double speculativeMinScore;
+  private final QueryExpansionMode expansion;
+  private final int localVariants;
+  private final int localTermsPerVariant;
+
+  /**
+   * Builds settings without speculative retrieval.
+   *
+   * @param mode               how queries are rewritten before retrieval
+   * @param shortQueryMaxWords the longest query, in words, that is retrieved as is when it is specific enough
+   * @param probeMinScore      the similarity score at which the raw query's best chunk makes expansion unnecessary
+   */
+  public QueryTransformConfig(QueryTransformMode mode, int shortQueryMaxWords, double probeMinScore) {
+    this(mode, shortQueryMaxWords, probeMinScore, false, OpenAIConfigDefaults.QUERY_TRANSFORM_SPECULATIVE_MIN_SCORE);
+  }
+
+  /**
+   * Builds settings expanding queries with the chat model.
+   *
+   * @param mode                how queries are rewritten before retrieval
+   * @param shortQueryMaxWords  the longest query, in words, that is retrieved as is when it is specific enough
+   * @param probeMinScore       the similarity score at which the raw query's best chunk makes expansion unnecessary
+   * @param speculative         whether the raw query is searched while the query is being rewritten
+   * @param speculativeMinScore the similarity score at which the raw query's best chunk makes the rewrite unnecessary
+   */
+  public QueryTransformConfig(QueryTransformMode mode, int shortQueryMaxWords, double probeMinScore,
+                              boolean speculative, double speculativeMinScore) {
+    this(mode, shortQueryMaxWords, probeMinScore, speculative, speculativeMinScore, QueryExpansionMode.LLM,
+      OpenAIConfigDefaults.LOCAL_EXPANSION_VARIANTS, OpenAIConfigDefaults.LOCAL_EXPANSION_TERMS_PER_VARIANT);
+  }
+
+  /**
+   * @param mode                 how queries are rewritten before retrieval
+   * @param shortQueryMaxWords   the longest query, in words, that is retrieved as is when it is specific enough
+   * @param probeMinScore        the similarity score at which the raw query's best chunk makes expansion unnecessary
+   * @param speculative          whether the raw query is searched while the query is being rewritten
+   * @param speculativeMinScore  the similarity score at which the raw query's best chunk makes the rewrite unnecessary
+   * @param expansion            how queries are expanded into variants
+   * @param localVariants        the maximum number of variants of a locally expanded query
+   * @param localTermsPerVariant the number of associated corpus terms added to each local variant
+   */
+  public QueryTransformConfig(QueryTransformMode mode, int shortQueryMaxWords, double probeMinScore,
+                              boolean speculative, double speculativeMinScore, QueryExpansionMode expansion,
+                              int localVariants, int localTermsPerVariant) {
+    this.mode = mode;
+    this.shortQueryMaxWords = shortQueryMaxWords;
+    this.probeMinScore = probeMinScore;
+    this.speculative = speculative;
+    this.speculativeMinScore = speculativeMinScore;
+    this.expansion = expansion;
+    this.localVariants = localVariants;
+    this.localTermsPerVariant = localTermsPerVariant;
+  }
+
+  /**
+   * Reads the settings, falling back to {@link OpenAIConfigDefaults} for missing values.
+   *
+   * @param queryTransform the {@code queryTransform} configuration section
+   * @return the parsed settings
+   * @throws IllegalArgumentException if the mode or expansion mode is unknown
+   */
+  public static QueryTransformConfig from(JsonObject queryTransform) {
+    JsonObject localExpansion = queryTransform.getJsonObject("localExpansion", new JsonObject());
+    return new QueryTransformConfig(
+      QueryTransformMode.fromConfig(queryTransform.getString("mode", OpenAIConfigDefaults.QUERY_TRANSFORM_MODE)),
+      queryTransform.getInteger("shortQueryMaxWords", OpenAIConfigDefaults.QUERY_TRANSFORM_SHORT_QUERY_MAX_WORDS),
+      queryTransform.getDouble("probeMinScore", OpenAIConfigDefaults.QUERY_TRANSFORM_PROBE_MIN_SCORE),
+      queryTransform.getBoolean("speculative", OpenAIConfigDefaults.QUERY_TRANSFORM_SPECULATIVE),
+      queryTransform.getDouble("speculativeMinScore", OpenAIConfigDefaults.QUERY_TRANSFORM_SPECULATIVE_MIN_SCORE),
+      QueryExpansionMode.fromConfig(queryTransform.getString("expansion", OpenAIConfigDefaults.QUERY_TRANSFORM_EXPANSION)),
+      localExpansion.getInteger("variants", OpenAIConfigDefaults.LOCAL_EXPANSION_VARIANTS),
+      localExpansion.getInteger("termsPerVariant", OpenAIConfigDefaults.LOCAL_EXPANSION_TERMS_PER_VARIANT));
+  }
+
+  /** @return how queries are rewritten before retrieval */
+  public QueryTransformMode getMode() {
+    return mode;
+  }
+
+  /** @return the longest query, in words, that may skip expansion */
+  public int getShortQueryMaxWords() {
+    return shortQueryMaxWords;
+  }
+
+  /** @return the best-chunk score at which expansion is skipped */
+  public double getProbeMinScore() {
+    return probeMinScore;
+  }
+
+  /** @return whether the raw query is searched while the query is being rewritten */
+  public boolean isSpeculative() {
+    return speculative;
+  }
+
+  /** @return the best-chunk score at which the speculative search makes the rewrite unnecessary */
+  public double getSpeculativeMinScore() {
+    return speculativeMinScore;
+  }
+
+  /** @return how queries are expanded into variants */
+  public QueryExpansionMode getExpansion() {
+    return expansion;
+  }
+
+  /** @return the maximum number of variants of a locally expanded query */
+  public int getLocalVariants() {
+    return localVariants;
+  }
+
+  /** @return the number of associated corpus terms added to each local variant */
+  public int getLocalTermsPerVariant() {
+    return localTermsPerVariant;
+  }
+}
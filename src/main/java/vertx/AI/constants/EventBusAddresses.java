@@ -3,12 +3,47 @@ package vertx.AI.constants;
 /**
  * A container for all EventBus address constants used throughout the application for
  * routing OpenAI chat requests and document indexing.
+ * <p>
+ * When chat is sharded or clustered, the {@code OPENAI_CLIENT_*} and {@code OPENAI_CANCEL_STREAMING} addresses
+ * are per shard; resolve them through {@link vertx.AI.session.SessionRouter#addressFor}.
  */
 public final class EventBusAddresses {
   public static final String OPENAI_CLIENT_NON_STREAMING = "openai.client.non_streaming";
   public static final String OPENAI_CLIENT_STREAMING = "openai.client.streaming";
   public static final String OPENAI_RESPONSE_STREAMING = "openai.response.streaming.";
+  public static final String OPENAI_CANCEL_STREAMING = "openai.cancel.streaming";
   public static final String RAG_INDEX = "rag.index";
+  public static final String CLUSTER_WORKER_ANNOUNCE = "cluster.worker.announce";
+  public static final String CLUSTER_WORKER_DISCOVER = "cluster.worker.discover";
+
+  /**
+   * The message header carrying the stream ID of every token and end marker published for a streamed turn.
+   */
+  public static final String STREAM_ID_HEADER = "streamId";
+
+  /**
+   * Resolves the address the tokens and end marker of one streamed turn are published to, unless its request
+   * names a {@link #connectionStreamingAddress connection address}. Every turn has its own address, so a turn
+   * queued behind another turn of the same session never receives that turn's tokens.
+   *
+   * @param sessionId the chat session
+   * @param streamId  the stream of the turn
+   * @return the response address of the turn
+   */
+  public static String responseStreamingAddress(String sessionId, String streamId) {
+    return OPENAI_RESPONSE_STREAMING + sessionId + "." + streamId;
+  }
+
+  /**
+   * Resolves the address a long-lived connection receives the tokens and end markers of all its turns on, so that
+   * it registers one consumer instead of one per turn. Consumers tell turns apart by {@link #STREAM_ID_HEADER}.
+   *
+   * @param connectionId the connection
+   * @return the response address of the connection
+   */
+  public static String connectionStreamingAddress(String connectionId) {
+    return OPENAI_RESPONSE_STREAMING + "connection." + connectionId;
+  }
 
   /**
    * Private constructor to prevent instantiation.
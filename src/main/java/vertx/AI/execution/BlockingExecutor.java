@@ -0,0 +1,71 @@
+package vertx.AI.execution;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import vertx.AI.metrics.MetricsSource;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs blocking sections (upstream model calls, retrieval, MongoDB lookups, hashing, ingestion) off the event loop.
+ * <p>
+ * Tasks are unordered: concurrent tasks may run in parallel and complete in any order. The returned future
+ * completes on the Vert.x context that submitted the task, so callbacks run on the caller's event loop.
+ * <p>
+ * Each pipeline stage (chat, retrieval, ingestion, file I/O) gets its own executor with its own threads and queue limit,
+ * created at startup according to the configured {@link ExecutionMode}, so that a backlog in one stage cannot
+ * delay another. Every executor reports its queue-wait and activity metrics.
+ */
+public interface BlockingExecutor extends MetricsSource {
+
+  /**
+   * Runs a blocking task.
+   *
+   * @param task the task to run
+   * @param <T>  the task result type
+   * @return a {@link Future} completed with the task result, or failed with the exception it threw
+   */
+  <T> Future<T> execute(Callable<T> task);
+
+  /**
+   * Adapts this executor for libraries that fan work out to a {@link Executor}, such as the retrieval augmentor
+   * running one search per expanded query. When the stage queue is full the task runs on the calling thread
+   * instead, since such callers usually block until every task is done.
+   *
+   * @return an executor submitting its tasks to this stage
+   */
+  default Executor asExecutor() {
+    return task -> {
+      Future<Void> submitted = execute(() -> {
+        task.run();
+        return null;
+      });
+      if (submitted.failed()) {
+        task.run();
+      }
+    };
+  }
+
+  /**
+   * Releases the threads owned by this executor. Tasks already submitted still complete.
+   */
+  void close();
+
+  /**
+   * Creates the executor of a pipeline stage.
+   *
+   * @param vertx    the Vert.x instance
+   * @param mode     the execution mode
+   * @param name     the stage name
+   * @param poolSize the maximum number of tasks running at once
+   * @param maxQueue the maximum number of tasks waiting to run
+   * @return the executor
+   */
+  static BlockingExecutor create(Vertx vertx, ExecutionMode mode, String name, int poolSize, int maxQueue) {
+    return switch (mode) {
+      case WORKER -> new WorkerPoolBlockingExecutor(vertx, name, poolSize, maxQueue);
+      case VIRTUAL_THREAD -> new VirtualThreadBlockingExecutor(vertx, name, poolSize, maxQueue);
+    };
+  }
+}
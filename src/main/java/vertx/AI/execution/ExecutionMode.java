@@ -0,0 +1,47 @@
+package vertx.AI.execution;
+
+/**
+ * Selects the threads that run blocking sections, configured by {@code execution.mode} in {@code config.json}.
+ */
+public enum ExecutionMode {
+
+  /**
+   * Blocking sections run on platform threads, in a dedicated worker pool per pipeline stage.
+   */
+  WORKER("worker"),
+
+  /**
+   * Every blocking section runs on its own virtual thread, so waits on upstream calls do not hold a platform thread.
+   * The stage pool size caps the number of concurrently running virtual threads.
+   */
+  VIRTUAL_THREAD("virtual-thread");
+
+  private final String configName;
+
+  ExecutionMode(String configName) {
+    this.configName = configName;
+  }
+
+  /**
+   * @return the name used for this mode in the configuration
+   */
+  public String configName() {
+    return configName;
+  }
+
+  /**
+   * Resolves a mode from its configuration name.
+   *
+   * @param configName the configured mode, e.g. {@code "virtual-thread"}
+   * @return the matching mode
+   * @throws IllegalArgumentException if no mode has that name
+   */
+  public static ExecutionMode fromConfig(String configName) {
+    for (ExecutionMode mode : values()) {
+      if (mode.configName.equalsIgnoreCase(configName)) {
+        return mode;
+      }
+    }
+    throw new IllegalArgumentException("Unknown execution mode: " + configName);
+  }
+}
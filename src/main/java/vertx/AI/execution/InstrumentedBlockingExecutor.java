@@ -0,0 +1,130 @@
+package vertx.AI.execution;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Base class of the per-stage {@link BlockingExecutor}s: bounds the number of waiting tasks and records
+ * queue-wait and activity metrics. Subclasses only decide which threads run the tasks.
+ * <p>
+ * At most {@code poolSize} tasks run at once; up to {@code maxQueue} more wait for a free slot. Further tasks
+ * are rejected immediately with a {@link RejectedExecutionException}, so a burst on one stage cannot build an
+ * unbounded backlog. Admission counts every task accepted and not yet finished against {@code poolSize + maxQueue},
+ * so a burst is accepted up to that total whether or not the threads have picked up its first tasks yet.
+ */
+public abstract class InstrumentedBlockingExecutor implements BlockingExecutor {
+
+  private final String name;
+  private final int poolSize;
+  private final int maxQueue;
+
+  // Tasks accepted and not yet finished, running or waiting
+  private final AtomicInteger pending = new AtomicInteger();
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicInteger active = new AtomicInteger();
+  private final LongAdder submitted = new LongAdder();
+  private final LongAdder completed = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder totalQueueWaitNanos = new LongAdder();
+  private volatile long maxQueueWaitNanos;
+
+  /**
+   * @param name     the stage name, used in thread names, errors and metrics
+   * @param poolSize the maximum number of tasks running at once
+   * @param maxQueue the maximum number of tasks waiting to run
+   */
+  protected InstrumentedBlockingExecutor(String name, int poolSize, int maxQueue) {
+    this.name = name;
+    this.poolSize = poolSize;
+    this.maxQueue = maxQueue;
+  }
+
+  @Override
+  public final <T> Future<T> execute(Callable<T> task) {
+    if (pending.incrementAndGet() > poolSize + maxQueue) {
+      pending.decrementAndGet();
+      rejected.increment();
+      return Future.failedFuture(new RejectedExecutionException("Executor '" + name + "' queue is full"));
+    }
+
+    queued.incrementAndGet();
+    submitted.increment();
+    long submittedAt = System.nanoTime();
+
+    return submit(() -> {
+      queued.decrementAndGet();
+      active.incrementAndGet();
+      recordQueueWait(System.nanoTime() - submittedAt);
+      try {
+        T result = task.call();
+        completed.increment();
+        return result;
+      } catch (Exception e) {
+        failed.increment();
+        throw e;
+      } finally {
+        active.decrementAndGet();
+        pending.decrementAndGet();
+      }
+    });
+  }
+
+  /**
+   * Hands a task to the underlying threads, running at most {@code poolSize} tasks at once.
+   *
+   * @param task the instrumented task
+   * @param <T>  the task result type
+   * @return a {@link Future} completed on the submitting context
+   */
+  protected abstract <T> Future<T> submit(Callable<T> task);
+
+  /**
+   * @return the execution mode of the underlying threads
+   */
+  protected abstract ExecutionMode mode();
+
+  /**
+   * @return the stage name of this executor
+   */
+  public String name() {
+    return name;
+  }
+
+  /**
+   * @return the maximum number of tasks running at once
+   */
+  protected int poolSize() {
+    return poolSize;
+  }
+
+  private void recordQueueWait(long waitNanos) {
+    totalQueueWaitNanos.add(waitNanos);
+    if (waitNanos > maxQueueWaitNanos) {
+      maxQueueWaitNanos = waitNanos;
+    }
+  }
+
+  @Override
+  public JsonObject toJson() {
+    long started = completed.sum() + failed.sum() + active.get();
+    return new JsonObject()
+      .put("mode", mode().configName())
+      .put("poolSize", poolSize)
+      .put("maxQueue", maxQueue)
+      .put("activeThreads", active.get())
+      .put("queued", queued.get())
+      .put("submitted", submitted.sum())
+      .put("completed", completed.sum())
+      .put("failed", failed.sum())
+      .put("rejected", rejected.sum())
+      .put("avgQueueWaitMs", started == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalQueueWaitNanos.sum() / started))
+      .put("maxQueueWaitMs", TimeUnit.NANOSECONDS.toMillis(maxQueueWaitNanos));
+  }
+}
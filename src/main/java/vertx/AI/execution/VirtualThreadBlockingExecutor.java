@@ -0,0 +1,74 @@
+package vertx.AI.execution;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * {@link BlockingExecutor} that runs every task on a new virtual thread.
+ * <p>
+ * A task blocked on I/O (an upstream model call, a MongoDB query) parks its virtual thread instead of holding a
+ * platform thread, so thousands of concurrent waits no longer compete for the few threads of a worker pool.
+ * The stage's {@code poolSize} still caps how many tasks run at once, which keeps stages isolated from each other.
+ * Results are handed back to the submitting context with {@link Context#runOnContext}.
+ */
+public class VirtualThreadBlockingExecutor extends InstrumentedBlockingExecutor {
+
+  private final Vertx vertx;
+  private final Semaphore slots;
+  private final ExecutorService executor;
+
+  /**
+   * Constructs the executor.
+   *
+   * @param vertx    the Vert.x instance whose contexts receive the results
+   * @param name     the stage name; the virtual threads are named {@code vertx-ai-<name>-<n>}
+   * @param poolSize the maximum number of tasks running at once
+   * @param maxQueue the maximum number of tasks waiting for a slot
+   */
+  public VirtualThreadBlockingExecutor(Vertx vertx, String name, int poolSize, int maxQueue) {
+    super(name, poolSize, maxQueue);
+    this.vertx = vertx;
+    this.slots = new Semaphore(poolSize, true);
+    this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("vertx-ai-" + name + "-", 0).factory());
+  }
+
+  @Override
+  protected <T> Future<T> submit(Callable<T> task) {
+    Context context = vertx.getOrCreateContext();
+    Promise<T> promise = Promise.promise();
+
+    executor.execute(() -> {
+      try {
+        slots.acquire();
+        T result;
+        try {
+          result = task.call();
+        } finally {
+          slots.release();
+        }
+        context.runOnContext(v -> promise.complete(result));
+      } catch (Throwable e) {
+        context.runOnContext(v -> promise.fail(e));
+      }
+    });
+
+    return promise.future();
+  }
+
+  @Override
+  protected ExecutionMode mode() {
+    return ExecutionMode.VIRTUAL_THREAD;
+  }
+
+  @Override
+  public void close() {
+    executor.shutdown();
+  }
+}
@@ -0,0 +1,44 @@
+package vertx.AI.execution;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+
+import java.util.concurrent.Callable;
+
+/**
+ * {@link BlockingExecutor} backed by a named Vert.x {@link WorkerExecutor} of its own, so that its tasks never
+ * compete for threads with the tasks of other stages.
+ */
+public class WorkerPoolBlockingExecutor extends InstrumentedBlockingExecutor {
+
+  private final WorkerExecutor workerExecutor;
+
+  /**
+   * Constructs the executor and its worker pool.
+   *
+   * @param vertx    the Vert.x instance creating the pool
+   * @param name     the stage name; the pool threads are named {@code vertx-ai-<name>}
+   * @param poolSize the number of worker threads
+   * @param maxQueue the maximum number of tasks waiting for a thread
+   */
+  public WorkerPoolBlockingExecutor(Vertx vertx, String name, int poolSize, int maxQueue) {
+    super(name, poolSize, maxQueue);
+    this.workerExecutor = vertx.createSharedWorkerExecutor("vertx-ai-" + name, poolSize);
+  }
+
+  @Override
+  protected <T> Future<T> submit(Callable<T> task) {
+    return workerExecutor.executeBlocking(task, false);
+  }
+
+  @Override
+  protected ExecutionMode mode() {
+    return ExecutionMode.WORKER;
+  }
+
+  @Override
+  public void close() {
+    workerExecutor.close();
+  }
+}
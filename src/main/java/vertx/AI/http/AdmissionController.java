@@ -0,0 +1,171 @@
+package vertx.AI.http;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import vertx.AI.metrics.MetricsSource;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits the number of in-flight requests for a route, with a small bounded wait queue in front of it.
+ * <p>
+ * A request is admitted immediately while fewer than {@code maxInFlight} requests are running. Otherwise it
+ * waits in a FIFO queue of at most {@code maxQueue} entries for up to {@code maxWaitMs}; when the queue is
+ * full or the wait expires the request is rejected so it can be shed quickly. A {@code maxWaitMs} of zero or less
+ * disables the queue: requests beyond {@code maxInFlight} are rejected at once.
+ * <p>
+ * One controller is shared by every {@code HttpServerVerticle} instance, so it is thread-safe. Admission of a
+ * queued request is always completed on the event loop that requested it.
+ */
+public class AdmissionController implements MetricsSource {
+
+  private final Vertx vertx;
+  private final int maxInFlight;
+  private final int maxQueue;
+  private final long maxWaitMs;
+
+  private final Deque<Waiter> queue = new ArrayDeque<>();
+  private int inFlight;
+
+  private final LongAdder admitted = new LongAdder();
+  private final LongAdder queued = new LongAdder();
+  private final LongAdder rejectedQueueFull = new LongAdder();
+  private final LongAdder rejectedTimeout = new LongAdder();
+  private final LongAdder totalWaitNanos = new LongAdder();
+  private volatile long maxWaitNanos;
+
+  /**
+   * Constructs an admission controller.
+   *
+   * @param vertx       the Vert.x instance used for wait timers
+   * @param maxInFlight the maximum number of concurrently admitted requests
+   * @param maxQueue    the maximum number of requests waiting for admission
+   * @param maxWaitMs   the maximum time a request may wait before being rejected, or zero not to queue requests
+   */
+  public AdmissionController(Vertx vertx, int maxInFlight, int maxQueue, long maxWaitMs) {
+    this.vertx = vertx;
+    this.maxInFlight = maxInFlight;
+    this.maxQueue = maxQueue;
+    this.maxWaitMs = maxWaitMs;
+  }
+
+  /**
+   * Requests a permit. The returned future is already completed when the request is admitted or rejected
+   * immediately; otherwise it completes once a permit is handed over or the wait expires.
+   * Every successful acquisition must be matched by exactly one {@link #release()}.
+   *
+   * @return a {@link Future} that succeeds when admitted, or fails with {@link AdmissionRejectedException}
+   */
+  public Future<Void> acquire() {
+    Context context = vertx.getOrCreateContext();
+
+    synchronized (this) {
+      if (inFlight < maxInFlight) {
+        inFlight++;
+        admitted.increment();
+        return Future.succeededFuture();
+      }
+
+      if (maxWaitMs <= 0 || queue.size() >= maxQueue) {
+        rejectedQueueFull.increment();
+        return Future.failedFuture(new AdmissionRejectedException("Too many requests in flight"));
+      }
+
+      Waiter waiter = new Waiter(context, System.nanoTime());
+      waiter.timerId = vertx.setTimer(maxWaitMs, id -> expire(waiter));
+      queue.addLast(waiter);
+      queued.increment();
+      return waiter.promise.future();
+    }
+  }
+
+  /**
+   * Returns a permit, handing it directly to the oldest waiting request if there is one.
+   */
+  public void release() {
+    Waiter next;
+    synchronized (this) {
+      next = queue.pollFirst();
+      if (next == null) {
+        inFlight--;
+        return;
+      }
+      admitted.increment();
+    }
+
+    vertx.cancelTimer(next.timerId);
+    recordWait(System.nanoTime() - next.enqueuedAt);
+    next.context.runOnContext(v -> next.promise.complete());
+  }
+
+  private void expire(Waiter waiter) {
+    synchronized (this) {
+      if (!queue.remove(waiter)) {
+        return;
+      }
+    }
+
+    rejectedTimeout.increment();
+    recordWait(System.nanoTime() - waiter.enqueuedAt);
+    waiter.promise.fail(new AdmissionRejectedException("Timed out waiting for admission"));
+  }
+
+  private void recordWait(long waitNanos) {
+    totalWaitNanos.add(waitNanos);
+    if (waitNanos > maxWaitNanos) {
+      maxWaitNanos = waitNanos;
+    }
+  }
+
+  @Override
+  public JsonObject toJson() {
+    int currentInFlight;
+    int queueDepth;
+    synchronized (this) {
+      currentInFlight = inFlight;
+      queueDepth = queue.size();
+    }
+
+    long waits = queued.sum();
+    return new JsonObject()
+      .put("maxInFlight", maxInFlight)
+      .put("inFlight", currentInFlight)
+      .put("queueDepth", queueDepth)
+      .put("admitted", admitted.sum())
+      .put("queued", waits)
+      .put("rejectedQueueFull", rejectedQueueFull.sum())
+      .put("rejectedTimeout", rejectedTimeout.sum())
+      .put("avgWaitMs", waits == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.sum() / waits))
+      .put("maxWaitMs", TimeUnit.NANOSECONDS.toMillis(maxWaitNanos));
+  }
+
+  /**
+   * A request waiting for a permit.
+   */
+  private static final class Waiter {
+    private final Context context;
+    private final long enqueuedAt;
+    private final Promise<Void> promise = Promise.promise();
+    private long timerId;
+
+    private Waiter(Context context, long enqueuedAt) {
+      this.context = context;
+      this.enqueuedAt = enqueuedAt;
+    }
+  }
+
+  /**
+   * Signals that a request was shed because the route is saturated.
+   */
+  public static class AdmissionRejectedException extends RuntimeException {
+    public AdmissionRejectedException(String message) {
+      super(message, null, false, false);
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package vertx.AI.http;
+
+import io.vertx.core.Future;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.handler.PlatformHandler;
+import vertx.AI.dto.ErrorResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Route handler that admits requests through an {@link AdmissionController} before the rest of the route runs.
+ * <p>
+ * Admitted requests hold their permit until the response is finished (or the connection drops), which for
+ * streaming routes covers the whole stream. Rejected requests get a fast {@code 503} with a {@code Retry-After}
+ * header. While a request waits in the queue its body is paused, so it must be installed before any handler
+ * that reads the body; being a {@link PlatformHandler}, it may precede a {@code BodyHandler} on the route.
+ */
+public class AdmissionHandler implements PlatformHandler {
+
+  private static final Logger logger = LoggerFactory.getLogger(AdmissionHandler.class);
+
+  private final String routeName;
+  private final AdmissionController controller;
+  private final long retryAfterSeconds;
+
+  /**
+   * Constructs an admission handler for a route.
+   *
+   * @param routeName         the route name used in log messages
+   * @param controller        the controller holding the route's limits
+   * @param retryAfterSeconds the value sent in the {@code Retry-After} header of rejected requests
+   */
+  public AdmissionHandler(String routeName, AdmissionController controller, long retryAfterSeconds) {
+    this.routeName = routeName;
+    this.controller = controller;
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  @Override
+  public void handle(RoutingContext context) {
+    Future<Void> admission = controller.acquire();
+
+    if (admission.isComplete()) {
+      if (admission.succeeded()) {
+        admit(context);
+      } else {
+        reject(context, admission.cause());
+      }
+      return;
+    }
+
+    // Hold the body until the request is admitted; the body/upload handlers resume it
+    context.request().pause();
+    admission.onComplete(ar -> {
+      if (ar.succeeded()) {
+        admit(context);
+      } else {
+        reject(context, ar.cause());
+      }
+    });
+  }
+
+  private void admit(RoutingContext context) {
+    if (context.response().closed()) {
+      controller.release();
+      return;
+    }
+
+    context.addEndHandler(v -> controller.release());
+    context.next();
+  }
+
+  private void reject(RoutingContext context, Throwable cause) {
+    logger.warn("[Admission][{}] Rejected request: {}", routeName, cause.getMessage());
+
+    if (!context.response().ended()) {
+      context.response()
+        .setStatusCode(503)
+        .putHeader("Retry-After", String.valueOf(retryAfterSeconds))
+        .putHeader("Content-Type", "application/json")
+        .end(ErrorResponse.createErrorResponse(503, "Server is busy, please retry later").encode());
+    }
+  }
+}
@@ -0,0 +1,126 @@
+package vertx.AI.http;
+
+import io.vertx.core.buffer.Buffer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes streamed tokens directly into Server-Sent Events frames of the form
+ * {@code data: {"token":"..."}\n\n}.
+ * <p>
+ * JSON string escaping and UTF-8 encoding are done inline while appending to the frame buffer,
+ * so no intermediate {@code JsonObject}, {@code String} concatenation or re-encoding is needed per token.
+ * The produced bytes are identical to encoding {@code new JsonObject().put("token", token)}.
+ */
+public final class SseFrameEncoder {
+
+  private static final byte[] FRAME_PREFIX = "data: {\"token\":\"".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] FRAME_SUFFIX = "\"}\n\n".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private SseFrameEncoder() {}
+
+  /**
+   * Encodes a single token into a complete SSE frame.
+   *
+   * @param token the token text
+   * @return a buffer containing the full frame
+   */
+  public static Buffer encodeToken(CharSequence token) {
+    Buffer frame = startFrame(token.length());
+    appendEscaped(frame, token);
+    return finishFrame(frame);
+  }
+
+  /**
+   * Allocates a frame buffer and writes the frame prefix into it.
+   *
+   * @param expectedTextLength the expected length of the token text, used to size the buffer
+   * @return a new buffer positioned after the frame prefix
+   */
+  public static Buffer startFrame(int expectedTextLength) {
+    return Buffer.buffer(FRAME_PREFIX.length + expectedTextLength + FRAME_SUFFIX.length)
+      .appendBytes(FRAME_PREFIX);
+  }
+
+  /**
+   * Appends the suffix closing the JSON object and the SSE event.
+   *
+   * @param frame a buffer created by {@link #startFrame(int)}
+   * @return the same buffer, now holding a complete frame
+   */
+  public static Buffer finishFrame(Buffer frame) {
+    return frame.appendBytes(FRAME_SUFFIX);
+  }
+
+  /**
+   * Returns the number of bytes of token text held by a frame created by {@link #startFrame(int)}.
+   *
+   * @param frame an unfinished frame buffer
+   * @return the length of the escaped token text in bytes
+   */
+  public static int textLength(Buffer frame) {
+    return frame.length() - FRAME_PREFIX.length;
+  }
+
+  /**
+   * Appends the given text to the frame as the body of a JSON string, escaping quotes, backslashes
+   * and control characters and encoding everything else as UTF-8.
+   *
+   * @param frame the buffer to append to
+   * @param text  the raw text
+   */
+  public static void appendEscaped(Buffer frame, CharSequence text) {
+    int length = text.length();
+    for (int i = 0; i < length; i++) {
+      char c = text.charAt(i);
+
+      if (c < 0x80) {
+        if (c >= 0x20 && c != '"' && c != '\\') {
+          frame.appendByte((byte) c);
+        } else {
+          appendEscapedAscii(frame, c);
+        }
+      } else if (c < 0x800) {
+        frame.appendByte((byte) (0xC0 | (c >> 6)));
+        frame.appendByte((byte) (0x80 | (c & 0x3F)));
+      } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(c, text.charAt(++i));
+        frame.appendByte((byte) (0xF0 | (codePoint >> 18)));
+        frame.appendByte((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+        frame.appendByte((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+        frame.appendByte((byte) (0x80 | (codePoint & 0x3F)));
+      } else if (Character.isSurrogate(c)) {
+        // Unpaired surrogate, replaced the same way String#getBytes(UTF_8) does
+        frame.appendByte((byte) '?');
+      } else {
+        frame.appendByte((byte) (0xE0 | (c >> 12)));
+        frame.appendByte((byte) (0x80 | ((c >> 6) & 0x3F)));
+        frame.appendByte((byte) (0x80 | (c & 0x3F)));
+      }
+    }
+  }
+
+  private static void appendEscapedAscii(Buffer frame, char c) {
+    frame.appendByte((byte) '\\');
+    switch (c) {
+      case '"' -> frame.appendByte((byte) '"');
+      case '\\' -> frame.appendByte((byte) '\\');
+      case '\n' -> frame.appendByte((byte) 'n');
+      case '\r' -> frame.appendByte((byte) 'r');
+      case '\t' -> frame.appendByte((byte) 't');
+      case '\b' -> frame.appendByte((byte) 'b');
+      case '\f' -> frame.appendByte((byte) 'f');
+      default -> {
+        frame.appendByte((byte) 'u');
+        frame.appendByte((byte) '0');
+        frame.appendByte((byte) '0');
+        frame.appendByte(HEX[c >> 4]);
+        frame.appendByte(HEX[c & 0xF]);
+      }
+    }
+  }
+}
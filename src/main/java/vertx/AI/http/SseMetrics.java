@@ -0,0 +1,51 @@
+package vertx.AI.http;
+
+import io.vertx.core.json.JsonObject;
+import vertx.AI.metrics.MetricsSource;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for Server-Sent Events streams, shared by every {@link SseWriter} on the node.
+ */
+public class SseMetrics implements MetricsSource {
+
+  private final LongAdder frames = new LongAdder();
+  private final LongAdder bytes = new LongAdder();
+  private final LongAdder stalls = new LongAdder();
+  private final AtomicInteger activeStreams = new AtomicInteger();
+  private final AtomicInteger stalledClients = new AtomicInteger();
+
+  void streamOpened() {
+    activeStreams.incrementAndGet();
+  }
+
+  void streamClosed() {
+    activeStreams.decrementAndGet();
+  }
+
+  void frameWritten(int frameBytes) {
+    frames.increment();
+    bytes.add(frameBytes);
+  }
+
+  void clientStalled() {
+    stalls.increment();
+    stalledClients.incrementAndGet();
+  }
+
+  void clientResumed() {
+    stalledClients.decrementAndGet();
+  }
+
+  @Override
+  public JsonObject toJson() {
+    return new JsonObject()
+      .put("activeStreams", activeStreams.get())
+      .put("frames", frames.sum())
+      .put("bytes", bytes.sum())
+      .put("stalls", stalls.sum())
+      .put("stalledClients", stalledClients.get());
+  }
+}
@@ -0,0 +1,158 @@
+package vertx.AI.http;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerResponse;
+
+/**
+ * Writes streamed chat tokens to a Server-Sent Events response.
+ * <p>
+ * Tokens are coalesced into a single {@code data: {"token": ...}} frame per flush window: a frame is
+ * written once {@code flushIntervalMs} has elapsed since the first buffered token, or as soon as the
+ * buffered text reaches {@code maxFrameSize} bytes, whichever comes first. A flush interval of
+ * {@code 0} writes every token immediately. Tokens are escaped straight into the pending frame
+ * buffer by {@link SseFrameEncoder}, so a flush writes that buffer as-is.
+ * <p>
+ * When the response write queue is full, nothing more is written until the client drains it: tokens keep
+ * being coalesced into the one pending frame, which is written on drain. The token source is never paused,
+ * as an event bus consumer drops messages once its pause buffer fills; a stalled stream instead holds at most
+ * the rest of the reply, as a single frame.
+ * <p>
+ * Instances are not thread-safe and must only be used from the event loop owning the response.
+ */
+public class SseWriter {
+
+  private final Vertx vertx;
+  private final HttpServerResponse response;
+  private final long flushIntervalMs;
+  private final int maxFrameSize;
+  private final SseMetrics metrics;
+
+  private Buffer pendingFrame;
+  private long flushTimerId = -1;
+  private boolean stalled;
+  private boolean closed;
+
+  /**
+   * Constructs a writer for the given SSE response.
+   *
+   * @param vertx           the Vert.x instance used for flush timers
+   * @param response        the chunked SSE response to write to
+   * @param flushIntervalMs the coalescing window in milliseconds ({@code 0} disables coalescing)
+   * @param maxFrameSize    the buffered text size in bytes that triggers an immediate flush
+   * @param metrics         the shared SSE counters
+   */
+  public SseWriter(Vertx vertx, HttpServerResponse response, long flushIntervalMs, int maxFrameSize,
+                   SseMetrics metrics) {
+    this.vertx = vertx;
+    this.response = response;
+    this.flushIntervalMs = flushIntervalMs;
+    this.maxFrameSize = maxFrameSize;
+    this.metrics = metrics;
+    metrics.streamOpened();
+  }
+
+  /**
+   * Buffers a token and flushes it according to the coalescing window, or once the client drains if it is
+   * stalled.
+   *
+   * @param token the token text to send
+   */
+  public void writeToken(String token) {
+    if (closed) {
+      return;
+    }
+
+    if (pendingFrame == null) {
+      pendingFrame = SseFrameEncoder.startFrame(Math.max(token.length(), Math.min(maxFrameSize, 256)));
+    }
+    SseFrameEncoder.appendEscaped(pendingFrame, token);
+
+    if (stalled) {
+      return;
+    }
+    if (flushIntervalMs <= 0 || SseFrameEncoder.textLength(pendingFrame) >= maxFrameSize) {
+      flush();
+    } else if (flushTimerId < 0) {
+      flushTimerId = vertx.setTimer(flushIntervalMs, id -> {
+        flushTimerId = -1;
+        flush();
+      });
+    }
+  }
+
+  /**
+   * Flushes any buffered tokens and ends the response.
+   */
+  public void end() {
+    if (closed) {
+      return;
+    }
+
+    flush();
+    close();
+
+    if (!response.ended()) {
+      response.end();
+    }
+  }
+
+  /**
+   * Releases the writer without ending the response, e.g. when the client has disconnected.
+   */
+  public void close() {
+    if (closed) {
+      return;
+    }
+
+    closed = true;
+    cancelFlushTimer();
+    if (stalled) {
+      stalled = false;
+      metrics.clientResumed();
+    }
+    metrics.streamClosed();
+  }
+
+  private void flush() {
+    cancelFlushTimer();
+    if (closed || pendingFrame == null || response.ended()) {
+      return;
+    }
+
+    Buffer frame = SseFrameEncoder.finishFrame(pendingFrame);
+    pendingFrame = null;
+
+    response.write(frame);
+    metrics.frameWritten(frame.length());
+
+    if (response.writeQueueFull()) {
+      stall();
+    }
+  }
+
+  private void stall() {
+    if (stalled) {
+      return;
+    }
+
+    stalled = true;
+    metrics.clientStalled();
+
+    response.drainHandler(v -> {
+      if (!stalled) {
+        return;
+      }
+      stalled = false;
+      metrics.clientResumed();
+      flush();
+    });
+  }
+
+  private void cancelFlushTimer() {
+    if (flushTimerId >= 0) {
+      vertx.cancelTimer(flushTimerId);
+      flushTimerId = -1;
+    }
+  }
+}
@@ -0,0 +1,238 @@
+package vertx.AI.http;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.http.ServerWebSocket;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonObject;
+import vertx.AI.constants.EventBusAddresses;
+import vertx.AI.session.SessionRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.UUID;
+
+/**
+ * Binds one WebSocket connection to one chat session for the lifetime of the connection.
+ * <p>
+ * The connection registers one consumer on its own {@link EventBusAddresses#connectionStreamingAddress response
+ * address}, which every turn names in its request, so consecutive turns share both the connection and the
+ * consumer. Chunks are matched to the current turn by their {@link EventBusAddresses#STREAM_ID_HEADER stream ID},
+ * so tokens of a cancelled turn can never leak into the next one.
+ * <p>
+ * Protocol (JSON text frames):
+ * <ul>
+ *   <li>client → server: {@code {"type":"message","message":"..."}} starts a turn,
+ *   {@code {"type":"cancel"}} cancels the current turn</li>
+ *   <li>server → client: {@code session}, {@code token}, {@code end}, {@code cancelled} and {@code error} frames,
+ *   each carrying a {@code type} field</li>
+ * </ul>
+ * Only one turn runs at a time. Cancelling a turn, or closing the socket while a turn is streaming, aborts the
+ * upstream generation through {@link EventBusAddresses#OPENAI_CANCEL_STREAMING}.
+ * <p>
+ * While the socket's write queue is full, tokens are coalesced into one pending {@code token} frame that is
+ * written once the client drains, rather than pausing the turn's consumer, which would drop messages once its
+ * pause buffer fills. Other frames flush the pending tokens first, so they keep their order.
+ * Instances are confined to the event loop owning the socket.
+ */
+public class WebSocketChatSession {
+
+  private static final Logger logger = LoggerFactory.getLogger(WebSocketChatSession.class);
+
+  private final Vertx vertx;
+  private final ServerWebSocket webSocket;
+  private final String sessionId;
+  private final SessionRouter router;
+  private final String responseAddress = EventBusAddresses.connectionStreamingAddress(UUID.randomUUID().toString());
+  private final MessageConsumer<Object> consumer;
+  private final Future<Void> registered;
+  // Set while a turn is in progress
+  private String streamId;
+  private String cancelAddress;
+  private StringBuilder pendingTokens;
+  private boolean stalled;
+
+  /**
+   * Creates the session and starts listening for client frames.
+   *
+   * @param vertx     the Vert.x instance
+   * @param webSocket the accepted WebSocket connection
+   * @param sessionId the chat session bound to this connection
+   * @param router    resolves the chat verticle owning the session
+   */
+  public WebSocketChatSession(Vertx vertx, ServerWebSocket webSocket, String sessionId, SessionRouter router) {
+    this.vertx = vertx;
+    this.webSocket = webSocket;
+    this.sessionId = sessionId;
+    this.router = router;
+
+    consumer = vertx.eventBus().consumer(responseAddress);
+    consumer.handler(this::handleStreamChunk);
+    Promise<Void> registration = Promise.promise();
+    consumer.completionHandler(registration);
+    registered = registration.future();
+
+    webSocket.textMessageHandler(this::handleClientFrame);
+    webSocket.closeHandler(v -> close());
+    webSocket.exceptionHandler(err -> logger.warn("[WebSocket][Session: {}] Connection error", sessionId, err));
+
+    send(new JsonObject().put("type", "session").put("sessionId", sessionId));
+  }
+
+  private void handleClientFrame(String text) {
+    JsonObject frame;
+    try {
+      frame = new JsonObject(text);
+    } catch (DecodeException e) {
+      sendError("Invalid JSON frame");
+      return;
+    }
+
+    switch (frame.getString("type", "message")) {
+      case "message" -> startTurn(frame.getString("message"));
+      case "cancel" -> cancelTurn();
+      default -> sendError("Unknown frame type: " + frame.getString("type"));
+    }
+  }
+
+  private void startTurn(String userMessage) {
+    if (userMessage == null || userMessage.trim().isEmpty()) {
+      sendError("Message cannot be empty");
+      return;
+    }
+    if (streamId != null) {
+      sendError("A turn is already in progress for this session");
+      return;
+    }
+
+    logger.info("[WebSocket][Session: {}] Starting turn", sessionId);
+    String turnStreamId = UUID.randomUUID().toString();
+    streamId = turnStreamId;
+    // Resolved for every turn, as the owning worker changes when cluster members join or leave; a turn is
+    // cancelled on the node it was sent to
+    String streamingAddress = router.addressFor(EventBusAddresses.OPENAI_CLIENT_STREAMING, sessionId);
+    cancelAddress = router.addressFor(EventBusAddresses.OPENAI_CANCEL_STREAMING, sessionId);
+
+    JsonObject request = new JsonObject()
+      .put("message", userMessage)
+      .put("sessionId", sessionId)
+      .put("streamId", turnStreamId)
+      .put("responseAddress", responseAddress);
+
+    // Only the first turn of a connection may have to wait for the consumer to be registered
+    registered
+      .compose(v -> vertx.eventBus().request(streamingAddress, request))
+      .onFailure(err -> {
+        logger.error("[WebSocket][Session: {}] Failed to start turn", sessionId, err);
+        if (turnStreamId.equals(streamId)) {
+          // The turn may have been queued even though its reply was lost
+          cancelUpstream();
+          endTurn();
+          sendError("Failed to process request");
+        }
+      });
+  }
+
+  private void cancelTurn() {
+    if (streamId == null) {
+      return;
+    }
+
+    logger.info("[WebSocket][Session: {}] Turn cancelled by client", sessionId);
+    cancelUpstream();
+    endTurn();
+    // Tokens the client could not take yet are of no use once it has cancelled
+    pendingTokens = null;
+    send(new JsonObject().put("type", "cancelled"));
+  }
+
+  private void cancelUpstream() {
+    vertx.eventBus().send(cancelAddress, new JsonObject()
+      .put("streamId", streamId)
+      .put("sessionId", sessionId));
+  }
+
+  private void endTurn() {
+    streamId = null;
+  }
+
+  private void handleStreamChunk(Message<Object> message) {
+    if (streamId == null || !streamId.equals(message.headers().get(EventBusAddresses.STREAM_ID_HEADER))) {
+      return;
+    }
+    Object chunk = message.body();
+    if (chunk instanceof String token) {
+      sendToken(token);
+    } else if (chunk instanceof JsonObject control && control.containsKey("end")) {
+      endTurn();
+      if (control.getBoolean("cancelled", false)) {
+        send(new JsonObject().put("type", "cancelled"));
+        return;
+      }
+      JsonObject end = new JsonObject().put("type", "end");
+      if (control.containsKey("error")) {
+        end.put("error", control.getString("error"));
+      }
+      send(end);
+    }
+  }
+
+  private void sendToken(String token) {
+    if (!stalled) {
+      send(new JsonObject().put("type", "token").put("token", token));
+      return;
+    }
+    if (pendingTokens == null) {
+      pendingTokens = new StringBuilder();
+    }
+    pendingTokens.append(token);
+  }
+
+  private void send(JsonObject frame) {
+    if (webSocket.isClosed()) {
+      return;
+    }
+
+    flushPendingTokens();
+    write(frame);
+  }
+
+  private void flushPendingTokens() {
+    if (pendingTokens != null) {
+      String tokens = pendingTokens.toString();
+      pendingTokens = null;
+      write(new JsonObject().put("type", "token").put("token", tokens));
+    }
+  }
+
+  private void write(JsonObject frame) {
+    webSocket.writeTextMessage(frame.encode());
+
+    // Hold back further tokens until a slow client has drained its write queue
+    if (!stalled && webSocket.writeQueueFull()) {
+      stalled = true;
+      webSocket.drainHandler(v -> {
+        stalled = false;
+        if (!webSocket.isClosed()) {
+          flushPendingTokens();
+        }
+      });
+    }
+  }
+
+  private void sendError(String error) {
+    send(new JsonObject().put("type", "error").put("error", error));
+  }
+
+  private void close() {
+    logger.info("[WebSocket][Session: {}] Connection closed", sessionId);
+    if (streamId != null) {
+      cancelUpstream();
+      endTurn();
+    }
+    consumer.unregister();
+  }
+}
@@ -0,0 +1,307 @@
+package vertx.AI.llm;
+
+import dev.ai4j.openai4j.OpenAiHttpException;
+import io.vertx.core.json.JsonObject;
+import vertx.AI.metrics.MetricsSource;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An AIMD (additive increase, multiplicative decrease) concurrency limiter for upstream model calls.
+ * <p>
+ * Every call takes a {@link Permit} and reports its outcome when it finishes:
+ * <ul>
+ *   <li>a successful call faster than {@code latencyThresholdMs} grows the limit by {@code 1 / limit}
+ *   (roughly one extra slot per full window of calls), as long as the limit is actually being used</li>
+ *   <li>a call slower than the threshold, rate-limited ({@code 429}) or timed out shrinks the limit
+ *   by {@code backoffRatio}</li>
+ * </ul>
+ * The limit is kept between {@code minLimit} and {@code maxLimit}. Callers beyond the limit wait in a FIFO
+ * queue of at most {@code maxQueue} entries and are rejected with {@link LimitExceededException} when it is full.
+ * <p>
+ * The limiter is thread-safe and shared by every model wrapper on the node.
+ */
+public class AdaptiveConcurrencyLimiter implements MetricsSource {
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final long latencyThresholdNanos;
+  private final double backoffRatio;
+  private final int maxQueue;
+
+  private final Deque<CompletableFuture<Permit>> waiters = new ArrayDeque<>();
+  private double limit;
+  private int inFlight;
+
+  private final LongAdder successes = new LongAdder();
+  private final LongAdder drops = new LongAdder();
+  private final LongAdder rejections = new LongAdder();
+
+  /**
+   * Constructs a limiter.
+   *
+   * @param initialLimit       the starting concurrency limit
+   * @param minLimit           the lowest limit the limiter may back off to
+   * @param maxLimit           the highest limit the limiter may grow to
+   * @param latencyThresholdMs latency above which a call counts as a congestion signal
+   * @param backoffRatio       the factor applied to the limit on congestion (e.g. {@code 0.9})
+   * @param maxQueue           the maximum number of callers waiting for a permit
+   */
+  public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long latencyThresholdMs,
+                                    double backoffRatio, int maxQueue) {
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMs);
+    this.backoffRatio = backoffRatio;
+    this.maxQueue = maxQueue;
+    this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+  }
+
+  /**
+   * Requests a permit without blocking.
+   *
+   * @return a future completed with the permit once it is granted, or failed with {@link LimitExceededException}
+   * when the wait queue is full
+   */
+  public CompletableFuture<Permit> acquireAsync() {
+    synchronized (this) {
+      if (inFlight < currentLimit()) {
+        inFlight++;
+        return CompletableFuture.completedFuture(new Permit());
+      }
+
+      if (waiters.size() >= maxQueue) {
+        rejections.increment();
+        return CompletableFuture.failedFuture(new LimitExceededException("Upstream concurrency limit reached"));
+      }
+
+      CompletableFuture<Permit> waiter = new CompletableFuture<>();
+      waiters.addLast(waiter);
+      return waiter;
+    }
+  }
+
+  /**
+   * Requests a permit, blocking the calling thread for at most the given time.
+   * Must not be called from an event loop thread.
+   *
+   * @param timeoutMs the maximum time to wait
+   * @return the granted permit
+   * @throws LimitExceededException if the queue is full or no permit was granted in time
+   */
+  public Permit acquire(long timeoutMs) {
+    CompletableFuture<Permit> waiter = acquireAsync();
+    try {
+      return waiter.get(timeoutMs, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      if (waiter.cancel(false)) {
+        synchronized (this) {
+          waiters.remove(waiter);
+        }
+        rejections.increment();
+        throw new LimitExceededException("Timed out waiting for an upstream permit");
+      }
+      // Granted between the timeout and the cancellation attempt
+      return waiter.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      abandon(waiter);
+      throw new LimitExceededException("Interrupted while waiting for an upstream permit");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof LimitExceededException limitExceeded) {
+        throw limitExceeded;
+      }
+      throw new LimitExceededException(e.getCause().getMessage());
+    }
+  }
+
+  /**
+   * Withdraws a request made with {@link #acquireAsync()} whose caller no longer needs the permit.
+   * A waiting request leaves the queue; a permit that was already granted is released without being sampled.
+   *
+   * @param acquisition the future returned by {@link #acquireAsync()}
+   */
+  public void abandon(CompletableFuture<Permit> acquisition) {
+    if (acquisition.cancel(false)) {
+      synchronized (this) {
+        waiters.remove(acquisition);
+      }
+    } else if (!acquisition.isCompletedExceptionally()) {
+      acquisition.join().ignore();
+    }
+  }
+
+  /**
+   * Returns whether the given failure is an upstream rate-limit or timeout signal.
+   *
+   * @param error the failure of an upstream call
+   * @return {@code true} if the limit should back off because of this failure
+   */
+  public static boolean isCongestionSignal(Throwable error) {
+    for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+      if (cause instanceof OpenAiHttpException httpException && httpException.code() == 429) {
+        return true;
+      }
+      if (cause instanceof InterruptedIOException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int currentLimit() {
+    return (int) Math.floor(limit);
+  }
+
+  private void release(long latencyNanos, boolean congested, boolean adjust) {
+    List<CompletableFuture<Permit>> granted = new ArrayList<>();
+
+    synchronized (this) {
+      if (adjust) {
+        if (congested || latencyNanos > latencyThresholdNanos) {
+          limit = Math.max(minLimit, limit * backoffRatio);
+        } else if (inFlight * 2 >= currentLimit()) {
+          limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+      }
+
+      inFlight--;
+      while (inFlight < currentLimit() && !waiters.isEmpty()) {
+        CompletableFuture<Permit> waiter = waiters.pollFirst();
+        if (!waiter.isDone()) {
+          inFlight++;
+          granted.add(waiter);
+        }
+      }
+    }
+
+    for (CompletableFuture<Permit> waiter : granted) {
+      if (!waiter.complete(new Permit())) {
+        // Cancelled concurrently; hand the slot back
+        release(0, false, false);
+      }
+    }
+  }
+
+  @Override
+  public JsonObject toJson() {
+    double currentLimit;
+    int currentInFlight;
+    int queueLength;
+    synchronized (this) {
+      currentLimit = limit;
+      currentInFlight = inFlight;
+      queueLength = waiters.size();
+    }
+
+    return new JsonObject()
+      .put("limit", currentLimit())
+      .put("limitExact", currentLimit)
+      .put("inFlight", currentInFlight)
+      .put("queueLength", queueLength)
+      .put("successes", successes.sum())
+      .put("drops", drops.sum())
+      .put("rejections", rejections.sum());
+  }
+
+  /**
+   * Returns the current concurrency limit.
+   *
+   * @return the limit, rounded down
+   */
+  public synchronized int getLimit() {
+    return currentLimit();
+  }
+
+  /**
+   * A granted slot for one upstream call. Exactly one of the completion methods must be called.
+   */
+  public final class Permit {
+    private final long grantedAt = System.nanoTime();
+    private boolean released;
+
+    /**
+     * @return the nanoseconds elapsed since this permit was granted
+     */
+    public long elapsedNanos() {
+      return System.nanoTime() - grantedAt;
+    }
+
+    /**
+     * Records a successful call, using the time since the permit was granted as its latency.
+     */
+    public void success() {
+      success(elapsedNanos());
+    }
+
+    /**
+     * Records a successful call with an explicit latency sample (e.g. time to first token).
+     *
+     * @param latencyNanos the latency sample in nanoseconds
+     */
+    public void success(long latencyNanos) {
+      if (markReleased()) {
+        successes.increment();
+        release(latencyNanos, false, true);
+      }
+    }
+
+    /**
+     * Records a call that failed because the upstream is congested (rate limit or timeout).
+     */
+    public void dropped() {
+      if (markReleased()) {
+        drops.increment();
+        release(elapsedNanos(), true, true);
+      }
+    }
+
+    /**
+     * Releases the permit without using the call as a sample, e.g. for client errors or cancellations.
+     */
+    public void ignore() {
+      if (markReleased()) {
+        release(0, false, false);
+      }
+    }
+
+    /**
+     * Releases the permit after a failed call, backing off only if the failure is a congestion signal.
+     *
+     * @param error the failure of the call
+     */
+    public void failed(Throwable error) {
+      if (isCongestionSignal(error)) {
+        dropped();
+      } else {
+        ignore();
+      }
+    }
+
+    private synchronized boolean markReleased() {
+      if (released) {
+        return false;
+      }
+      released = true;
+      return true;
+    }
+  }
+
+  /**
+   * Signals that an upstream call was not started because the concurrency limit and its queue are exhausted.
+   */
+  public static class LimitExceededException extends RuntimeException {
+    public LimitExceededException(String message) {
+      super(message);
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package vertx.AI.llm;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link EmbeddingModel} decorator that merges the embedding requests of concurrent callers into one upstream
+ * {@code embedAll} call.
+ * <p>
+ * The first caller to arrive opens a batch and waits up to {@code maxDelayMs} for others to join it, or until it
+ * holds {@code maxBatchSize} texts; it then sends the whole batch and hands every caller the embeddings of its own
+ * texts. A failed call, even one ending in an {@link Error}, fails every caller of the batch. Requests of at least
+ * {@code maxBatchSize} texts, such as document ingestion, are sent on their own without waiting.
+ * <p>
+ * No thread is dedicated to batching: the caller opening a batch makes the upstream call, and the others block
+ * until it completes, so this model must only be used from worker threads.
+ */
+public class BatchingEmbeddingModel implements EmbeddingModel {
+
+  private final EmbeddingModel delegate;
+  private final int maxBatchSize;
+  private final long maxDelayNanos;
+  private final EmbeddingBatchMetrics metrics;
+  private final Object lock = new Object();
+  private Batch open;
+
+  /**
+   * Constructs the decorator.
+   *
+   * @param delegate     the model performing the actual upstream calls
+   * @param maxBatchSize the maximum number of texts sent in one call
+   * @param maxDelayMs   the maximum time the first request of a batch waits for others to join
+   * @param metrics      the counters of requests and upstream calls
+   */
+  public BatchingEmbeddingModel(EmbeddingModel delegate, int maxBatchSize, long maxDelayMs,
+                                EmbeddingBatchMetrics metrics) {
+    this.delegate = delegate;
+    this.maxBatchSize = maxBatchSize;
+    this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+    this.metrics = metrics;
+  }
+
+  @Override
+  public Response<List<Embedding>> embedAll(List<TextSegment> segments) {
+    metrics.requested(segments.size());
+    if (segments.size() >= maxBatchSize) {
+      Batch batch = new Batch(System.nanoTime());
+      batch.add(segments);
+      send(batch);
+      return Response.from(join(batch.result));
+    }
+
+    Batch batch;
+    int offset;
+    boolean leader = false;
+    synchronized (lock) {
+      if (open != null && open.segments.size() + segments.size() > maxBatchSize) {
+        seal(open);
+      }
+      if (open == null) {
+        open = new Batch(System.nanoTime());
+        leader = true;
+      }
+      batch = open;
+      offset = batch.add(segments);
+      if (batch.segments.size() >= maxBatchSize) {
+        seal(batch);
+      }
+      if (leader) {
+        awaitSealed(batch);
+      }
+    }
+
+    if (leader) {
+      send(batch);
+    }
+    return Response.from(join(batch.result).subList(offset, offset + segments.size()));
+  }
+
+  /**
+   * Waits, holding the lock, until the batch is full or its delay has elapsed, and closes it to new requests.
+   */
+  private void awaitSealed(Batch batch) {
+    long remaining;
+    while (!batch.sealed && (remaining = batch.openedNanos + maxDelayNanos - System.nanoTime()) > 0) {
+      try {
+        TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    seal(batch);
+  }
+
+  private void seal(Batch batch) {
+    batch.sealed = true;
+    if (open == batch) {
+      open = null;
+    }
+    lock.notifyAll();
+  }
+
+  private void send(Batch batch) {
+    metrics.batchSent(batch.segments.size(), System.nanoTime() - batch.openedNanos);
+    try {
+      batch.result.complete(delegate.embedAll(batch.segments).content());
+    } catch (Throwable e) {
+      // Errors too: the other callers of the batch would otherwise block forever; join rethrows it to each
+      metrics.batchFailed();
+      batch.result.completeExceptionally(e);
+    }
+  }
+
+  private static List<Embedding> join(CompletableFuture<List<Embedding>> result) {
+    try {
+      return result.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  @Override
+  public int dimension() {
+    return delegate.dimension();
+  }
+
+  /**
+   * The texts of the requests merged into one upstream call, and the embeddings it returned.
+   */
+  private static final class Batch {
+    private final long openedNanos;
+    private final List<TextSegment> segments = new ArrayList<>();
+    private final CompletableFuture<List<Embedding>> result = new CompletableFuture<>();
+    private boolean sealed;
+
+    private Batch(long openedNanos) {
+      this.openedNanos = openedNanos;
+    }
+
+    /**
+     * @return the index of the first added text in the batch
+     */
+    private int add(List<TextSegment> texts) {
+      int offset = segments.size();
+      segments.addAll(texts);
+      return offset;
+    }
+  }
+}
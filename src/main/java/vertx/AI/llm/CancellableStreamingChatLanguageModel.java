@@ -0,0 +1,29 @@
+package vertx.AI.llm;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+
+import java.util.List;
+
+/**
+ * A {@link StreamingChatLanguageModel} whose streams can be aborted while they are running.
+ */
+public interface CancellableStreamingChatLanguageModel extends StreamingChatLanguageModel {
+
+  /**
+   * Starts streaming a response to the given messages.
+   *
+   * @param messages the conversation to respond to
+   * @param handler  the handler receiving tokens and the final response
+   * @return a handle that aborts the upstream request when cancelled, and that is {@linkplain StreamHandle#end() ended}
+   * once the upstream request has finished
+   */
+  StreamHandle stream(List<ChatMessage> messages, StreamingResponseHandler<AiMessage> handler);
+
+  @Override
+  default void generate(List<ChatMessage> messages, StreamingResponseHandler<AiMessage> handler) {
+    stream(messages, handler);
+  }
+}
@@ -0,0 +1,52 @@
+package vertx.AI.llm;
+
+import io.vertx.core.json.JsonObject;
+import vertx.AI.metrics.MetricsSource;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the embedding requests of {@link BatchingEmbeddingModel} against the upstream calls they were merged
+ * into, to show how many calls batching saves and how long requests wait for it. Thread-safe.
+ */
+public class EmbeddingBatchMetrics implements MetricsSource {
+
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder texts = new LongAdder();
+  private final LongAdder batches = new LongAdder();
+  private final LongAdder failedBatches = new LongAdder();
+  private final LongAdder totalWaitNanos = new LongAdder();
+  private final LongAccumulator maxBatchTexts = new LongAccumulator(Math::max, 0);
+
+  void requested(int textCount) {
+    requests.increment();
+    texts.add(textCount);
+  }
+
+  void batchSent(int textCount, long waitNanos) {
+    batches.increment();
+    totalWaitNanos.add(waitNanos);
+    maxBatchTexts.accumulate(textCount);
+  }
+
+  void batchFailed() {
+    failedBatches.increment();
+  }
+
+  @Override
+  public JsonObject toJson() {
+    long requestCount = requests.sum();
+    long batchCount = batches.sum();
+    return new JsonObject()
+      .put("requests", requestCount)
+      .put("texts", texts.sum())
+      .put("upstreamCalls", batchCount)
+      .put("failedCalls", failedBatches.sum())
+      .put("avgRequestsPerCall", batchCount == 0 ? 0.0 : requestCount / (double) batchCount)
+      .put("maxTextsPerCall", maxBatchTexts.get())
+      .put("avgBatchWaitMs",
+        batchCount == 0 ? 0.0 : totalWaitNanos.sum() / (double) batchCount / TimeUnit.MILLISECONDS.toNanos(1));
+  }
+}
@@ -0,0 +1,70 @@
+package vertx.AI.llm;
+
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * A {@link ChatLanguageModel} decorator that runs every call under an {@link AdaptiveConcurrencyLimiter} permit
+ * and feeds the call's latency and outcome back into the limiter.
+ * <p>
+ * Calls block while waiting for a permit, so this model must only be used from worker threads.
+ */
+public class LimitedChatLanguageModel implements ChatLanguageModel {
+
+  private final ChatLanguageModel delegate;
+  private final AdaptiveConcurrencyLimiter limiter;
+  private final long maxWaitMs;
+
+  /**
+   * Constructs the decorator.
+   *
+   * @param delegate  the model performing the actual upstream calls
+   * @param limiter   the limiter shared by all upstream model calls
+   * @param maxWaitMs the maximum time a call may wait for a permit
+   */
+  public LimitedChatLanguageModel(ChatLanguageModel delegate, AdaptiveConcurrencyLimiter limiter, long maxWaitMs) {
+    this.delegate = delegate;
+    this.limiter = limiter;
+    this.maxWaitMs = maxWaitMs;
+  }
+
+  @Override
+  public Response<AiMessage> generate(List<ChatMessage> messages) {
+    return limited(() -> delegate.generate(messages));
+  }
+
+  @Override
+  public Response<AiMessage> generate(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications) {
+    return limited(() -> delegate.generate(messages, toolSpecifications));
+  }
+
+  @Override
+  public Response<AiMessage> generate(List<ChatMessage> messages, ToolSpecification toolSpecification) {
+    return limited(() -> delegate.generate(messages, toolSpecification));
+  }
+
+  @Override
+  public Set<Capability> supportedCapabilities() {
+    return delegate.supportedCapabilities();
+  }
+
+  private Response<AiMessage> limited(Supplier<Response<AiMessage>> call) {
+    AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire(maxWaitMs);
+    try {
+      Response<AiMessage> response = call.get();
+      permit.success();
+      return response;
+    } catch (RuntimeException e) {
+      permit.failed(e);
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package vertx.AI.llm;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.output.Response;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link CancellableStreamingChatLanguageModel} decorator that starts each stream only once an
+ * {@link AdaptiveConcurrencyLimiter} permit is granted, without blocking the calling thread.
+ * <p>
+ * The permit is held until the stream completes or fails. The latency sample reported to the limiter is the time to
+ * first token, which, unlike the total stream duration, does not depend on the length of the answer. A stream
+ * cancelled while still waiting for a permit leaves the queue without ever reaching the upstream; a stream cancelled
+ * once started keeps its permit until the delegate {@linkplain StreamHandle#end() ends} the upstream call, since
+ * the connection stays open until the call notices the abort (for OpenAI, on the next token to arrive).
+ */
+public class LimitedStreamingChatLanguageModel implements CancellableStreamingChatLanguageModel {
+
+  private final CancellableStreamingChatLanguageModel delegate;
+  private final AdaptiveConcurrencyLimiter limiter;
+
+  /**
+   * Constructs the decorator.
+   *
+   * @param delegate the model performing the actual upstream calls
+   * @param limiter  the limiter shared by all upstream model calls
+   */
+  public LimitedStreamingChatLanguageModel(CancellableStreamingChatLanguageModel delegate, AdaptiveConcurrencyLimiter limiter) {
+    this.delegate = delegate;
+    this.limiter = limiter;
+  }
+
+  @Override
+  public StreamHandle stream(List<ChatMessage> messages, StreamingResponseHandler<AiMessage> handler) {
+    StreamHandle handle = new StreamHandle();
+    CompletableFuture<AdaptiveConcurrencyLimiter.Permit> acquisition = limiter.acquireAsync();
+    // Only a request still waiting is withdrawn here; a granted permit is returned once its upstream call ends
+    handle.onCancel(() -> {
+      if (acquisition.cancel(false)) {
+        limiter.abandon(acquisition);
+      }
+    });
+
+    acquisition.whenComplete((permit, err) -> {
+      if (err != null) {
+        handle.end();
+        if (!handle.isCancelled()) {
+          handler.onError(err);
+        }
+        return;
+      }
+
+      if (handle.isCancelled()) {
+        permit.ignore();
+        handle.end();
+        return;
+      }
+
+      try {
+        StreamHandle upstream = delegate.stream(messages, new PermitReleasingHandler(permit, handler));
+        // No-op after a completion or failure already released the permit; otherwise the stream was cancelled
+        upstream.ended().thenRun(() -> {
+          permit.ignore();
+          handle.end();
+        });
+        handle.onCancel(upstream::cancel);
+      } catch (RuntimeException e) {
+        permit.failed(e);
+        handle.end();
+        handler.onError(e);
+      }
+    });
+
+    return handle;
+  }
+
+  /**
+   * Forwards streaming callbacks and releases the permit when the stream ends.
+   */
+  private static final class PermitReleasingHandler implements StreamingResponseHandler<AiMessage> {
+    private final AdaptiveConcurrencyLimiter.Permit permit;
+    private final StreamingResponseHandler<AiMessage> handler;
+    private volatile long firstTokenNanos = -1;
+
+    private PermitReleasingHandler(AdaptiveConcurrencyLimiter.Permit permit, StreamingResponseHandler<AiMessage> handler) {
+      this.permit = permit;
+      this.handler = handler;
+    }
+
+    @Override
+    public void onNext(String token) {
+      if (firstTokenNanos < 0) {
+        firstTokenNanos = permit.elapsedNanos();
+      }
+      handler.onNext(token);
+    }
+
+    @Override
+    public void onComplete(Response<AiMessage> response) {
+      permit.success(firstTokenNanos < 0 ? permit.elapsedNanos() : firstTokenNanos);
+      handler.onComplete(response);
+    }
+
+    @Override
+    public void onError(Throwable error) {
+      permit.failed(error);
+      handler.onError(error);
+    }
+  }
+}
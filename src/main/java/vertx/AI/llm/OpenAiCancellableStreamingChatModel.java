@@ -0,0 +1,108 @@
+package vertx.AI.llm;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
+import dev.langchain4j.model.output.Response;
+import vertx.AI.config.OpenAIModelConfig;
+
+import java.util.List;
+
+/**
+ * Streaming OpenAI chat model that can abort its upstream request.
+ * <p>
+ * Wraps langchain4j's {@link OpenAiStreamingChatModel}, which gives no access to the HTTP call of a stream.
+ * Cancelling the {@link StreamHandle} suppresses every further callback, and the next token to arrive aborts the
+ * call from the handler: tokens are delivered on the HTTP client's reader thread, so the handler interrupts that
+ * thread, which fails the next read of the response and makes the client close the upstream connection. The
+ * handle is ended when the client reports the end of the call, including the failure caused by that interrupt.
+ */
+public class OpenAiCancellableStreamingChatModel implements CancellableStreamingChatLanguageModel {
+
+  private final OpenAiStreamingChatModel delegate;
+
+  /**
+   * Constructs the model and its HTTP client.
+   *
+   * @param config the OpenAI model configuration
+   */
+  public OpenAiCancellableStreamingChatModel(OpenAIModelConfig config) {
+    OpenAiStreamingChatModel.OpenAiStreamingChatModelBuilder builder = OpenAiStreamingChatModel.builder()
+      .apiKey(config.getApiKey())
+      .modelName(config.getModelName())
+      .temperature(config.getTemperature())
+      .topP(config.getTopP())
+      .presencePenalty(config.getPresencePenalty())
+      .frequencyPenalty(config.getFrequencyPenalty())
+      .maxCompletionTokens(config.getMaxTokens())
+      .stop(config.getStop())
+      .logRequests(true)
+      .logResponses(true);
+    if (config.getBaseUrl() != null && !config.getBaseUrl().isEmpty()) {
+      builder.baseUrl(config.getBaseUrl());
+    }
+    if (config.getResponseFormat() != null && !config.getResponseFormat().isEmpty()) {
+      builder.responseFormat(config.getResponseFormat());
+    }
+    this.delegate = builder.build();
+  }
+
+  @Override
+  public StreamHandle stream(List<ChatMessage> messages, StreamingResponseHandler<AiMessage> handler) {
+    StreamHandle handle = new StreamHandle();
+    try {
+      delegate.generate(messages, new CancellableHandler(handle, handler));
+    } catch (RuntimeException e) {
+      handle.end();
+      throw e;
+    }
+    return handle;
+  }
+
+  /**
+   * Forwards the callbacks of a stream until it is cancelled, then aborts its HTTP call on the next token.
+   */
+  private static final class CancellableHandler implements StreamingResponseHandler<AiMessage> {
+    private final StreamHandle handle;
+    private final StreamingResponseHandler<AiMessage> handler;
+
+    private CancellableHandler(StreamHandle handle, StreamingResponseHandler<AiMessage> handler) {
+      this.handle = handle;
+      this.handler = handler;
+    }
+
+    @Override
+    public void onNext(String token) {
+      if (handle.isCancelled()) {
+        // Runs on the HTTP client's reader thread: the interrupt fails its next read, which closes the connection.
+        // The client's thread pool clears the flag before the thread runs another call.
+        Thread.currentThread().interrupt();
+        return;
+      }
+      handler.onNext(token);
+    }
+
+    @Override
+    public void onComplete(Response<AiMessage> response) {
+      try {
+        if (!handle.isCancelled()) {
+          handler.onComplete(response);
+        }
+      } finally {
+        handle.end();
+      }
+    }
+
+    @Override
+    public void onError(Throwable error) {
+      try {
+        if (!handle.isCancelled()) {
+          handler.onError(error);
+        }
+      } finally {
+        handle.end();
+      }
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package vertx.AI.llm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Handle to one in-flight streaming generation, used to abort it.
+ * <p>
+ * The layers taking part in a stream (limiter wrapper, upstream client) attach their abort actions with
+ * {@link #onCancel(Runnable)} as they start; {@link #cancel()} runs all of them once. Once cancelled, the
+ * stream's {@code StreamingResponseHandler} receives no further callbacks.
+ * <p>
+ * Cancelling does not mean the upstream call is over: an aborted call may keep its connection until it notices the
+ * abort. The layer owning the call marks the handle with {@link #end()} once the call has actually finished, however
+ * it finished, so that resources tied to the call can be held until then.
+ * <p>
+ * Handles are thread-safe: streaming callbacks arrive on the HTTP client's threads while cancellation is
+ * requested from an event loop.
+ */
+public final class StreamHandle {
+
+  private final List<Runnable> cancelActions = new ArrayList<>();
+  private final CompletableFuture<Void> ended = new CompletableFuture<>();
+  private boolean cancelled;
+
+  /**
+   * Cancels the stream, running every registered abort action. Subsequent calls have no effect.
+   */
+  public void cancel() {
+    List<Runnable> actions;
+    synchronized (this) {
+      if (cancelled) {
+        return;
+      }
+      cancelled = true;
+      actions = new ArrayList<>(cancelActions);
+      cancelActions.clear();
+    }
+
+    actions.forEach(Runnable::run);
+  }
+
+  /**
+   * @return {@code true} once {@link #cancel()} has been called
+   */
+  public synchronized boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * Registers an action aborting part of the stream. The action runs immediately if the stream is already cancelled.
+   *
+   * @param action the abort action
+   */
+  public void onCancel(Runnable action) {
+    synchronized (this) {
+      if (!cancelled) {
+        cancelActions.add(action);
+        return;
+      }
+    }
+
+    action.run();
+  }
+
+  /**
+   * Marks the upstream call as finished, whether it completed, failed or was aborted. Subsequent calls have no effect.
+   */
+  public void end() {
+    ended.complete(null);
+  }
+
+  /**
+   * @return a future completing once {@link #end()} has been called
+   */
+  public CompletableFuture<Void> ended() {
+    return ended;
+  }
+}
@@ -0,0 +1,55 @@
+package vertx.AI.llm;
+
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+import io.vertx.core.json.JsonObject;
+import vertx.AI.metrics.MetricsSource;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates the token usage reported by the upstream for completed chat calls, to track how large prompts are.
+ * Calls whose response carries no usage are counted separately. Thread-safe.
+ */
+public class TokenUsageMetrics implements MetricsSource {
+
+  private final LongAdder calls = new LongAdder();
+  private final LongAdder callsWithoutUsage = new LongAdder();
+  private final LongAdder inputTokens = new LongAdder();
+  private final LongAdder outputTokens = new LongAdder();
+  private final LongAccumulator maxInputTokens = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Records the usage of a completed call.
+   *
+   * @param response the model's response
+   */
+  public void record(Response<?> response) {
+    TokenUsage usage = response.tokenUsage();
+    if (usage == null || usage.inputTokenCount() == null) {
+      callsWithoutUsage.increment();
+      return;
+    }
+
+    calls.increment();
+    inputTokens.add(usage.inputTokenCount());
+    maxInputTokens.accumulate(usage.inputTokenCount());
+    if (usage.outputTokenCount() != null) {
+      outputTokens.add(usage.outputTokenCount());
+    }
+  }
+
+  @Override
+  public JsonObject toJson() {
+    long callCount = calls.sum();
+    long input = inputTokens.sum();
+    return new JsonObject()
+      .put("calls", callCount)
+      .put("callsWithoutUsage", callsWithoutUsage.sum())
+      .put("inputTokens", input)
+      .put("outputTokens", outputTokens.sum())
+      .put("avgInputTokens", callCount == 0 ? 0 : input / callCount)
+      .put("maxInputTokens", maxInputTokens.get());
+  }
+}
@@ -0,0 +1,48 @@
+package vertx.AI.memory;
+
+/**
+ * Selects what a chat turn leaves in the session history, configured by {@code sessions.historyMode} in
+ * {@code config.json}. The model always receives the current turn's retrieved context; the mode only decides
+ * whether that context is kept for later turns.
+ */
+public enum HistoryMode {
+
+  /**
+   * Only the user's own message and the reply are recorded, so later turns do not re-send stale context.
+   */
+  RAW("raw"),
+
+  /**
+   * The user message is recorded together with the context retrieved for it, as sent to the model.
+   */
+  AUGMENTED("augmented");
+
+  private final String configName;
+
+  HistoryMode(String configName) {
+    this.configName = configName;
+  }
+
+  /**
+   * @return the name used for this mode in the configuration
+   */
+  public String configName() {
+    return configName;
+  }
+
+  /**
+   * Resolves a mode from its configuration name.
+   *
+   * @param configName the configured mode, e.g. {@code "raw"}
+   * @return the matching mode
+   * @throws IllegalArgumentException if no mode has that name
+   */
+  public static HistoryMode fromConfig(String configName) {
+    for (HistoryMode mode : values()) {
+      if (mode.configName.equalsIgnoreCase(configName)) {
+        return mode;
+      }
+    }
+    throw new IllegalArgumentException("Unknown history mode: " + configName);
+  }
+}
@@ -0,0 +1,334 @@
+package vertx.AI.memory;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ChatMessageDeserializer;
+import dev.langchain4j.data.message.ChatMessageSerializer;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import io.vertx.core.json.JsonObject;
+import vertx.AI.metrics.MetricsSource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * {@link ChatMemoryStore} backed by a local, append-only, memory-mapped log file.
+ * <p>
+ * Every update appends a record holding the session's complete message list; deleting a session appends a
+ * tombstone. Only an index of the latest record per session is kept on the heap, so a session's messages are
+ * read from the mapped file when they are first needed, and sessions nobody is using cost no heap at all.
+ * On startup the index is rebuilt by scanning the record headers, which is fast enough to make warm restarts
+ * effectively instant.
+ * <p>
+ * Each record is laid out as {@code [length:int][crc32:int][type:byte][timestamp:long][idLength:short][id][json]},
+ * where length and checksum cover everything after them and the id length is unsigned, limiting session ids to
+ * 65535 UTF-8 bytes. The length is written last, so a record torn by a crash is either invisible or fails its
+ * checksum; recovery stops at the first such record, or any record that does not parse, and overwrites it.
+ * <p>
+ * When the mapped region is full and less than {@code compactionRatio} of the log is still live, the live records
+ * are copied into a fresh file that atomically replaces the old one; sessions not updated within
+ * {@code retentionMs} are dropped at the same time. Otherwise the region is doubled. The log is limited to 2 GB.
+ * <p>
+ * Mapped writes survive a crash of the process, not of the operating system. The store is thread-safe.
+ */
+public class MappedLogChatMemoryStore implements ChatMemoryStore, MetricsSource, Closeable {
+
+  private static final byte SET = 1;
+  private static final byte DELETE = 2;
+  private static final int HEADER_SIZE = 8;
+  private static final int MAX_ID_BYTES = 0xFFFF;
+  private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+  private final Path path;
+  private final int initialSizeBytes;
+  private final double compactionRatio;
+  private final long retentionMs;
+
+  private final Map<String, Entry> index = new HashMap<>();
+  private FileChannel channel;
+  private MappedByteBuffer buffer;
+  private int writePosition;
+  private long liveBytes;
+
+  private long appends;
+  private long compactions;
+  private long expiredSessions;
+  private long reclaimedBytes;
+
+  /**
+   * Opens the log at the given path, creating it if needed, and rebuilds the session index from it.
+   *
+   * @param path             the log file
+   * @param initialSizeBytes the size of the mapped region of a new or compacted log
+   * @param compactionRatio  the live fraction of the log below which a full log is compacted instead of grown
+   * @param retentionMs      the time after its last update at which a session is dropped by compaction
+   * @throws UncheckedIOException if the log cannot be opened or mapped
+   */
+  public MappedLogChatMemoryStore(Path path, int initialSizeBytes, double compactionRatio, long retentionMs) {
+    this.path = path;
+    this.initialSizeBytes = initialSizeBytes;
+    this.compactionRatio = compactionRatio;
+    this.retentionMs = retentionMs;
+
+    try {
+      if (path.getParent() != null) {
+        Files.createDirectories(path.getParent());
+      }
+      channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(initialSizeBytes, channel.size()));
+      recover();
+      if (hasExpiredSessions()) {
+        compact(0);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to open chat memory log " + path, e);
+    }
+  }
+
+  @Override
+  public List<ChatMessage> getMessages(Object memoryId) {
+    byte[] json;
+    synchronized (this) {
+      Entry entry = index.get(memoryId.toString());
+      if (entry == null) {
+        return new ArrayList<>();
+      }
+      json = new byte[entry.size() - entry.payloadOffset()];
+      buffer.get(entry.offset() + entry.payloadOffset(), json);
+    }
+    return new ArrayList<>(ChatMessageDeserializer.messagesFromJson(new String(json, StandardCharsets.UTF_8)));
+  }
+
+  @Override
+  public void updateMessages(Object memoryId, List<ChatMessage> messages) {
+    byte[] json = ChatMessageSerializer.messagesToJson(messages).getBytes(StandardCharsets.UTF_8);
+    synchronized (this) {
+      append(SET, memoryId.toString(), json);
+    }
+  }
+
+  @Override
+  public synchronized void deleteMessages(Object memoryId) {
+    if (index.containsKey(memoryId.toString())) {
+      append(DELETE, memoryId.toString(), new byte[0]);
+    }
+  }
+
+  /**
+   * Flushes the mapped region to disk and closes the log.
+   */
+  @Override
+  public synchronized void close() {
+    try {
+      buffer.force();
+      channel.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to close chat memory log " + path, e);
+    }
+  }
+
+  @Override
+  public synchronized JsonObject toJson() {
+    return new JsonObject()
+      .put("sessions", index.size())
+      .put("logBytes", writePosition)
+      .put("liveBytes", liveBytes)
+      .put("capacityBytes", buffer.capacity())
+      .put("appends", appends)
+      .put("compactions", compactions)
+      .put("expiredSessions", expiredSessions)
+      .put("reclaimedBytes", reclaimedBytes);
+  }
+
+  /**
+   * Appends a record and points the index at it. Must hold the store monitor.
+   *
+   * @throws IllegalArgumentException if the session id does not fit in a record
+   */
+  private void append(byte type, String id, byte[] payload) {
+    byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+    if (idBytes.length > MAX_ID_BYTES) {
+      throw new IllegalArgumentException("Session id of " + idBytes.length + " bytes exceeds " + MAX_ID_BYTES);
+    }
+    int bodySize = 1 + 8 + 2 + idBytes.length + payload.length;
+    int recordSize = HEADER_SIZE + bodySize;
+    long timestamp = System.currentTimeMillis();
+
+    ensureCapacity(recordSize);
+
+    int body = writePosition + HEADER_SIZE;
+    buffer.put(body, type);
+    buffer.putLong(body + 1, timestamp);
+    buffer.putShort(body + 9, (short) idBytes.length);
+    buffer.put(body + 11, idBytes);
+    buffer.put(body + 11 + idBytes.length, payload);
+    buffer.putInt(writePosition + 4, checksum(body, bodySize));
+    // Written last: until the length is set, recovery treats the record as absent
+    buffer.putInt(writePosition, bodySize);
+
+    apply(type, id, new Entry(writePosition, recordSize, 11 + HEADER_SIZE + idBytes.length, timestamp));
+    writePosition += recordSize;
+    appends++;
+  }
+
+  private void apply(byte type, String id, Entry entry) {
+    Entry previous = type == SET ? index.put(id, entry) : index.remove(id);
+    if (previous != null) {
+      liveBytes -= previous.size();
+    }
+    if (type == SET) {
+      liveBytes += entry.size();
+    }
+  }
+
+  /**
+   * Rebuilds the index from the records on disk and positions the writer after the last intact one.
+   */
+  private void recover() {
+    int position = 0;
+    while (position + HEADER_SIZE <= buffer.capacity()) {
+      int bodySize = buffer.getInt(position);
+      if (bodySize <= 0 || (long) position + HEADER_SIZE + bodySize > buffer.capacity()
+        || buffer.getInt(position + 4) != checksum(position + HEADER_SIZE, bodySize)) {
+        break;
+      }
+
+      int body = position + HEADER_SIZE;
+      byte type = buffer.get(body);
+      int idLength = bodySize >= 11 ? Short.toUnsignedInt(buffer.getShort(body + 9)) : -1;
+      if (type != SET && type != DELETE || idLength < 0 || 11 + idLength > bodySize) {
+        // Passes its checksum but does not parse: treated like a torn record, as nothing after it can be trusted
+        break;
+      }
+      long timestamp = buffer.getLong(body + 1);
+      byte[] idBytes = new byte[idLength];
+      buffer.get(body + 11, idBytes);
+
+      apply(type, new String(idBytes, StandardCharsets.UTF_8),
+        new Entry(position, HEADER_SIZE + bodySize, 11 + HEADER_SIZE + idBytes.length, timestamp));
+      position += HEADER_SIZE + bodySize;
+    }
+
+    writePosition = position;
+    if (position + HEADER_SIZE <= buffer.capacity()) {
+      // Clear the remains of a torn record so that they cannot be mistaken for a valid one later
+      long tornEnd = Math.min(buffer.capacity(), (long) position + HEADER_SIZE + Math.max(0, buffer.getInt(position)));
+      for (int i = position; i < tornEnd; i++) {
+        buffer.put(i, (byte) 0);
+      }
+    }
+  }
+
+  /**
+   * Makes room for a record of the given size by compacting the log when it is mostly garbage, or by growing
+   * the mapped region otherwise.
+   */
+  private void ensureCapacity(int recordSize) {
+    if ((long) writePosition + recordSize <= buffer.capacity()) {
+      return;
+    }
+    try {
+      if (liveBytes < writePosition * compactionRatio || hasExpiredSessions()) {
+        compact(recordSize);
+      }
+      long required = (long) writePosition + recordSize;
+      if (required > buffer.capacity()) {
+        if (required > MAX_CAPACITY) {
+          throw new IllegalStateException("Chat memory log " + path + " exceeds its maximum size");
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+          Math.max(required, Math.min((long) buffer.capacity() * 2, MAX_CAPACITY)));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to extend chat memory log " + path, e);
+    }
+  }
+
+  /**
+   * Copies the live, unexpired records into a new file, leaving room for {@code reserve} more bytes, and
+   * atomically replaces the log with it.
+   */
+  private void compact(int reserve) throws IOException {
+    long cutoff = System.currentTimeMillis() - retentionMs;
+    long kept = 0;
+    for (Entry entry : index.values()) {
+      if (entry.timestamp() >= cutoff) {
+        kept += entry.size();
+      }
+    }
+    if (kept + reserve > MAX_CAPACITY) {
+      throw new IllegalStateException("Chat memory log " + path + " exceeds its maximum size");
+    }
+    long capacity = Math.min(Math.max(initialSizeBytes, 2 * (kept + reserve)), MAX_CAPACITY);
+
+    Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+    Map<String, Entry> compactedIndex = new HashMap<>();
+    int position = 0;
+    try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+      StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      MappedByteBuffer target = out.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+      for (Map.Entry<String, Entry> session : index.entrySet()) {
+        Entry entry = session.getValue();
+        if (entry.timestamp() < cutoff) {
+          expiredSessions++;
+          continue;
+        }
+        target.put(position, buffer, entry.offset(), entry.size());
+        compactedIndex.put(session.getKey(), new Entry(position, entry.size(), entry.payloadOffset(), entry.timestamp()));
+        position += entry.size();
+      }
+      target.force();
+    }
+
+    channel.close();
+    Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+
+    reclaimedBytes += writePosition - position;
+    compactions++;
+    index.clear();
+    index.putAll(compactedIndex);
+    writePosition = position;
+    liveBytes = position;
+  }
+
+  private boolean hasExpiredSessions() {
+    long cutoff = System.currentTimeMillis() - retentionMs;
+    for (Entry entry : index.values()) {
+      if (entry.timestamp() < cutoff) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int checksum(int offset, int length) {
+    CRC32 crc = new CRC32();
+    crc.update(buffer.slice(offset, length));
+    return (int) crc.getValue();
+  }
+
+  /**
+   * Location of a session's latest record in the log.
+   *
+   * @param offset        the position of the record
+   * @param size          the size of the record including its header
+   * @param payloadOffset the position of the message JSON within the record
+   * @param timestamp     the time the record was written
+   */
+  private record Entry(int offset, int size, int payloadOffset, long timestamp) {
+  }
+}
@@ -0,0 +1,296 @@
+package vertx.AI.memory;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.Tokenizer;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import io.vertx.core.json.JsonObject;
+import vertx.AI.metrics.MetricsSource;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded store of per-session chat memories.
+ * <p>
+ * Each session keeps a {@link TokenCountingChatMemory} of at most {@code maxTokensPerSession} tokens. Sessions are
+ * evicted when:
+ * <ul>
+ *   <li>they have not been used for {@code idleTtlMs} (checked on access and by {@link #evictExpired()})</li>
+ *   <li>more than {@code maxSessions} sessions are held, least recently used first</li>
+ *   <li>the tokens held by all sessions together exceed {@code maxTotalTokens}, least recently used first</li>
+ * </ul>
+ * The session that is being written is never evicted by its own write.
+ * <p>
+ * Without a backing {@link ChatMemoryStore} an evicted session simply starts over with an empty history on its
+ * next turn. With one (such as {@link MappedLogChatMemoryStore}) every update is written through to it, eviction
+ * only drops the session from the heap, and the next access loads it back from the backing store.
+ * <p>
+ * Chat turns only update a session on the context of the verticle owning it, once the turn is over, and the
+ * session's mailbox keeps its turns from overlapping. The store is still thread-safe, because it is read from
+ * other threads: a turn loads its history on a worker thread, since that may read the backing store, and metrics
+ * are exported from any event loop. The session index is guarded by the store's monitor and each memory by its
+ * session's monitor; the store monitor is never held while a session's messages are read or tokenized. Token totals come from the memories'
+ * running counts, so no history is ever re-tokenized as a whole.
+ */
+public class SessionMemoryStore implements MetricsSource {
+
+  private final Tokenizer tokenizer;
+  private final ChatMemoryStore backingStore;
+  private final int maxTokensPerSession;
+  private final int maxSessions;
+  private final long maxTotalTokens;
+  private final long idleTtlNanos;
+
+  // Access-ordered, so iteration starts at the least recently used session
+  private final LinkedHashMap<String, Session> sessions = new LinkedHashMap<>(16, 0.75f, true);
+  private long totalTokens;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder created = new LongAdder();
+  private final LongAdder loaded = new LongAdder();
+  private final LongAdder evictedExpired = new LongAdder();
+  private final LongAdder evictedLru = new LongAdder();
+  private final LongAdder evictedTokenBudget = new LongAdder();
+
+  /**
+   * Constructs a session store that keeps histories on the heap only.
+   *
+   * @param tokenizer           the tokenizer used to size the memories
+   * @param maxTokensPerSession the token window of a single session
+   * @param maxSessions         the maximum number of sessions held at once
+   * @param maxTotalTokens      the maximum number of tokens held by all sessions together
+   * @param idleTtlMs           the time after which an unused session expires
+   */
+  public SessionMemoryStore(Tokenizer tokenizer, int maxTokensPerSession, int maxSessions, long maxTotalTokens,
+                            long idleTtlMs) {
+    this(tokenizer, null, maxTokensPerSession, maxSessions, maxTotalTokens, idleTtlMs);
+  }
+
+  /**
+   * Constructs a session store that writes histories through to a backing store.
+   *
+   * @param tokenizer           the tokenizer used to size the memories
+   * @param backingStore        the store holding the histories of all sessions, or {@code null} for heap only
+   * @param maxTokensPerSession the token window of a single session
+   * @param maxSessions         the maximum number of sessions held at once
+   * @param maxTotalTokens      the maximum number of tokens held by all sessions together
+   * @param idleTtlMs           the time after which an unused session expires
+   */
+  public SessionMemoryStore(Tokenizer tokenizer, ChatMemoryStore backingStore, int maxTokensPerSession,
+                            int maxSessions, long maxTotalTokens, long idleTtlMs) {
+    this.tokenizer = tokenizer;
+    this.backingStore = backingStore;
+    this.maxTokensPerSession = maxTokensPerSession;
+    this.maxSessions = maxSessions;
+    this.maxTotalTokens = maxTotalTokens;
+    this.idleTtlNanos = TimeUnit.MILLISECONDS.toNanos(idleTtlMs);
+  }
+
+  /**
+   * Returns a snapshot of a session's history, or an empty list for unknown and expired sessions.
+   * With a backing store, a session that is not on the heap is loaded from it, which may block.
+   *
+   * @param sessionId the chat session
+   * @return the messages currently in the session's token window
+   */
+  public List<ChatMessage> history(String sessionId) {
+    Session session = acquire(sessionId, backingStore != null);
+    if (session == null) {
+      return List.of();
+    }
+
+    List<ChatMessage> messages;
+    boolean measured;
+    synchronized (session) {
+      messages = session.memory.messages();
+      measured = session.tokens < 0;
+      if (measured) {
+        session.tokens = session.memory.tokenCount();
+      }
+    }
+
+    if (measured) {
+      reconcile(session);
+    }
+    return messages;
+  }
+
+  /**
+   * Appends messages to a session, creating it if needed, and evicts other sessions if the store is now over
+   * its session or token limits.
+   *
+   * @param sessionId the chat session
+   * @param messages  the messages to append, in order
+   */
+  public void append(String sessionId, ChatMessage... messages) {
+    Session session = acquire(sessionId, true);
+
+    synchronized (session) {
+      session.memory.addAll(List.of(messages));
+      session.tokens = session.memory.tokenCount();
+    }
+
+    reconcile(session);
+  }
+
+  /**
+   * Removes every session that has been idle for longer than the TTL. Meant to be called periodically.
+   *
+   * @return the number of evicted sessions
+   */
+  public synchronized int evictExpired() {
+    long now = System.nanoTime();
+    int evicted = 0;
+    Iterator<Session> iterator = sessions.values().iterator();
+    while (iterator.hasNext()) {
+      Session session = iterator.next();
+      // Access order matches last-use order, so the first live session ends the scan
+      if (now - session.lastAccessNanos <= idleTtlNanos) {
+        break;
+      }
+      iterator.remove();
+      release(session);
+      evictedExpired.increment();
+      evicted++;
+    }
+    return evicted;
+  }
+
+  /**
+   * Returns the number of sessions currently held.
+   *
+   * @return the session count
+   */
+  public synchronized int size() {
+    return sessions.size();
+  }
+
+  @Override
+  public synchronized JsonObject toJson() {
+    return new JsonObject()
+      .put("sessions", sessions.size())
+      .put("maxSessions", maxSessions)
+      .put("totalTokens", totalTokens)
+      .put("avgTokensPerSession", sessions.isEmpty() ? 0 : totalTokens / sessions.size())
+      .put("maxTotalTokens", maxTotalTokens)
+      .put("maxTokensPerSession", maxTokensPerSession)
+      .put("hits", hits.sum())
+      .put("misses", misses.sum())
+      .put("created", created.sum())
+      .put("loaded", loaded.sum())
+      .put("evictedExpired", evictedExpired.sum())
+      .put("evictedLru", evictedLru.sum())
+      .put("evictedTokenBudget", evictedTokenBudget.sum());
+  }
+
+  /**
+   * Returns the session held on the heap, or puts a new one there if {@code create} is set. A new session starts
+   * out empty, or with the history found in the backing store.
+   */
+  private Session acquire(String sessionId, boolean create) {
+    synchronized (this) {
+      long now = System.nanoTime();
+      Session session = touch(sessionId, now);
+      if (session != null) {
+        hits.increment();
+        return session;
+      }
+
+      misses.increment();
+      if (!create) {
+        return null;
+      }
+
+      session = new Session(new TokenCountingChatMemory(sessionId, maxTokensPerSession, tokenizer, backingStore), now);
+      sessions.put(sessionId, session);
+      if (backingStore != null) {
+        loaded.increment();
+      } else {
+        created.increment();
+      }
+      return session;
+    }
+  }
+
+  /**
+   * Brings the store's token total up to date with a session's latest measured size and evicts other sessions
+   * if the store is now over its limits.
+   */
+  private synchronized void reconcile(Session session) {
+    if (session.evicted) {
+      return;
+    }
+    // Concurrent updates may reconcile in any order; each one accounts for the latest measured size
+    long current = session.tokens;
+    totalTokens += current - session.accountedTokens;
+    session.accountedTokens = current;
+    evictOverLimit(session);
+  }
+
+  /**
+   * Looks up a live session and marks it as used, dropping it if it has expired. Must hold the store monitor.
+   */
+  private Session touch(String sessionId, long now) {
+    Session session = sessions.get(sessionId);
+    if (session == null) {
+      return null;
+    }
+    if (now - session.lastAccessNanos > idleTtlNanos) {
+      sessions.remove(sessionId);
+      release(session);
+      evictedExpired.increment();
+      return null;
+    }
+    session.lastAccessNanos = now;
+    return session;
+  }
+
+  /**
+   * Evicts least recently used sessions, other than {@code keep}, until the store is within its limits.
+   * Must hold the store monitor.
+   */
+  private void evictOverLimit(Session keep) {
+    Iterator<Map.Entry<String, Session>> iterator = sessions.entrySet().iterator();
+    while ((sessions.size() > maxSessions || totalTokens > maxTotalTokens) && iterator.hasNext()) {
+      Session session = iterator.next().getValue();
+      if (session == keep) {
+        continue;
+      }
+      if (sessions.size() > maxSessions) {
+        evictedLru.increment();
+      } else {
+        evictedTokenBudget.increment();
+      }
+      iterator.remove();
+      release(session);
+    }
+  }
+
+  private void release(Session session) {
+    session.evicted = true;
+    totalTokens -= session.accountedTokens;
+    session.accountedTokens = 0;
+  }
+
+  /**
+   * A session's memory with its bookkeeping. {@code tokens} is written under the session's monitor and is
+   * negative until the memory has been measured; the other fields are guarded by the store's monitor.
+   */
+  private static final class Session {
+    private final TokenCountingChatMemory memory;
+    private long lastAccessNanos;
+    private volatile long tokens = -1;
+    private long accountedTokens;
+    private boolean evicted;
+
+    private Session(TokenCountingChatMemory memory, long lastAccessNanos) {
+      this.memory = memory;
+      this.lastAccessNanos = lastAccessNanos;
+    }
+  }
+}
@@ -0,0 +1,193 @@
+package vertx.AI.memory;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.model.Tokenizer;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Token-window chat memory that tokenizes every message exactly once.
+ * <p>
+ * Langchain4j's {@code TokenWindowChatMemory} re-estimates the tokens of the whole history on every
+ * {@link #add(ChatMessage)} and {@link #messages()} call, which gets expensive for long windows and for turns
+ * carrying retrieved context. This memory caches each message's count next to it and keeps a running total, so
+ * adding a message costs one tokenization and evicting costs {@code O(evicted messages)}.
+ * <p>
+ * It follows the same window rules: a system message is kept first and never evicted (a different one replaces
+ * it), the oldest other messages are evicted while the window is over {@code maxTokens}, and tool results are
+ * evicted together with the AI message that requested them.
+ * <p>
+ * The history is read from the optional backing {@link ChatMemoryStore} on first access and written through to
+ * it on every change. The store takes whole histories, so a write costs {@code O(history)}; {@link #addAll}
+ * records a chat turn with a single write instead of one per message. Not thread-safe; {@link SessionMemoryStore} guards each memory with its own monitor.
+ */
+public class TokenCountingChatMemory implements ChatMemory {
+
+  private final Object id;
+  private final int maxTokens;
+  private final Tokenizer tokenizer;
+  private final ChatMemoryStore store;
+  // Constant per-request overhead the tokenizer adds on top of the messages themselves
+  private final int baseTokens;
+
+  private Deque<Entry> entries;
+  private Entry systemMessage;
+  private int tokenCount;
+
+  /**
+   * Constructs an empty memory, or one that loads its history lazily from a backing store.
+   *
+   * @param id        the memory (session) ID
+   * @param maxTokens the maximum number of tokens in the window
+   * @param tokenizer the tokenizer used to count tokens, typically shared by all memories
+   * @param store     the store to load from and write through to, or {@code null} to keep the history on the heap only
+   */
+  public TokenCountingChatMemory(Object id, int maxTokens, Tokenizer tokenizer, ChatMemoryStore store) {
+    this.id = id;
+    this.maxTokens = maxTokens;
+    this.tokenizer = tokenizer;
+    this.store = store;
+    this.baseTokens = tokenizer.estimateTokenCountInMessages(List.of());
+  }
+
+  @Override
+  public Object id() {
+    return id;
+  }
+
+  @Override
+  public void add(ChatMessage message) {
+    load();
+    if (append(message)) {
+      writeThrough();
+    }
+  }
+
+  /**
+   * Adds several messages, such as the two of a chat turn, and writes the history through to the backing store
+   * once.
+   *
+   * @param messages the messages to add, in order
+   */
+  public void addAll(List<ChatMessage> messages) {
+    load();
+    boolean changed = false;
+    for (ChatMessage message : messages) {
+      changed |= append(message);
+    }
+    if (changed) {
+      writeThrough();
+    }
+  }
+
+  /**
+   * @return {@code false} if the message is the system message already held
+   */
+  private boolean append(ChatMessage message) {
+    if (message instanceof SystemMessage) {
+      if (systemMessage != null && systemMessage.message().equals(message)) {
+        return false;
+      }
+      if (systemMessage != null) {
+        tokenCount -= systemMessage.tokens();
+      }
+      systemMessage = new Entry(message, tokenizer.estimateTokenCountInMessage(message));
+      tokenCount += systemMessage.tokens();
+    } else {
+      Entry entry = new Entry(message, tokenizer.estimateTokenCountInMessage(message));
+      entries.addLast(entry);
+      tokenCount += entry.tokens();
+    }
+
+    evictOverflow();
+    return true;
+  }
+
+  private void writeThrough() {
+    if (store != null) {
+      store.updateMessages(id, messages());
+    }
+  }
+
+  @Override
+  public List<ChatMessage> messages() {
+    load();
+    List<ChatMessage> messages = new ArrayList<>(entries.size() + 1);
+    if (systemMessage != null) {
+      messages.add(systemMessage.message());
+    }
+    for (Entry entry : entries) {
+      messages.add(entry.message());
+    }
+    return messages;
+  }
+
+  @Override
+  public void clear() {
+    entries = new ArrayDeque<>();
+    systemMessage = null;
+    tokenCount = 0;
+    if (store != null) {
+      store.deleteMessages(id);
+    }
+  }
+
+  /**
+   * Returns the number of tokens in the window, as the tokenizer would count the whole message list.
+   *
+   * @return the token count, kept up to date incrementally
+   */
+  public int tokenCount() {
+    load();
+    return baseTokens + tokenCount;
+  }
+
+  /**
+   * Reads the history from the backing store and counts its tokens, once.
+   */
+  private void load() {
+    if (entries != null) {
+      return;
+    }
+    entries = new ArrayDeque<>();
+    if (store == null) {
+      return;
+    }
+    for (ChatMessage message : store.getMessages(id)) {
+      Entry entry = new Entry(message, tokenizer.estimateTokenCountInMessage(message));
+      if (message instanceof SystemMessage) {
+        systemMessage = entry;
+      } else {
+        entries.addLast(entry);
+      }
+      tokenCount += entry.tokens();
+    }
+    // A stored history may predate a smaller window
+    evictOverflow();
+  }
+
+  private void evictOverflow() {
+    while (baseTokens + tokenCount > maxTokens && !entries.isEmpty()) {
+      Entry evicted = entries.removeFirst();
+      tokenCount -= evicted.tokens();
+
+      // Tool results are meaningless without the AI message that requested them
+      if (evicted.message() instanceof AiMessage aiMessage && aiMessage.hasToolExecutionRequests()) {
+        while (!entries.isEmpty() && entries.peekFirst().message() instanceof ToolExecutionResultMessage) {
+          tokenCount -= entries.removeFirst().tokens();
+        }
+      }
+    }
+  }
+
+  private record Entry(ChatMessage message, int tokens) {
+  }
+}
@@ -0,0 +1,53 @@
+package vertx.AI.metrics;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide registry of named {@link MetricsSource}s.
+ * <p>
+ * A single registry is created by {@code MainVerticle} and handed to the verticles that report metrics.
+ * Sources are registered once by name and shared between verticle instances, so counters aggregate
+ * across event loops. The registry is safe to use from any thread.
+ */
+public class MetricsRegistry {
+
+  private final Map<String, MetricsSource> sources = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the source registered under the given name, creating and registering it on first use.
+   *
+   * @param name    the unique name of the source
+   * @param factory creates the source if none is registered yet
+   * @param <T>     the concrete source type
+   * @return the registered source
+   */
+  @SuppressWarnings("unchecked")
+  public <T extends MetricsSource> T getOrCreate(String name, Supplier<T> factory) {
+    return (T) sources.computeIfAbsent(name, key -> factory.get());
+  }
+
+  /**
+   * Registers (or replaces) a source under the given name.
+   *
+   * @param name   the unique name of the source
+   * @param source the source to register
+   */
+  public void register(String name, MetricsSource source) {
+    sources.put(name, source);
+  }
+
+  /**
+   * Takes a snapshot of every registered source.
+   *
+   * @return a {@link JsonObject} keyed by source name
+   */
+  public JsonObject snapshot() {
+    JsonObject snapshot = new JsonObject();
+    sources.forEach((name, source) -> snapshot.put(name, source.toJson()));
+    return snapshot;
+  }
+}
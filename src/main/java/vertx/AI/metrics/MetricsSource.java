@@ -0,0 +1,16 @@
+package vertx.AI.metrics;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A component that can report a point-in-time snapshot of its metrics as JSON.
+ */
+public interface MetricsSource {
+
+  /**
+   * Returns the current values of this source's counters and gauges.
+   *
+   * @return a {@link JsonObject} snapshot of the metrics
+   */
+  JsonObject toJson();
+}
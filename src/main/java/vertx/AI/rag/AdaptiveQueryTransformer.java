@@ -0,0 +1,176 @@
+package vertx.AI.rag;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.rag.query.Query;
+import dev.langchain4j.rag.query.transformer.CompressingQueryTransformer;
+import dev.langchain4j.rag.query.transformer.ExpandingQueryTransformer;
+import dev.langchain4j.rag.query.transformer.QueryTransformer;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import vertx.AI.config.QueryTransformConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A {@link QueryTransformer} that only makes the compression and expansion calls of
+ * {@link CustomQueryTransformer} when they can improve retrieval:
+ * <ul>
+ *   <li>compression is skipped when the session has no earlier turns, as there is nothing to fold into the query;</li>
+ *   <li>expansion is skipped for short queries made of specific terms, which match chunks well as they are;</li>
+ *   <li>otherwise the raw query is searched first, and expansion is skipped when its best chunk already scores at
+ *       least {@code probeMinScore}.</li>
+ * </ul>
+ * A first turn with a specific question therefore reaches retrieval without any model call. The raw query is
+ * searched through a {@link QueryProbe}, whose results the retriever reuses when the query is passed on unchanged.
+ * The path taken is counted in {@link QueryTransformMetrics}.
+ */
+public class AdaptiveQueryTransformer implements QueryTransformer {
+
+  private static final Logger logger = LoggerFactory.getLogger(AdaptiveQueryTransformer.class);
+
+  private static final Set<String> STOP_WORDS = Set.of(
+    "a", "an", "the", "and", "or", "but", "of", "to", "in", "on", "at", "for", "with", "by", "from", "about",
+    "is", "are", "was", "were", "be", "been", "do", "does", "did", "can", "could", "should", "would", "will",
+    "what", "which", "who", "whom", "when", "where", "why", "how", "i", "me", "my", "you", "your", "we", "our",
+    "please", "tell", "explain", "show", "give", "know", "get", "need", "want", "some", "any", "all", "there");
+
+  // Words pointing back at something said earlier or left open, which the query alone does not pin down
+  private static final Set<String> VAGUE_WORDS = Set.of(
+    "it", "its", "this", "that", "these", "those", "they", "them", "their", "he", "she", "him", "her",
+    "more", "else", "other", "same", "thing", "things", "stuff", "something", "anything", "everything");
+
+  private static final int MIN_SPECIFIC_TERMS = 2;
+
+  private final CompressingQueryTransformer compressingQueryTransformer;
+  private final QueryTransformer expandingQueryTransformer;
+  private final QueryProbe probe;
+  private final int shortQueryMaxWords;
+  private final double probeMinScore;
+  private final QueryTransformMetrics metrics;
+
+  /**
+   * Constructs a new {@code AdaptiveQueryTransformer}.
+   *
+   * @param chatModel the {@link ChatLanguageModel} used for compression and expansion
+   * @param probe     the search of queries ahead of retrieval, shared with the content retriever
+   * @param config    the thresholds deciding when compression and expansion are skipped
+   * @param metrics   the counters recording the path taken by each query
+   */
+  public AdaptiveQueryTransformer(ChatLanguageModel chatModel, QueryProbe probe, QueryTransformConfig config,
+                                  QueryTransformMetrics metrics) {
+    this(chatModel, new ExpandingQueryTransformer(chatModel), probe, config, metrics);
+  }
+
+  /**
+   * Constructs a new {@code AdaptiveQueryTransformer} expanding queries with another transformer than the chat
+   * model, such as a {@link LocalQueryExpander}.
+   *
+   * @param chatModel the {@link ChatLanguageModel} used for compression
+   * @param expander  the transformer expanding queries that need it
+   * @param probe     the search of queries ahead of retrieval, shared with the content retriever
+   * @param config    the thresholds deciding when compression and expansion are skipped
+   * @param metrics   the counters recording the path taken by each query
+   */
+  public AdaptiveQueryTransformer(ChatLanguageModel chatModel, QueryTransformer expander, QueryProbe probe,
+                                  QueryTransformConfig config, QueryTransformMetrics metrics) {
+    this.compressingQueryTransformer = new CompressingQueryTransformer(chatModel);
+    this.expandingQueryTransformer = expander;
+    this.probe = probe;
+    this.shortQueryMaxWords = config.getShortQueryMaxWords();
+    this.probeMinScore = config.getProbeMinScore();
+    this.metrics = metrics;
+  }
+
+  /**
+   * Transforms the query, compressing and expanding it only where that can change what is retrieved.
+   *
+   * @param query the original user query
+   * @return a collection of transformed queries ready for retrieval
+   */
+  @Override
+  public Collection<Query> transform(Query query) {
+    long start = System.nanoTime();
+    Collection<Query> compressedQueries;
+    if (hasEarlierTurns(query)) {
+      compressedQueries = compressingQueryTransformer.transform(query);
+      metrics.compressed();
+    } else {
+      compressedQueries = List.of(query);
+      metrics.compressionSkipped();
+    }
+
+    List<Query> finalQueries = new ArrayList<>();
+    for (Query compressedQuery : compressedQueries) {
+      finalQueries.addAll(expandIfNeeded(compressedQuery));
+    }
+    metrics.queryTransformed(System.nanoTime() - start);
+    return finalQueries;
+  }
+
+  private Collection<Query> expandIfNeeded(Query query) {
+    if (isShortAndSpecific(query.text(), shortQueryMaxWords)) {
+      logger.debug("Query '{}' is short and specific, skipping expansion", query.text());
+      metrics.expansionSkippedShort();
+      return List.of(query);
+    }
+
+    metrics.probed();
+    List<EmbeddingMatch<TextSegment>> matches = probe.search(query);
+    if (!matches.isEmpty() && matches.get(0).score() >= probeMinScore) {
+      logger.debug("Query '{}' already retrieves a chunk scoring {}, skipping expansion", query.text(),
+        matches.get(0).score());
+      metrics.expansionSkippedProbe();
+      return List.of(query);
+    }
+
+    probe.discard(query);
+    metrics.expanded();
+    return expandingQueryTransformer.transform(query);
+  }
+
+  private static boolean hasEarlierTurns(Query query) {
+    if (query.metadata() == null || query.metadata().chatMemory() == null) {
+      return false;
+    }
+    for (ChatMessage message : query.metadata().chatMemory()) {
+      if (!(message instanceof SystemMessage)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * A query is short and specific when it has at most {@code maxWords} words, at least two of them content words,
+   * and none referring back to earlier context.
+   *
+   * @param text     the query text
+   * @param maxWords the longest query, in words, considered short
+   * @return whether expansion can be skipped for the query
+   */
+  private static boolean isShortAndSpecific(String text, int maxWords) {
+    String[] words = text.trim().toLowerCase(Locale.ROOT).split("\\s+");
+    if (words.length > maxWords) {
+      return false;
+    }
+    int specificTerms = 0;
+    for (String word : words) {
+      String term = word.replaceAll("[^\\p{L}\\p{N}]", "");
+      if (VAGUE_WORDS.contains(term)) {
+        return false;
+      }
+      if (term.length() > 1 && !STOP_WORDS.contains(term)) {
+        specificTerms++;
+      }
+    }
+    return specificTerms >= MIN_SPECIFIC_TERMS;
+  }
+}
@@ -0,0 +1,271 @@
+package vertx.AI.rag;
+
+import io.vertx.core.json.JsonObject;
+import vertx.AI.metrics.MetricsSource;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Term statistics of the indexed documents, gathered at ingestion time, from which {@link LocalQueryExpander}
+ * derives query variants without a model call.
+ * <p>
+ * For every term the statistics keep how often it occurs and which terms occur within a few words of it. Two
+ * relations are derived from them:
+ * <ul>
+ *   <li>associated terms: terms co-occurring with a term more often than chance, ranked by pointwise mutual
+ *       information;</li>
+ *   <li>corpus synonyms: terms used in the same contexts as a term, i.e. whose associated terms are similar,
+ *       ranked by cosine similarity.</li>
+ * </ul>
+ * Memory is bounded: at most {@code maxTerms} distinct terms are tracked, and each keeps at most
+ * {@code maxNeighbors} neighbours, chosen by frequent-item counting (Misra-Gries). When a term has one neighbour
+ * too many, the count of its rarest neighbour is pruned from every neighbour and those left with nothing are
+ * dropped, so a neighbour first seen late in the corpus still displaces early ones once it is frequent enough.
+ * Pruning only decides which neighbours are kept; associations use the co-occurrences counted since a neighbour
+ * was last added, which miss at most those before it was last dropped.
+ * Documents are added by id, so indexing the same content twice counts it once.
+ * Updates and lookups may run concurrently from any thread.
+ */
+public class CorpusTermStatistics implements MetricsSource {
+
+  private static final int WINDOW = 5;
+  private static final int MIN_COOCCURRENCES = 2;
+  private static final double MIN_SYNONYM_SIMILARITY = 0.5;
+
+  private final TermTokenizer tokenizer;
+  private final int maxTerms;
+  private final int maxNeighbors;
+  private final Map<String, Term> terms = new ConcurrentHashMap<>();
+  private final Set<String> documents = ConcurrentHashMap.newKeySet();
+  private final LongAdder occurrences = new LongAdder();
+  private final LongAdder untrackedOccurrences = new LongAdder();
+
+  /**
+   * @param tokenizer    the tokenizer splitting documents and queries into terms
+   * @param maxTerms     the maximum number of distinct terms tracked
+   * @param maxNeighbors the number of co-occurring terms kept per term
+   */
+  public CorpusTermStatistics(TermTokenizer tokenizer, int maxTerms, int maxNeighbors) {
+    this.tokenizer = tokenizer;
+    this.maxTerms = maxTerms;
+    this.maxNeighbors = maxNeighbors;
+  }
+
+  /**
+   * Adds the terms of a document. Blocking: tokenizes the whole text.
+   *
+   * @param documentId an id of the document content, such as its hash
+   * @param text       the document text
+   * @return {@code false} if a document with that id was already added
+   */
+  public boolean addDocument(String documentId, String text) {
+    if (!documents.add(documentId)) {
+      return false;
+    }
+    List<String> words = tokenizer.terms(text);
+    for (int i = 0; i < words.size(); i++) {
+      Term term = term(words.get(i));
+      if (term == null) {
+        untrackedOccurrences.increment();
+        continue;
+      }
+      term.count.increment();
+      occurrences.increment();
+      for (int j = i + 1; j < Math.min(words.size(), i + 1 + WINDOW); j++) {
+        String other = words.get(j);
+        if (other.equals(term.text)) {
+          continue;
+        }
+        term.cooccurred(other, maxNeighbors);
+        Term otherTerm = terms.get(other);
+        if (otherTerm != null) {
+          otherTerm.cooccurred(term.text, maxNeighbors);
+        }
+      }
+    }
+    return true;
+  }
+
+  private Term term(String text) {
+    Term term = terms.get(text);
+    if (term == null && terms.size() < maxTerms) {
+      term = terms.computeIfAbsent(text, Term::new);
+    }
+    return term;
+  }
+
+  /**
+   * @param text a query
+   * @return the content words of the query, as counted in the statistics
+   */
+  public List<String> terms(String text) {
+    return tokenizer.terms(text);
+  }
+
+  /**
+   * Ranks the terms most strongly associated with a group of terms, summing their association with each one.
+   *
+   * @param queryTerms the terms to find associations for; they are never returned themselves
+   * @param limit      the maximum number of terms returned
+   * @return the associated terms, strongest first
+   */
+  public List<String> associatedTerms(Collection<String> queryTerms, int limit) {
+    Map<String, Double> scores = new HashMap<>();
+    for (String queryTerm : queryTerms) {
+      associations(queryTerm).forEach((other, pmi) -> scores.merge(other, pmi, Double::sum));
+    }
+    queryTerms.forEach(scores::remove);
+    return top(scores, limit);
+  }
+
+  /**
+   * Finds the term used in the most similar contexts to a term, such as a corpus-specific synonym or spelling.
+   *
+   * @param term    the term
+   * @param exclude terms that must not be returned, e.g. the other terms of the query
+   * @return the closest term, or {@code null} if none is similar enough
+   */
+  public String closestTerm(String term, Set<String> exclude) {
+    Map<String, Double> context = associations(term);
+    if (context.isEmpty()) {
+      return null;
+    }
+    Set<String> candidates = new HashSet<>();
+    for (String neighbor : context.keySet()) {
+      Term neighborTerm = terms.get(neighbor);
+      if (neighborTerm != null) {
+        candidates.addAll(neighborTerm.neighbors().keySet());
+      }
+    }
+    candidates.remove(term);
+    candidates.removeAll(exclude);
+
+    String closest = null;
+    double bestSimilarity = MIN_SYNONYM_SIMILARITY;
+    for (String candidate : candidates) {
+      double similarity = cosine(context, associations(candidate));
+      if (similarity >= bestSimilarity) {
+        bestSimilarity = similarity;
+        closest = candidate;
+      }
+    }
+    return closest;
+  }
+
+  /**
+   * @return the terms co-occurring with {@code text} more often than chance, with their pointwise mutual information
+   */
+  private Map<String, Double> associations(String text) {
+    Term term = terms.get(text);
+    if (term == null) {
+      return Map.of();
+    }
+    double total = occurrences.sum();
+    double count = term.count.sum();
+    Map<String, Double> associations = new HashMap<>();
+    term.neighbors().forEach((other, cooccurrences) -> {
+      Term otherTerm = terms.get(other);
+      if (otherTerm == null || cooccurrences < MIN_COOCCURRENCES) {
+        return;
+      }
+      double pmi = Math.log(cooccurrences * total / (count * otherTerm.count.sum()));
+      if (pmi > 0) {
+        associations.put(other, pmi);
+      }
+    });
+    return associations;
+  }
+
+  private static double cosine(Map<String, Double> a, Map<String, Double> b) {
+    double dot = 0;
+    for (Map.Entry<String, Double> entry : a.entrySet()) {
+      dot += entry.getValue() * b.getOrDefault(entry.getKey(), 0.0);
+    }
+    if (dot == 0) {
+      return 0;
+    }
+    return dot / (norm(a) * norm(b));
+  }
+
+  private static double norm(Map<String, Double> vector) {
+    double sum = 0;
+    for (double value : vector.values()) {
+      sum += value * value;
+    }
+    return Math.sqrt(sum);
+  }
+
+  private static List<String> top(Map<String, Double> scores, int limit) {
+    List<Map.Entry<String, Double>> entries = new ArrayList<>(scores.entrySet());
+    entries.sort(Map.Entry.<String, Double>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()));
+    return entries.stream().limit(limit).map(Map.Entry::getKey).toList();
+  }
+
+  @Override
+  public JsonObject toJson() {
+    return new JsonObject()
+      .put("documents", documents.size())
+      .put("terms", terms.size())
+      .put("maxTerms", maxTerms)
+      .put("occurrences", occurrences.sum())
+      .put("untrackedOccurrences", untrackedOccurrences.sum());
+  }
+
+  /**
+   * A tracked term with its count and its most frequent neighbours.
+   */
+  private static final class Term {
+    private final String text;
+    private final LongAdder count = new LongAdder();
+    private final Map<String, Neighbor> neighbors = new HashMap<>();
+    private int pruned;
+
+    private Term(String text) {
+      this.text = text;
+    }
+
+    private synchronized void cooccurred(String other, int maxNeighbors) {
+      neighbors.computeIfAbsent(other, key -> new Neighbor(pruned)).count++;
+      if (neighbors.size() > maxNeighbors) {
+        // Lowering every count rather than dropping the rarest neighbours lets a late neighbour catch up
+        int cut = Integer.MAX_VALUE;
+        for (Neighbor neighbor : neighbors.values()) {
+          cut = Math.min(cut, neighbor.remaining(pruned));
+        }
+        pruned += cut;
+        neighbors.values().removeIf(neighbor -> neighbor.remaining(pruned) <= 0);
+      }
+    }
+
+    private synchronized Map<String, Integer> neighbors() {
+      Map<String, Integer> counts = new HashMap<>();
+      neighbors.forEach((other, neighbor) -> counts.put(other, neighbor.count));
+      return counts;
+    }
+  }
+
+  /**
+   * A neighbour's co-occurrences since it was last added, and how much had been pruned from every count by then.
+   */
+  private static final class Neighbor {
+    private final int prunedBefore;
+    private int count;
+
+    private Neighbor(int prunedBefore) {
+      this.prunedBefore = prunedBefore;
+    }
+
+    private int remaining(int pruned) {
+      return count - (pruned - prunedBefore);
+    }
+  }
+}
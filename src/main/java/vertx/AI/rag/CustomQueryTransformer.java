@@ -1,6 +1,6 @@
 package vertx.AI.rag;
 
-import dev.langchain4j.model.openai.OpenAiChatModel;
+import dev.langchain4j.model.chat.ChatLanguageModel;
 import dev.langchain4j.rag.query.Query;
 import dev.langchain4j.rag.query.transformer.CompressingQueryTransformer;
 import dev.langchain4j.rag.query.transformer.ExpandingQueryTransformer;
@@ -19,17 +19,28 @@ import java.util.List;
 public class CustomQueryTransformer implements QueryTransformer {
 
   private final CompressingQueryTransformer compressingQueryTransformer;
-  private final ExpandingQueryTransformer expandingQueryTransformer;
+  private final QueryTransformer expandingQueryTransformer;
 
   /**
    * Constructs a new {@code CustomQueryTransformer} using the provided OpenAI chat model
    * for both compression and expansion phases.
    *
-   * @param chatModel the {@link OpenAiChatModel} used internally by transformers
+   * @param chatModel the {@link ChatLanguageModel} used internally by transformers
    */
-  public CustomQueryTransformer(OpenAiChatModel chatModel) {
+  public CustomQueryTransformer(ChatLanguageModel chatModel) {
+    this(chatModel, new ExpandingQueryTransformer(chatModel));
+  }
+
+  /**
+   * Constructs a new {@code CustomQueryTransformer} that compresses with the provided chat model and expands
+   * with another transformer, such as a {@link LocalQueryExpander}.
+   *
+   * @param chatModel the {@link ChatLanguageModel} used for compression
+   * @param expander  the transformer expanding each compressed query
+   */
+  public CustomQueryTransformer(ChatLanguageModel chatModel, QueryTransformer expander) {
     this.compressingQueryTransformer = new CompressingQueryTransformer(chatModel);
-    this.expandingQueryTransformer = new ExpandingQueryTransformer(chatModel);
+    this.expandingQueryTransformer = expander;
   }
 
   /**
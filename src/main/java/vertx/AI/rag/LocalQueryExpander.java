@@ -0,0 +1,100 @@
+package vertx.AI.rag;
+
+import dev.langchain4j.rag.query.Query;
+import dev.langchain4j.rag.query.transformer.QueryTransformer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A {@link QueryTransformer} expanding a query from {@link CorpusTermStatistics} instead of a chat model, so the
+ * variants cost microseconds and no upstream call.
+ * <p>
+ * Besides the original query it produces up to {@code variants} variants:
+ * <ul>
+ *   <li>one with each query term replaced by its closest corpus synonym, when any term has one;</li>
+ *   <li>the others with {@code termsPerVariant} of the terms most associated with the query appended, strongest
+ *       first, so the query also matches chunks that phrase the topic in the corpus' own vocabulary.</li>
+ * </ul>
+ * A query whose terms never occur in the indexed documents is returned unchanged.
+ */
+public class LocalQueryExpander implements QueryTransformer {
+
+  private static final Logger logger = LoggerFactory.getLogger(LocalQueryExpander.class);
+
+  private final CorpusTermStatistics statistics;
+  private final int variants;
+  private final int termsPerVariant;
+  private final QueryTransformMetrics metrics;
+
+  /**
+   * Constructs a new {@code LocalQueryExpander}.
+   *
+   * @param statistics      the term statistics of the indexed documents
+   * @param variants        the maximum number of variants produced besides the original query
+   * @param termsPerVariant the number of associated terms appended to each variant
+   * @param metrics         the counters recording the time spent expanding
+   */
+  public LocalQueryExpander(CorpusTermStatistics statistics, int variants, int termsPerVariant,
+                            QueryTransformMetrics metrics) {
+    this.statistics = statistics;
+    this.variants = variants;
+    this.termsPerVariant = termsPerVariant;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Expands the query with corpus synonyms and associated terms.
+   *
+   * @param query the query to expand
+   * @return the original query followed by its variants
+   */
+  @Override
+  public Collection<Query> transform(Query query) {
+    long start = System.nanoTime();
+    Set<String> queryTerms = new LinkedHashSet<>(statistics.terms(query.text()));
+    Set<String> texts = new LinkedHashSet<>();
+    texts.add(query.text());
+
+    String synonymVariant = withSynonyms(query.text(), queryTerms);
+    if (synonymVariant != null && variants > 0) {
+      texts.add(synonymVariant);
+    }
+
+    List<String> associated = statistics.associatedTerms(queryTerms, variants * termsPerVariant);
+    for (int from = 0; from < associated.size() && texts.size() <= variants; from += termsPerVariant) {
+      List<String> terms = associated.subList(from, Math.min(associated.size(), from + termsPerVariant));
+      texts.add(query.text() + " " + String.join(" ", terms));
+    }
+
+    List<Query> queries = new ArrayList<>(texts.size());
+    queries.add(query);
+    texts.stream().skip(1).forEach(text -> queries.add(Query.from(text, query.metadata())));
+    metrics.expandedLocally(System.nanoTime() - start);
+    logger.debug("Expanded query '{}' locally into {} queries", query.text(), queries.size());
+    return queries;
+  }
+
+  /**
+   * @return the text with every query term that has a corpus synonym replaced by it, or {@code null} if none has
+   */
+  private String withSynonyms(String text, Set<String> queryTerms) {
+    String result = text;
+    for (String term : queryTerms) {
+      String synonym = statistics.closestTerm(term, queryTerms);
+      if (synonym == null) {
+        continue;
+      }
+      Matcher matcher = Pattern.compile("\\b" + Pattern.quote(term) + "\\b", Pattern.CASE_INSENSITIVE).matcher(result);
+      result = matcher.replaceAll(Matcher.quoteReplacement(synonym));
+    }
+    return result.equals(text) ? null : result;
+  }
+}
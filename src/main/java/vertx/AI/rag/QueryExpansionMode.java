@@ -0,0 +1,48 @@
+package vertx.AI.rag;
+
+/**
+ * Selects how queries are expanded into variants before retrieval, configured by {@code queryTransform.expansion}
+ * in {@code config.json}.
+ */
+public enum QueryExpansionMode {
+
+  /**
+   * The chat model writes the variants, one upstream call per expanded query.
+   */
+  LLM("llm"),
+
+  /**
+   * The variants are derived from the term statistics of the indexed documents by {@link LocalQueryExpander},
+   * without any model call.
+   */
+  LOCAL("local");
+
+  private final String configName;
+
+  QueryExpansionMode(String configName) {
+    this.configName = configName;
+  }
+
+  /**
+   * @return the name used for this mode in the configuration
+   */
+  public String configName() {
+    return configName;
+  }
+
+  /**
+   * Resolves a mode from its configuration name.
+   *
+   * @param configName the configured mode, e.g. {@code "local"}
+   * @return the matching mode
+   * @throws IllegalArgumentException if no mode has that name
+   */
+  public static QueryExpansionMode fromConfig(String configName) {
+    for (QueryExpansionMode mode : values()) {
+      if (mode.configName.equalsIgnoreCase(configName)) {
+        return mode;
+      }
+    }
+    throw new IllegalArgumentException("Unknown query expansion mode: " + configName);
+  }
+}
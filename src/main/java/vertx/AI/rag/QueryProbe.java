@@ -0,0 +1,144 @@
+package vertx.AI.rag;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.query.Query;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Searches the embedding store for a query ahead of retrieval, with the scores the content retriever does not
+ * expose, so that query transformers can decide from them whether rewriting the query is worth a model call.
+ * <p>
+ * The search is the one the content retriever would make, with the same store and limits. Its results are kept
+ * for the query and handed to the retriever returned by {@link #reusingProbes(ContentRetriever)}, so a query
+ * passed on unchanged is not embedded and searched twice. A search still running when the same query is probed
+ * again is joined rather than repeated.
+ */
+public class QueryProbe {
+
+  private final EmbeddingModel embeddingModel;
+  private final EmbeddingStore<TextSegment> embeddingStore;
+  private final int maxResults;
+  private final double minScore;
+  // Results wait here until the retriever asks for the same query; entries go with their query otherwise
+  private final Map<Query, CompletableFuture<List<EmbeddingMatch<TextSegment>>>> probes =
+    Collections.synchronizedMap(new WeakHashMap<>());
+
+  /**
+   * @param embeddingModel the model embedding queries, as used by the content retriever
+   * @param embeddingStore the store searched by the content retriever
+   * @param maxResults     the maximum number of chunks the content retriever returns
+   * @param minScore       the minimum score of a chunk returned by the content retriever
+   */
+  public QueryProbe(EmbeddingModel embeddingModel, EmbeddingStore<TextSegment> embeddingStore, int maxResults,
+                    double minScore) {
+    this.embeddingModel = embeddingModel;
+    this.embeddingStore = embeddingStore;
+    this.maxResults = maxResults;
+    this.minScore = minScore;
+  }
+
+  /**
+   * Searches for the query on the calling thread, or waits for a search of it that is already running.
+   *
+   * @param query the query
+   * @return the matching chunks, best first
+   */
+  public List<EmbeddingMatch<TextSegment>> search(Query query) {
+    return join(searchAsync(query, Runnable::run));
+  }
+
+  /**
+   * Starts searching for the query, unless a search of it is already running or done.
+   *
+   * @param query    the query
+   * @param executor the executor running the search
+   * @return the matching chunks, best first
+   */
+  public CompletableFuture<List<EmbeddingMatch<TextSegment>>> searchAsync(Query query, Executor executor) {
+    CompletableFuture<List<EmbeddingMatch<TextSegment>>> search = new CompletableFuture<>();
+    CompletableFuture<List<EmbeddingMatch<TextSegment>>> running = probes.putIfAbsent(query, search);
+    if (running != null) {
+      return running;
+    }
+    try {
+      executor.execute(() -> {
+        try {
+          search.complete(embeddingStore.search(EmbeddingSearchRequest.builder()
+            .queryEmbedding(embeddingModel.embed(query.text()).content())
+            .maxResults(maxResults)
+            .minScore(minScore)
+            .build()).matches());
+        } catch (Throwable e) {
+          probes.remove(query);
+          search.completeExceptionally(e);
+        }
+      });
+    } catch (RuntimeException e) {
+      probes.remove(query);
+      search.completeExceptionally(e);
+    }
+    return search;
+  }
+
+  /**
+   * Keeps a search's results for the retriever again, after they were discarded while the search was shared.
+   */
+  void keep(Query query, CompletableFuture<List<EmbeddingMatch<TextSegment>>> search) {
+    probes.put(query, search);
+  }
+
+  /**
+   * Drops the results kept for a query that will not be retrieved as is, e.g. because it was expanded.
+   *
+   * @param query the probed query
+   */
+  public void discard(Query query) {
+    probes.remove(query);
+  }
+
+  /**
+   * Wraps the content retriever so that queries probed successfully are answered from the probe's results.
+   *
+   * @param retriever the retriever used for queries that were not probed
+   * @return the wrapping retriever
+   */
+  public ContentRetriever reusingProbes(ContentRetriever retriever) {
+    return query -> {
+      CompletableFuture<List<EmbeddingMatch<TextSegment>>> probe = probes.remove(query);
+      if (probe == null || probe.isCompletedExceptionally()) {
+        return retriever.retrieve(query);
+      }
+      return probe.join().stream().map(match -> Content.from(match.embedded())).toList();
+    };
+  }
+
+  /**
+   * Waits for a future, rethrowing the exception it failed with rather than a {@link CompletionException}.
+   */
+  static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package vertx.AI.rag;
+
+import io.vertx.core.json.JsonObject;
+import vertx.AI.metrics.MetricsSource;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for the paths taken by {@link AdaptiveQueryTransformer}, the outcomes of
+ * {@link SpeculativeQueryTransformer} and the time spent in {@link LocalQueryExpander}, shared by the retrieval
+ * augmentors of every chat verticle on the node.
+ */
+public class QueryTransformMetrics implements MetricsSource {
+
+  private final LongAdder queries = new LongAdder();
+  private final LongAdder compressed = new LongAdder();
+  private final LongAdder compressionSkipped = new LongAdder();
+  private final LongAdder expanded = new LongAdder();
+  private final LongAdder expansionSkippedShort = new LongAdder();
+  private final LongAdder expansionSkippedProbe = new LongAdder();
+  private final LongAdder probes = new LongAdder();
+  private final LongAdder totalTransformNanos = new LongAdder();
+  private final LongAdder speculationWins = new LongAdder();
+  private final LongAdder speculationMerges = new LongAdder();
+  private final LongAdder speculationFailures = new LongAdder();
+  private final LongAdder totalWinNanos = new LongAdder();
+  private final LongAdder totalMergeNanos = new LongAdder();
+  private final LongAdder localExpansions = new LongAdder();
+  private final LongAdder totalLocalExpansionNanos = new LongAdder();
+
+  void queryTransformed(long transformNanos) {
+    queries.increment();
+    totalTransformNanos.add(transformNanos);
+  }
+
+  void compressed() {
+    compressed.increment();
+  }
+
+  void compressionSkipped() {
+    compressionSkipped.increment();
+  }
+
+  void expanded() {
+    expanded.increment();
+  }
+
+  void expansionSkippedShort() {
+    expansionSkippedShort.increment();
+  }
+
+  void expansionSkippedProbe() {
+    expansionSkippedProbe.increment();
+  }
+
+  void probed() {
+    probes.increment();
+  }
+
+  void speculationWon(long transformNanos) {
+    speculationWins.increment();
+    totalWinNanos.add(transformNanos);
+  }
+
+  void speculationMerged(long transformNanos) {
+    speculationMerges.increment();
+    totalMergeNanos.add(transformNanos);
+  }
+
+  void speculationFailed() {
+    speculationFailures.increment();
+  }
+
+  void expandedLocally(long expansionNanos) {
+    localExpansions.increment();
+    totalLocalExpansionNanos.add(expansionNanos);
+  }
+
+  @Override
+  public JsonObject toJson() {
+    long transformed = queries.sum();
+    long wins = speculationWins.sum();
+    long merges = speculationMerges.sum();
+    long speculations = wins + merges + speculationFailures.sum();
+    long local = localExpansions.sum();
+    return new JsonObject()
+      .put("queries", transformed)
+      .put("compressed", compressed.sum())
+      .put("compressionSkipped", compressionSkipped.sum())
+      .put("expanded", expanded.sum())
+      .put("expansionSkippedShort", expansionSkippedShort.sum())
+      .put("expansionSkippedProbe", expansionSkippedProbe.sum())
+      .put("probes", probes.sum())
+      .put("avgTransformMs",
+        transformed == 0 ? 0.0 : totalTransformNanos.sum() / (double) transformed / TimeUnit.MILLISECONDS.toNanos(1))
+      .put("speculation", new JsonObject()
+        .put("speculations", speculations)
+        .put("wins", wins)
+        .put("merged", merges)
+        .put("failed", speculationFailures.sum())
+        .put("winRate", speculations == 0 ? 0.0 : wins / (double) speculations)
+        .put("avgWinMs", wins == 0 ? 0.0 : totalWinNanos.sum() / (double) wins / TimeUnit.MILLISECONDS.toNanos(1))
+        .put("avgMergedMs", merges == 0 ? 0.0 : totalMergeNanos.sum() / (double) merges / TimeUnit.MILLISECONDS.toNanos(1)))
+      .put("localExpansions", local)
+      .put("avgLocalExpansionUs",
+        local == 0 ? 0.0 : totalLocalExpansionNanos.sum() / (double) local / TimeUnit.MICROSECONDS.toNanos(1));
+  }
+}
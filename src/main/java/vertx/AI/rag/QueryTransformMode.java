@@ -0,0 +1,49 @@
+package vertx.AI.rag;
+
+/**
+ * Selects how chat queries are rewritten before retrieval, configured by {@code queryTransform.mode} in
+ * {@code config.json}.
+ */
+public enum QueryTransformMode {
+
+  /**
+   * Every query is compressed against the session history and then expanded, as done by
+   * {@link CustomQueryTransformer}.
+   */
+  FULL("full"),
+
+  /**
+   * Compression and expansion only run when they can change what is retrieved, see
+   * {@link AdaptiveQueryTransformer}.
+   */
+  ADAPTIVE("adaptive");
+
+  private final String configName;
+
+  QueryTransformMode(String configName) {
+    this.configName = configName;
+  }
+
+  /**
+   * @return the name used for this mode in the configuration
+   */
+  public String configName() {
+    return configName;
+  }
+
+  /**
+   * Resolves a mode from its configuration name.
+   *
+   * @param configName the configured mode, e.g. {@code "adaptive"}
+   * @return the matching mode
+   * @throws IllegalArgumentException if no mode has that name
+   */
+  public static QueryTransformMode fromConfig(String configName) {
+    for (QueryTransformMode mode : values()) {
+      if (mode.configName.equalsIgnoreCase(configName)) {
+        return mode;
+      }
+    }
+    throw new IllegalArgumentException("Unknown query transform mode: " + configName);
+  }
+}
@@ -0,0 +1,131 @@
+package vertx.AI.rag;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.rag.query.Query;
+import dev.langchain4j.rag.query.transformer.QueryTransformer;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A {@link QueryTransformer} that searches for the raw user message while another transformer rewrites it,
+ * instead of only searching once the rewriting model calls are done.
+ * <p>
+ * The search starts on the retrieval executor and the rewrite, which makes model calls, on the chat executor. If
+ * the raw query's best chunk scores at least {@code speculativeMinScore}, the raw query alone is retrieved and the
+ * turn goes on without waiting for the rewrite: a rewrite not started yet is skipped, and the result of a running
+ * one is dropped when its model calls return. Otherwise the raw query is retrieved alongside
+ * the rewritten ones, at no extra cost since its search is already done, and the aggregator merges their results.
+ * If the speculative search fails, the rewritten queries are used as without speculation. A turn needing a rewrite
+ * the chat executor has not started yet runs it itself, so turns holding every chat thread cannot wait on
+ * rewrites queued behind them. How often each
+ * outcome occurs is counted in {@link QueryTransformMetrics}.
+ */
+public class SpeculativeQueryTransformer implements QueryTransformer {
+
+  private static final Logger logger = LoggerFactory.getLogger(SpeculativeQueryTransformer.class);
+
+  private final QueryTransformer delegate;
+  private final QueryProbe probe;
+  private final double speculativeMinScore;
+  private final Executor searchExecutor;
+  private final Executor rewriteExecutor;
+  private final QueryTransformMetrics metrics;
+
+  /**
+   * @param delegate            the transformer rewriting the query
+   * @param probe               the search of queries ahead of retrieval, shared with the content retriever
+   * @param speculativeMinScore the best-chunk score at which the raw query is retrieved without the rewrite
+   * @param searchExecutor      the executor running the speculative search
+   * @param rewriteExecutor     the executor running the rewrite, which calls the chat model
+   * @param metrics             the counters recording the outcome of each speculation
+   */
+  public SpeculativeQueryTransformer(QueryTransformer delegate, QueryProbe probe, double speculativeMinScore,
+                                     Executor searchExecutor, Executor rewriteExecutor,
+                                     QueryTransformMetrics metrics) {
+    this.delegate = delegate;
+    this.probe = probe;
+    this.speculativeMinScore = speculativeMinScore;
+    this.searchExecutor = searchExecutor;
+    this.rewriteExecutor = rewriteExecutor;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public Collection<Query> transform(Query query) {
+    long start = System.nanoTime();
+    CompletableFuture<List<EmbeddingMatch<TextSegment>>> speculative = probe.searchAsync(query, searchExecutor);
+    Rewrite rewrite = new Rewrite(query);
+    rewriteExecutor.execute(rewrite);
+
+    List<EmbeddingMatch<TextSegment>> matches;
+    try {
+      matches = QueryProbe.join(speculative);
+    } catch (RuntimeException e) {
+      logger.warn("Speculative search failed, retrieving the transformed queries only", e);
+      metrics.speculationFailed();
+      return rewrite.join();
+    }
+
+    if (!matches.isEmpty() && matches.get(0).score() >= speculativeMinScore) {
+      logger.debug("Raw query '{}' retrieves a chunk scoring {}, not waiting for its transformation", query.text(),
+        matches.get(0).score());
+      rewrite.skip();
+      metrics.speculationWon(System.nanoTime() - start);
+      return List.of(query);
+    }
+
+    List<Query> queries = new ArrayList<>(rewrite.join());
+    if (!queries.contains(query)) {
+      queries.add(query);
+    }
+    // The delegate may have discarded the shared search while deciding on the raw query
+    probe.keep(query, speculative);
+    metrics.speculationMerged(System.nanoTime() - start);
+    return queries;
+  }
+
+  /**
+   * The rewrite of one query, run by whichever of the chat executor and the waiting turn claims it first.
+   */
+  private final class Rewrite implements Runnable {
+    private final Query query;
+    private final AtomicBoolean claimed = new AtomicBoolean();
+    private final CompletableFuture<Collection<Query>> result = new CompletableFuture<>();
+
+    private Rewrite(Query query) {
+      this.query = query;
+    }
+
+    @Override
+    public void run() {
+      if (!claimed.compareAndSet(false, true)) {
+        return;
+      }
+      try {
+        result.complete(delegate.transform(query));
+      } catch (Throwable e) {
+        result.completeExceptionally(e);
+      }
+    }
+
+    /**
+     * @return the rewritten queries, rewriting on the calling thread if the chat executor has not started yet
+     */
+    private Collection<Query> join() {
+      run();
+      return QueryProbe.join(result);
+    }
+
+    private void skip() {
+      claimed.set(true);
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package vertx.AI.rag;
+
+import ai.djl.huggingface.tokenizers.HuggingFaceTokenizer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Splits text into the lower-cased content words used for corpus term statistics, with a HuggingFace tokenizer
+ * loaded through DJL.
+ * <p>
+ * Word pieces are joined back into whole words, and punctuation, numbers-only tokens, single characters and
+ * common English stop words are dropped. The tokenizer is native and thread-safe; {@link #close()} releases it.
+ */
+public class TermTokenizer implements AutoCloseable {
+
+  private static final Set<String> STOP_WORDS = Set.of(
+    "a", "an", "the", "and", "or", "but", "if", "then", "else", "of", "to", "in", "on", "at", "for", "with", "by",
+    "from", "about", "as", "into", "over", "under", "than", "so", "not", "no", "nor", "too", "very", "just",
+    "is", "are", "was", "were", "be", "been", "being", "am", "do", "does", "did", "done", "have", "has", "had",
+    "can", "could", "should", "would", "will", "shall", "may", "might", "must",
+    "what", "which", "who", "whom", "whose", "when", "where", "why", "how",
+    "i", "me", "my", "mine", "you", "your", "yours", "we", "us", "our", "ours", "he", "him", "his", "she", "her",
+    "it", "its", "they", "them", "their", "this", "that", "these", "those", "there", "here",
+    "all", "any", "some", "each", "every", "both", "few", "more", "most", "other", "such", "only", "own", "same",
+    "also", "again", "once", "up", "down", "out", "off", "further", "after", "before", "between", "through",
+    "during", "while", "until", "because", "above", "below");
+
+  private final HuggingFaceTokenizer tokenizer;
+
+  private TermTokenizer(HuggingFaceTokenizer tokenizer) {
+    this.tokenizer = tokenizer;
+  }
+
+  /**
+   * Loads a tokenizer definition ({@code tokenizer.json}) from a file, or from the classpath when no such file
+   * exists.
+   *
+   * @param location the file path or classpath resource name of the tokenizer definition
+   * @return the tokenizer
+   * @throws IOException if the definition cannot be found or read
+   */
+  public static TermTokenizer load(String location) throws IOException {
+    // Whole documents are tokenized at once, so the model's input length limit must not truncate them
+    Map<String, String> options = Map.of("addSpecialTokens", "false", "truncation", "false", "padding", "false");
+    Path path = Path.of(location);
+    if (Files.isRegularFile(path)) {
+      return new TermTokenizer(HuggingFaceTokenizer.newInstance(path, options));
+    }
+    try (InputStream in = TermTokenizer.class.getClassLoader().getResourceAsStream(location)) {
+      if (in == null) {
+        throw new IOException("Tokenizer definition not found: " + location);
+      }
+      return new TermTokenizer(HuggingFaceTokenizer.newInstance(in, options));
+    }
+  }
+
+  /**
+   * @param text the text to split
+   * @return the content words of the text, in order
+   */
+  public List<String> terms(String text) {
+    List<String> terms = new ArrayList<>();
+    StringBuilder word = new StringBuilder();
+    for (String token : tokenizer.tokenize(text)) {
+      if (token.startsWith("##")) {
+        word.append(token, 2, token.length());
+        continue;
+      }
+      addTerm(terms, word);
+      word.setLength(0);
+      word.append(token.toLowerCase());
+    }
+    addTerm(terms, word);
+    return terms;
+  }
+
+  private static void addTerm(List<String> terms, StringBuilder word) {
+    if (word.length() < 2) {
+      return;
+    }
+    String term = word.toString();
+    if (!STOP_WORDS.contains(term) && term.chars().anyMatch(Character::isLetter)) {
+      terms.add(term);
+    }
+  }
+
+  @Override
+  public void close() {
+    tokenizer.close();
+  }
+}
@@ -2,6 +2,8 @@ package vertx.AI.service;
 
 import dev.langchain4j.store.embedding.EmbeddingStoreIngestor;
 import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.ReadStream;
 
 
 /**
@@ -9,15 +11,26 @@ import io.vertx.core.Future;
  */
 public interface FileServiceInterface {
 
+  /**
+   * Streams an incoming upload into a staging file while computing its content hash.
+   * The stream is paused immediately and resumed once the staging file is open.
+   *
+   * @param upload the incoming upload stream
+   * @param stagingPath the path of the staging file to write
+   * @return a Future containing the SHA-256 content hash of the written file
+   */
+  Future<String> stageUpload(ReadStream<Buffer> upload, String stagingPath);
+
   /**
    * Uploads a file by moving it to the specified destination and sending an index event.
    *
    * @param uploadedFileName the temporary uploaded file path
    * @param destination the destination path to move the file
+   * @param contentHash the SHA-256 content hash computed while the file was received
    * @param indexAddress the event bus address to notify for indexing
    * @return a Future indicating completion of the file move operation
    */
-  Future<Void> uploadFile(String uploadedFileName, String destination, String indexAddress);
+  Future<Void> uploadFile(String uploadedFileName, String destination, String contentHash, String indexAddress);
 
   /**
    * Indexes all documents in the given directory using the provided ingestor.
@@ -36,4 +49,15 @@ public interface FileServiceInterface {
    * @return a Future indicating completion of the indexing operation
    */
   Future<Void> indexFileIfNotIndexed(String filePath, EmbeddingStoreIngestor embeddingStoreIngestor);
+
+  /**
+   * Indexes a single file if it has not already been indexed, using a content hash
+   * that was computed beforehand so the file does not have to be read again.
+   *
+   * @param filePath the path to the file
+   * @param contentHash the SHA-256 content hash of the file
+   * @param embeddingStoreIngestor the ingestor used for indexing
+   * @return a Future indicating completion of the indexing operation
+   */
+  Future<Void> indexFileIfNotIndexed(String filePath, String contentHash, EmbeddingStoreIngestor embeddingStoreIngestor);
 }
@@ -1,12 +1,12 @@
 package vertx.AI.service;
 
-import dev.langchain4j.model.openai.OpenAiChatModel;
-import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
+import dev.langchain4j.model.chat.ChatLanguageModel;
 import dev.langchain4j.rag.RetrievalAugmentor;
 import dev.langchain4j.rag.content.retriever.ContentRetriever;
 import dev.langchain4j.store.embedding.EmbeddingStoreIngestor;
 import io.vertx.core.Future;
 import vertx.AI.config.OpenAIModelConfig;
+import vertx.AI.llm.CancellableStreamingChatLanguageModel;
 
 /**
  * Interface defining methods for initializing OpenAI-related services,
@@ -16,19 +16,21 @@ public interface OpenAIServiceInterface {
 
   /**
    * Initializes a streaming OpenAI chat model with the given configuration.
+   * Calls made through the returned model are subject to the upstream concurrency limiter and can be cancelled.
    *
    * @param config the configuration for the streaming chat model
-   * @return a Future containing the initialized {@link OpenAiStreamingChatModel}
+   * @return a Future containing the initialized {@link CancellableStreamingChatLanguageModel}
    */
-  Future<OpenAiStreamingChatModel> initializeStreamingChatModel(OpenAIModelConfig config);
+  Future<CancellableStreamingChatLanguageModel> initializeStreamingChatModel(OpenAIModelConfig config);
 
   /**
    * Initializes a non-streaming OpenAI chat model with the given configuration.
+   * Calls made through the returned model are subject to the upstream concurrency limiter.
    *
    * @param config the configuration for the chat model
-   * @return a Future containing the initialized {@link OpenAiChatModel}
+   * @return a Future containing the initialized {@link ChatLanguageModel}
    */
-  Future<OpenAiChatModel> initializeNonStreamingChatModel(OpenAIModelConfig config);
+  Future<ChatLanguageModel> initializeNonStreamingChatModel(OpenAIModelConfig config);
 
   /**
    * Initializes a content retriever using the provided API key and embedding configuration.
@@ -57,5 +59,5 @@ public interface OpenAIServiceInterface {
    * @param chatModel the OpenAI chat model used in augmentation
    * @return a Future containing the initialized {@link RetrievalAugmentor}
    */
-  Future<RetrievalAugmentor> initializeRetrievalAugmentor(ContentRetriever contentRetriever, OpenAiChatModel chatModel);
+  Future<RetrievalAugmentor> initializeRetrievalAugmentor(ContentRetriever contentRetriever, ChatLanguageModel chatModel);
 }
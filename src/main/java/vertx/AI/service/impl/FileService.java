@@ -6,7 +6,14 @@ import dev.langchain4j.data.document.loader.FileSystemDocumentLoader;
 import dev.langchain4j.store.embedding.EmbeddingStoreIngestor;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.file.FileSystem;
+import io.vertx.core.file.OpenOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
+import vertx.AI.execution.BlockingExecutor;
+import vertx.AI.rag.CorpusTermStatistics;
+import vertx.AI.util.HashingWriteStream;
 import vertx.AI.util.DocumentHashUtil;
 import vertx.AI.service.FileServiceInterface;
 import org.bson.BsonDocument;
@@ -22,45 +29,103 @@ import java.util.stream.Stream;
 /**
  * Service for handling file-related operations including uploads and indexing for RAG (Retrieval-Augmented Generation).
  * Interacts with the file system and MongoDB to manage document ingestion into the embedding store.
+ * <p>
+ * The service holds no per-request state, so a single instance is safely shared by every
+ * {@code HttpServerVerticle} instance; callbacks run on the context of the calling verticle.
+ * <p>
+ * Blocking work is split between two dedicated executors: directory scans and content hashing run on the
+ * file I/O executor, while MongoDB lookups, document parsing and embedding run on the ingestion executor.
+ * Neither shares threads with chat requests.
+ * <p>
+ * When local query expansion is enabled, every document seen during indexing, including those indexed by an
+ * earlier run, is also added to the {@link CorpusTermStatistics}, which are kept in memory only.
  */
 public class FileService implements FileServiceInterface {
   private static final Logger logger = LoggerFactory.getLogger(FileService.class);
   private final Vertx vertx;
+  private final BlockingExecutor ingestionExecutor;
+  private final BlockingExecutor fileIoExecutor;
   private final FileSystem fs;
   private final MongoCollection<BsonDocument> collection;
+  private final CorpusTermStatistics termStatistics;
 
   /**
    * Constructs a new FileService.
    *
-   * @param vertx      the Vert.x instance used for file system and async operations
-   * @param collection the MongoDB collection used for tracking indexed documents
+   * @param vertx             the Vert.x instance used for file system and async operations
+   * @param ingestionExecutor the executor running MongoDB lookups, document parsing and embedding
+   * @param fileIoExecutor    the executor running directory scans and content hashing
+   * @param collection        the MongoDB collection used for tracking indexed documents
+   * @param termStatistics    the term statistics fed with every indexed document, or {@code null} if not needed
    */
-  public FileService(Vertx vertx, MongoCollection<BsonDocument> collection) {
+  public FileService(Vertx vertx, BlockingExecutor ingestionExecutor, BlockingExecutor fileIoExecutor,
+                     MongoCollection<BsonDocument> collection, CorpusTermStatistics termStatistics) {
     this.vertx = vertx;
+    this.ingestionExecutor = ingestionExecutor;
+    this.fileIoExecutor = fileIoExecutor;
     this.fs = vertx.fileSystem();
     this.collection = collection;
+    this.termStatistics = termStatistics;
+  }
+
+  /**
+   * Streams an upload into the staging file, feeding every chunk into a SHA-256 digest as it is written.
+   * The staging file is removed if the transfer fails.
+   *
+   * @param upload      the incoming upload stream
+   * @param stagingPath the path of the staging file to write
+   * @return a {@link Future} that completes with the hexadecimal content hash
+   */
+  @Override
+  public Future<String> stageUpload(ReadStream<Buffer> upload, String stagingPath) {
+    upload.pause();
+
+    return fs.open(stagingPath, new OpenOptions().setWrite(true).setCreate(true).setTruncateExisting(true))
+      .compose(file -> {
+        HashingWriteStream hashingStream;
+        try {
+          hashingStream = new HashingWriteStream(file, DocumentHashUtil.newDigest());
+        } catch (Exception e) {
+          upload.resume();
+          return file.close().transform(v -> Future.failedFuture(e));
+        }
+        return upload.pipeTo(hashingStream).map(v -> hashingStream.hexDigest());
+      })
+      .onFailure(err -> {
+        logger.error("Failed to stage upload: {}", stagingPath, err);
+        fs.delete(stagingPath);
+      });
   }
 
   /**
    * Uploads a file by moving it to the target directory and triggering a re-indexing event on the event bus.
+   * The content hash is sent along with the file path so the indexer does not need to re-read the file.
+   * The uploaded file is removed if it cannot be moved, e.g. because the destination already exists.
    *
    * @param uploadedFileName the path of the uploaded temp file
    * @param destination      the destination path to move the file to
+   * @param contentHash      the SHA-256 content hash computed during the upload
    * @param indexAddress     the event bus address to trigger indexing
    * @return a {@link Future} indicating the success or failure of the operation
    */
   @Override
-  public Future<Void> uploadFile(String uploadedFileName, String destination, String indexAddress) {
+  public Future<Void> uploadFile(String uploadedFileName, String destination, String contentHash, String indexAddress) {
     return fs.move(uploadedFileName, destination)
       .onSuccess(v -> {
         logger.info("File moved to: {}", destination);
-        vertx.eventBus().send(indexAddress, destination);
+        vertx.eventBus().send(indexAddress, new JsonObject()
+          .put("filePath", destination)
+          .put("contentHash", contentHash));
       })
-      .onFailure(err -> logger.error("Failed to move file", err));
+      .onFailure(err -> {
+        logger.error("Failed to move file", err);
+        fs.delete(uploadedFileName);
+      });
   }
 
   /**
    * Indexes all documents in the given directory that have not already been indexed.
+   * Files are indexed one after the other, so a large backfill occupies at most one ingestion thread.
    *
    * @param directoryPath the path to the documents directory
    * @param ingestor      the embedding store ingestor to ingest new documents
@@ -68,33 +133,29 @@ public class FileService implements FileServiceInterface {
    */
   @Override
   public Future<Void> indexDocuments(String directoryPath, EmbeddingStoreIngestor ingestor) {
-    return vertx.executeBlocking(() -> {
-      try (Stream<Path> fileStream = Files.list(Paths.get(directoryPath))) {
-        fileStream
-          .filter(filePath -> !filePath.getFileName().toString().startsWith("."))
-          .forEach(filePath -> {
-            try {
-              String hash = DocumentHashUtil.computeFileHash(filePath);
-              boolean alreadyIndexed = DocumentHashUtil.isDocumentAlreadyIndexed(collection, hash);
+    return fileIoExecutor.execute(() -> listDocuments(directoryPath))
+      .compose(filePaths -> {
+        Future<Void> indexing = Future.succeededFuture();
+        for (Path filePath : filePaths) {
+          indexing = indexing.compose(v -> indexFileIfNotIndexed(filePath.toString(), null, ingestor)
+            .recover(err -> {
+              logger.error("Error processing document: {} - Skipping file.", filePath, err);
+              return Future.succeededFuture();
+            }));
+        }
+        return indexing;
+      });
+  }
 
-              if (alreadyIndexed) {
-                logger.info("Skipping indexing. Document already indexed: {}", filePath);
-              } else {
-                Document document = FileSystemDocumentLoader.loadDocument(filePath);
-                document.metadata().put("content_hash", hash);
-                ingestor.ingest(List.of(document));
-                logger.info("Indexed new document: {}", filePath);
-              }
-            } catch (Exception e) {
-              logger.error("Error processing document: {} - Skipping file.", filePath, e);
-            }
-          });
-      } catch (Exception e) {
-        logger.error("Error listing files in directory: {}", directoryPath, e);
-        throw new RuntimeException(e);
-      }
-      return null;
-    });
+  private static List<Path> listDocuments(String directoryPath) {
+    try (Stream<Path> fileStream = Files.list(Paths.get(directoryPath))) {
+      return fileStream
+        .filter(filePath -> !filePath.getFileName().toString().startsWith("."))
+        .toList();
+    } catch (Exception e) {
+      logger.error("Error listing files in directory: {}", directoryPath, e);
+      throw new RuntimeException(e);
+    }
   }
 
   /**
@@ -106,29 +167,59 @@ public class FileService implements FileServiceInterface {
    */
   @Override
   public Future<Void> indexFileIfNotIndexed(String filePath, EmbeddingStoreIngestor ingestor) {
-    return vertx.executeBlocking(() -> {
-      try {
-        Path path = Paths.get(filePath);
-        if (Files.isDirectory(path) || path.getFileName().toString().startsWith(".")) {
-          logger.info("Skipping directory or hidden file: {}", path);
-          return null;
-        }
+    return indexFileIfNotIndexed(filePath, null, ingestor);
+  }
 
-        String hash = DocumentHashUtil.computeFileHash(path);
-        boolean alreadyIndexed = DocumentHashUtil.isDocumentAlreadyIndexed(collection, hash);
+  /**
+   * Indexes a single file if it has not been previously indexed, reusing a precomputed content hash.
+   * When no hash is given, it is computed from the file contents on the file I/O executor.
+   *
+   * @param filePath    the path to the file to check and index
+   * @param contentHash the SHA-256 content hash of the file, or {@code null} to compute it
+   * @param ingestor    the embedding store ingestor to use for ingestion
+   * @return a {@link Future} indicating completion of the indexing task
+   */
+  @Override
+  public Future<Void> indexFileIfNotIndexed(String filePath, String contentHash, EmbeddingStoreIngestor ingestor) {
+    Path path = Paths.get(filePath);
 
-        if (alreadyIndexed) {
-          logger.info("Skipping reindexing. Document already indexed: {}", filePath);
-        } else {
-          Document document = FileSystemDocumentLoader.loadDocument(path);
-          document.metadata().put("content_hash", hash);
-          ingestor.ingest(List.of(document));
-          logger.info("Re-indexed new document: {}", filePath);
-        }
-      } catch (Exception e) {
-        logger.error("Error re-indexing document: {} - Skipping.", filePath, e);
+    Future<String> hashing = fileIoExecutor.execute(() -> {
+      if (Files.isDirectory(path) || path.getFileName().toString().startsWith(".")) {
+        logger.info("Skipping directory or hidden file: {}", path);
+        return null;
       }
-      return null;
+      return contentHash != null ? contentHash : DocumentHashUtil.computeFileHash(path);
+    });
+
+    return hashing.compose(hash -> {
+      if (hash == null) {
+        return Future.succeededFuture();
+      }
+
+      return ingestionExecutor.execute(() -> {
+        try {
+          boolean alreadyIndexed = DocumentHashUtil.isDocumentAlreadyIndexed(collection, hash);
+
+          if (alreadyIndexed) {
+            logger.info("Skipping reindexing. Document already indexed: {}", filePath);
+            if (termStatistics != null) {
+              // The statistics do not survive a restart, so indexed documents are read again to rebuild them
+              termStatistics.addDocument(hash, FileSystemDocumentLoader.loadDocument(path).text());
+            }
+          } else {
+            Document document = FileSystemDocumentLoader.loadDocument(path);
+            document.metadata().put("content_hash", hash);
+            ingestor.ingest(List.of(document));
+            if (termStatistics != null) {
+              termStatistics.addDocument(hash, document.text());
+            }
+            logger.info("Indexed new document: {}", filePath);
+          }
+        } catch (Exception e) {
+          logger.error("Error re-indexing document: {} - Skipping.", filePath, e);
+        }
+        return null;
+      });
     });
   }
 }
@@ -1,9 +1,9 @@
 package vertx.AI.service.impl;
 
+import dev.langchain4j.model.chat.ChatLanguageModel;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.openai.OpenAiChatModel;
 import dev.langchain4j.model.openai.OpenAiEmbeddingModel;
-import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
 import dev.langchain4j.rag.DefaultRetrievalAugmentor;
 import dev.langchain4j.rag.RetrievalAugmentor;
 import dev.langchain4j.rag.content.aggregator.DefaultContentAggregator;
@@ -11,12 +11,30 @@ import dev.langchain4j.rag.content.injector.DefaultContentInjector;
 import dev.langchain4j.rag.content.retriever.ContentRetriever;
 import dev.langchain4j.rag.content.retriever.EmbeddingStoreContentRetriever;
 import dev.langchain4j.rag.query.router.DefaultQueryRouter;
+import dev.langchain4j.rag.query.transformer.ExpandingQueryTransformer;
+import dev.langchain4j.rag.query.transformer.QueryTransformer;
 import dev.langchain4j.store.embedding.EmbeddingStoreIngestor;
 import dev.langchain4j.store.embedding.mongodb.MongoDbEmbeddingStore;
 import io.vertx.core.Future;
-import io.vertx.core.Vertx;
 import vertx.AI.config.OpenAIModelConfig;
+import vertx.AI.config.QueryTransformConfig;
+import vertx.AI.execution.BlockingExecutor;
+import vertx.AI.llm.AdaptiveConcurrencyLimiter;
+import vertx.AI.llm.BatchingEmbeddingModel;
+import vertx.AI.llm.CancellableStreamingChatLanguageModel;
+import vertx.AI.llm.EmbeddingBatchMetrics;
+import vertx.AI.llm.LimitedChatLanguageModel;
+import vertx.AI.llm.LimitedStreamingChatLanguageModel;
+import vertx.AI.llm.OpenAiCancellableStreamingChatModel;
+import vertx.AI.rag.AdaptiveQueryTransformer;
+import vertx.AI.rag.CorpusTermStatistics;
 import vertx.AI.rag.CustomQueryTransformer;
+import vertx.AI.rag.LocalQueryExpander;
+import vertx.AI.rag.QueryExpansionMode;
+import vertx.AI.rag.QueryProbe;
+import vertx.AI.rag.QueryTransformMetrics;
+import vertx.AI.rag.QueryTransformMode;
+import vertx.AI.rag.SpeculativeQueryTransformer;
 import vertx.AI.service.OpenAIServiceInterface;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,54 +44,89 @@ import java.util.Collections;
 /**
  * Implementation of {@link OpenAIServiceInterface} responsible for initializing and managing
  * Langchain4j-based OpenAI models, embedding services, and retrieval-augmented generation components.
+ * <p>
+ * The chat models it hands out are wrapped so that every upstream call, including the query transformation
+ * calls made during retrieval, goes through one shared {@link AdaptiveConcurrencyLimiter}. Depending on the
+ * {@link QueryTransformMode}, queries are either always compressed and expanded before retrieval or only when
+ * that can change what is retrieved; with speculation enabled, the raw query is searched while that happens.
+ * Expansion asks the chat model for variants, or with {@link QueryExpansionMode#LOCAL} derives them from the
+ * {@link CorpusTermStatistics} of the indexed documents without an upstream call. The searches of the queries a
+ * transformation produces run in parallel on the retrieval stage executor.
  */
 public class OpenAIService implements OpenAIServiceInterface {
 
   private static final Logger logger = LoggerFactory.getLogger(OpenAIService.class);
-  private final Vertx vertx;
+  private final BlockingExecutor blockingExecutor;
   private final MongoDbEmbeddingStore embeddingStore;
-  private OpenAiStreamingChatModel streamingChatModel;
-  private OpenAiChatModel chatModel;
+  private final AdaptiveConcurrencyLimiter upstreamLimiter;
+  private final long upstreamMaxWaitMs;
+  private final QueryTransformConfig queryTransformConfig;
+  private final QueryTransformMetrics queryTransformMetrics;
+  private final BlockingExecutor retrievalExecutor;
+  private final CorpusTermStatistics termStatistics;
+  private final int embeddingBatchMaxSize;
+  private final long embeddingBatchMaxDelayMs;
+  private final EmbeddingBatchMetrics embeddingBatchMetrics;
+  private CancellableStreamingChatLanguageModel streamingChatModel;
+  private ChatLanguageModel chatModel;
   private EmbeddingModel embeddingModel;
+  private EmbeddingModel queryEmbeddingModel;
   private ContentRetriever contentRetriever;
+  private int retrieverMaxResults;
+  private double retrieverMinScore;
   private EmbeddingStoreIngestor embeddingStoreIngestor;
   private RetrievalAugmentor retrievalAugmentor;
 
   /**
-   * Constructs a new {@code OpenAIService} with Vert.x and a MongoDB-based embedding store.
+   * Constructs a new {@code OpenAIService} with a blocking executor and a MongoDB-based embedding store.
    *
-   * @param vertx          the Vert.x instance used for async operations
-   * @param embeddingStore the MongoDB-based embedding store
+   * @param blockingExecutor         the chat stage executor running model and retriever initialization, and the
+   *                                 query rewrites of speculative retrieval
+   * @param embeddingStore           the MongoDB-based embedding store
+   * @param upstreamLimiter          the limiter applied to every upstream chat model call
+   * @param upstreamMaxWaitMs        the maximum time a blocking chat call may wait for a limiter permit
+   * @param queryTransformConfig     how queries are rewritten before retrieval
+   * @param queryTransformMetrics    the counters of the adaptive query transformation paths
+   * @param retrievalExecutor        the executor searching the transformed queries of a turn in parallel
+   * @param termStatistics           the term statistics local expansion draws from, or {@code null} when queries
+   *                                 are expanded by the chat model
+   * @param embeddingBatchMaxSize    the maximum number of query texts embedded in one upstream call
+   * @param embeddingBatchMaxDelayMs the maximum time a query embedding waits for others to share its call
+   * @param embeddingBatchMetrics    the counters of batched query embeddings, or {@code null} to embed every query
+   *                                 in its own call
    */
-  public OpenAIService(Vertx vertx, MongoDbEmbeddingStore embeddingStore) {
-    this.vertx = vertx;
+  public OpenAIService(BlockingExecutor blockingExecutor, MongoDbEmbeddingStore embeddingStore,
+                       AdaptiveConcurrencyLimiter upstreamLimiter, long upstreamMaxWaitMs,
+                       QueryTransformConfig queryTransformConfig, QueryTransformMetrics queryTransformMetrics,
+                       BlockingExecutor retrievalExecutor, CorpusTermStatistics termStatistics,
+                       int embeddingBatchMaxSize, long embeddingBatchMaxDelayMs,
+                       EmbeddingBatchMetrics embeddingBatchMetrics) {
+    this.blockingExecutor = blockingExecutor;
     this.embeddingStore = embeddingStore;
+    this.upstreamLimiter = upstreamLimiter;
+    this.upstreamMaxWaitMs = upstreamMaxWaitMs;
+    this.queryTransformConfig = queryTransformConfig;
+    this.queryTransformMetrics = queryTransformMetrics;
+    this.retrievalExecutor = retrievalExecutor;
+    this.termStatistics = termStatistics;
+    this.embeddingBatchMaxSize = embeddingBatchMaxSize;
+    this.embeddingBatchMaxDelayMs = embeddingBatchMaxDelayMs;
+    this.embeddingBatchMetrics = embeddingBatchMetrics;
   }
 
   /**
    * Initializes the OpenAI streaming chat model with the specified configuration.
    *
    * @param config the OpenAI model configuration
-   * @return a {@link Future} that completes with the initialized {@link OpenAiStreamingChatModel}
+   * @return a {@link Future} that completes with the initialized, rate-limited {@link CancellableStreamingChatLanguageModel}
    */
   @Override
-  public Future<OpenAiStreamingChatModel> initializeStreamingChatModel(OpenAIModelConfig config) {
+  public Future<CancellableStreamingChatLanguageModel> initializeStreamingChatModel(OpenAIModelConfig config) {
     logger.info("Initializing OpenAI Streaming Chat Model...");
 
-    return vertx.executeBlocking(() -> {
-      streamingChatModel = OpenAiStreamingChatModel.builder()
-        .apiKey(config.getApiKey())
-        .modelName(config.getModelName())
-        .temperature(config.getTemperature())
-        .topP(config.getTopP())
-        .presencePenalty(config.getPresencePenalty())
-        .frequencyPenalty(config.getFrequencyPenalty())
-        .maxTokens(config.getMaxTokens())
-        .responseFormat(config.getResponseFormat())
-        .stop(config.getStop())
-        .logRequests(true)
-        .logResponses(true)
-        .build();
+    return blockingExecutor.execute(() -> {
+      OpenAiCancellableStreamingChatModel openAiModel = new OpenAiCancellableStreamingChatModel(config);
+      streamingChatModel = new LimitedStreamingChatLanguageModel(openAiModel, upstreamLimiter);
       logger.info("OpenAI Streaming model initialized successfully.");
       return streamingChatModel;
     });
@@ -83,15 +136,16 @@ public class OpenAIService implements OpenAIServiceInterface {
    * Initializes the non-streaming OpenAI chat model with the specified configuration.
    *
    * @param config the OpenAI model configuration
-   * @return a {@link Future} that completes with the initialized {@link OpenAiChatModel}
+   * @return a {@link Future} that completes with the initialized, rate-limited {@link ChatLanguageModel}
    */
   @Override
-  public Future<OpenAiChatModel> initializeNonStreamingChatModel(OpenAIModelConfig config) {
+  public Future<ChatLanguageModel> initializeNonStreamingChatModel(OpenAIModelConfig config) {
     logger.info("Initializing OpenAI Chat Model...");
 
-    return vertx.executeBlocking(() -> {
-      chatModel = OpenAiChatModel.builder()
+    return blockingExecutor.execute(() -> {
+      OpenAiChatModel openAiModel = OpenAiChatModel.builder()
         .apiKey(config.getApiKey())
+        .baseUrl(config.getBaseUrl())
         .modelName(config.getModelName())
         .temperature(config.getTemperature())
         .topP(config.getTopP())
@@ -104,6 +158,7 @@ public class OpenAIService implements OpenAIServiceInterface {
         .logRequests(true)
         .logResponses(true)
         .build();
+      chatModel = new LimitedChatLanguageModel(openAiModel, upstreamLimiter, upstreamMaxWaitMs);
       logger.info("OpenAI Chat Model initialized successfully.");
       return chatModel;
     });
@@ -131,6 +186,25 @@ public class OpenAIService implements OpenAIServiceInterface {
     return this.embeddingModel;
   }
 
+  /**
+   * Lazily initializes and returns the embedding model used for queries, which batches the embeddings of
+   * concurrent turns when enabled. Documents are embedded by the plain model, as ingestion already sends whole
+   * documents per call.
+   *
+   * @param apiKey             the OpenAI API key
+   * @param embeddingModelName the embedding model name
+   * @return the initialized query {@link EmbeddingModel}
+   */
+  private synchronized EmbeddingModel initializeQueryEmbeddingModel(String apiKey, String embeddingModelName) {
+    if (this.queryEmbeddingModel == null) {
+      EmbeddingModel model = initializeEmbeddingModel(apiKey, embeddingModelName);
+      this.queryEmbeddingModel = embeddingBatchMetrics == null
+        ? model
+        : new BatchingEmbeddingModel(model, embeddingBatchMaxSize, embeddingBatchMaxDelayMs, embeddingBatchMetrics);
+    }
+    return this.queryEmbeddingModel;
+  }
+
   /**
    * Initializes a content retriever based on the embedding store and model.
    *
@@ -144,10 +218,12 @@ public class OpenAIService implements OpenAIServiceInterface {
   public Future<ContentRetriever> initializeContentRetriever(String apiKey, String embeddingModelName, int maxResult, double minScore) {
     logger.info("Initializing Document Retriever...");
 
-    return vertx.executeBlocking(() -> {
+    return blockingExecutor.execute(() -> {
+      retrieverMaxResults = maxResult;
+      retrieverMinScore = minScore;
       contentRetriever = EmbeddingStoreContentRetriever.builder()
         .embeddingStore(embeddingStore)
-        .embeddingModel(initializeEmbeddingModel(apiKey, embeddingModelName))
+        .embeddingModel(initializeQueryEmbeddingModel(apiKey, embeddingModelName))
         .maxResults(maxResult)
         .minScore(minScore)
         .build();
@@ -168,7 +244,7 @@ public class OpenAIService implements OpenAIServiceInterface {
   public Future<EmbeddingStoreIngestor> initializeEmbeddingStoreIngestor(String apiKey, String embeddingModelName) {
     logger.info("Initializing Embedding Store Ingestor");
 
-    return vertx.executeBlocking(() -> {
+    return blockingExecutor.execute(() -> {
       embeddingStoreIngestor = EmbeddingStoreIngestor.builder()
         .embeddingStore(embeddingStore)
         .embeddingModel(initializeEmbeddingModel(apiKey, embeddingModelName))
@@ -182,21 +258,40 @@ public class OpenAIService implements OpenAIServiceInterface {
 
   /**
    * Initializes the retrieval augmentor that performs query transformation, retrieval, content injection, and aggregation.
+   * Must be called after {@link #initializeContentRetriever}, whose embedding model and limits the adaptive and
+   * speculative query transformers' probe shares.
    *
    * @param contentRetriever the content retriever for document lookup
    * @param chatModel        the OpenAI chat model for response generation
    * @return a {@link Future} that completes with the initialized {@link RetrievalAugmentor}
    */
   @Override
-  public Future<RetrievalAugmentor> initializeRetrievalAugmentor(ContentRetriever contentRetriever, OpenAiChatModel chatModel) {
+  public Future<RetrievalAugmentor> initializeRetrievalAugmentor(ContentRetriever contentRetriever, ChatLanguageModel chatModel) {
     logger.info("Initializing Retrieval Augmentor");
 
-    return vertx.executeBlocking(() -> {
+    return blockingExecutor.execute(() -> {
+      QueryProbe probe = new QueryProbe(queryEmbeddingModel, embeddingStore, retrieverMaxResults, retrieverMinScore);
+      QueryTransformer expander = queryTransformConfig.getExpansion() == QueryExpansionMode.LOCAL
+        ? new LocalQueryExpander(termStatistics, queryTransformConfig.getLocalVariants(),
+            queryTransformConfig.getLocalTermsPerVariant(), queryTransformMetrics)
+        : new ExpandingQueryTransformer(chatModel);
+      QueryTransformer queryTransformer = queryTransformConfig.getMode() == QueryTransformMode.ADAPTIVE
+        ? new AdaptiveQueryTransformer(chatModel, expander, probe, queryTransformConfig, queryTransformMetrics)
+        : new CustomQueryTransformer(chatModel, expander);
+      if (queryTransformConfig.isSpeculative()) {
+        queryTransformer = new SpeculativeQueryTransformer(queryTransformer, probe,
+          queryTransformConfig.getSpeculativeMinScore(), retrievalExecutor.asExecutor(), blockingExecutor.asExecutor(),
+          queryTransformMetrics);
+      }
+      ContentRetriever retriever = probe.reusingProbes(contentRetriever);
+
       retrievalAugmentor = DefaultRetrievalAugmentor.builder()
-        .queryTransformer(new CustomQueryTransformer(chatModel))
-        .queryRouter(new DefaultQueryRouter(Collections.singleton(contentRetriever)))
+        .queryTransformer(queryTransformer)
+        .queryRouter(new DefaultQueryRouter(Collections.singleton(retriever)))
         .contentAggregator(new DefaultContentAggregator())
         .contentInjector(new DefaultContentInjector())
+        // One task per transformed query; the chat thread waits for the slowest search instead of all in turn
+        .executor(retrievalExecutor.asExecutor())
         .build();
 
       logger.info("Retrieval Augmentor initialized successfully.");
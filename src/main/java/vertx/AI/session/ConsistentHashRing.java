@@ -0,0 +1,63 @@
+package vertx.AI.session;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable consistent-hash ring mapping keys to members.
+ * <p>
+ * Each member is placed on the ring at {@code virtualNodes} points derived from its name, and a key belongs to the
+ * member owning the first point at or after the key's hash. Adding or removing a member therefore only moves the
+ * keys of the ring segments it gains or loses, about {@code 1/members} of them. The ring is a pure function of the
+ * member names and virtual node count, so independent verticles and nodes building it agree on every key.
+ *
+ * @param <T> the member type
+ */
+public final class ConsistentHashRing<T> {
+
+  private final TreeMap<Long, T> ring = new TreeMap<>();
+
+  /**
+   * @param members      the members, keyed by a stable name
+   * @param virtualNodes the number of ring points per member; more points spread keys more evenly
+   * @throws IllegalArgumentException if there are no members or {@code virtualNodes} is not positive
+   */
+  public ConsistentHashRing(Map<String, T> members, int virtualNodes) {
+    if (members.isEmpty() || virtualNodes < 1) {
+      throw new IllegalArgumentException("A hash ring needs members and a positive number of virtual nodes");
+    }
+    members.forEach((name, member) -> {
+      for (int node = 0; node < virtualNodes; node++) {
+        ring.put(hash(name + "#" + node), member);
+      }
+    });
+  }
+
+  /**
+   * @param key the key, e.g. a session id
+   * @return the member owning the key
+   */
+  public T memberFor(String key) {
+    Map.Entry<Long, T> owner = ring.ceilingEntry(hash(key));
+    return owner != null ? owner.getValue() : ring.firstEntry().getValue();
+  }
+
+  /**
+   * 64-bit FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer so that similar keys
+   * (e.g. sequential ids) land far apart on the ring.
+   */
+  private static long hash(String key) {
+    long h = 0xcbf29ce484222325L;
+    for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+      h ^= b;
+      h *= 0x100000001b3L;
+    }
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
@@ -0,0 +1,67 @@
+package vertx.AI.session;
+
+import io.vertx.core.json.JsonObject;
+import vertx.AI.metrics.MetricsSource;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for session mailboxes, shared by the {@link SessionMailboxes} of every chat verticle on the node.
+ */
+public class SessionMailboxMetrics implements MetricsSource {
+
+  private final LongAdder turns = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final AtomicInteger activeSessions = new AtomicInteger();
+  private final AtomicInteger runningTurns = new AtomicInteger();
+  private final AtomicInteger pendingTurns = new AtomicInteger();
+  private final LongAdder totalWaitNanos = new LongAdder();
+  private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+  void sessionActivated() {
+    activeSessions.incrementAndGet();
+  }
+
+  void sessionDeactivated() {
+    activeSessions.decrementAndGet();
+  }
+
+  void turnQueued() {
+    pendingTurns.incrementAndGet();
+  }
+
+  void turnDequeued() {
+    pendingTurns.decrementAndGet();
+  }
+
+  void turnStarted(long waitNanos) {
+    turns.increment();
+    runningTurns.incrementAndGet();
+    totalWaitNanos.add(waitNanos);
+    maxWaitNanos.accumulate(waitNanos);
+  }
+
+  void turnCompleted() {
+    runningTurns.decrementAndGet();
+  }
+
+  void turnRejected() {
+    rejected.increment();
+  }
+
+  @Override
+  public JsonObject toJson() {
+    long started = turns.sum();
+    return new JsonObject()
+      .put("activeSessions", activeSessions.get())
+      .put("runningTurns", runningTurns.get())
+      .put("pendingTurns", pendingTurns.get())
+      .put("turns", started)
+      .put("rejected", rejected.sum())
+      .put("avgWaitMs", started == 0 ? 0.0 : totalWaitNanos.sum() / (double) started / TimeUnit.MILLISECONDS.toNanos(1))
+      .put("maxWaitMs", maxWaitNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1));
+  }
+}
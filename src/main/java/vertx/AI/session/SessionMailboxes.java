@@ -0,0 +1,121 @@
+package vertx.AI.session;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Runs the turns of each chat session one at a time, in arrival order, while turns of different sessions run
+ * concurrently.
+ * <p>
+ * Every session with pending work has a mailbox of turns. A turn is started when the previous turn of the same
+ * session has completed, including any streaming or blocking work it handed off, so two turns of a session never
+ * read or update its history at the same time. At most {@code maxPendingTurns} turns may wait per session;
+ * further turns are rejected with {@link SessionBusyException}.
+ * <p>
+ * The mailboxes are confined to the owning verticle's context: {@link #submit} must be called on it, turns are
+ * started on it, and completions arriving on other threads (worker or OpenAI client threads) are handed back to
+ * it. No locks are needed, and each verticle instance owns its own mailboxes.
+ */
+public class SessionMailboxes {
+
+  private final Context context;
+  private final int maxPendingTurns;
+  private final SessionMailboxMetrics metrics;
+  private final Map<String, Deque<Runnable>> mailboxes = new HashMap<>();
+
+  /**
+   * Constructs the mailboxes of a verticle.
+   *
+   * @param context         the verticle's context, which owns all mailbox state
+   * @param maxPendingTurns the maximum number of turns waiting behind the running turn of a session
+   * @param metrics         the metrics shared by all verticle instances
+   */
+  public SessionMailboxes(Context context, int maxPendingTurns, SessionMailboxMetrics metrics) {
+    this.context = context;
+    this.maxPendingTurns = maxPendingTurns;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Queues a turn for a session. The turn starts once every earlier turn of the session has completed, and
+   * counts as running until the future it returns completes. Must be called on the owning context.
+   *
+   * @param sessionId the chat session
+   * @param turn      starts the turn and returns a future completing when it is done
+   * @param <T>       the turn result type
+   * @return a future completed with the turn's outcome, or failed with {@link SessionBusyException} when
+   * too many turns of the session are already waiting
+   */
+  public <T> Future<T> submit(String sessionId, Supplier<Future<T>> turn) {
+    Deque<Runnable> mailbox = mailboxes.get(sessionId);
+    if (mailbox != null && mailbox.size() >= maxPendingTurns) {
+      metrics.turnRejected();
+      return Future.failedFuture(new SessionBusyException("Too many pending turns for session " + sessionId));
+    }
+
+    Promise<T> promise = Promise.promise();
+    long enqueuedAt = System.nanoTime();
+    Runnable start = () -> {
+      metrics.turnStarted(System.nanoTime() - enqueuedAt);
+      Future<T> result;
+      try {
+        result = turn.get();
+      } catch (RuntimeException e) {
+        result = Future.failedFuture(e);
+      }
+      result.onComplete(ar -> onContext(() -> {
+        metrics.turnCompleted();
+        promise.handle(ar);
+        startNext(sessionId);
+      }));
+    };
+
+    if (mailbox == null) {
+      // Nothing running for the session: the empty mailbox marks the turn as running
+      mailboxes.put(sessionId, new ArrayDeque<>());
+      metrics.sessionActivated();
+      start.run();
+    } else {
+      metrics.turnQueued();
+      mailbox.addLast(start);
+    }
+    return promise.future();
+  }
+
+  private void startNext(String sessionId) {
+    Deque<Runnable> mailbox = mailboxes.get(sessionId);
+    Runnable next = mailbox.pollFirst();
+    if (next == null) {
+      mailboxes.remove(sessionId);
+      metrics.sessionDeactivated();
+    } else {
+      metrics.turnDequeued();
+      next.run();
+    }
+  }
+
+  private void onContext(Runnable action) {
+    if (Vertx.currentContext() == context) {
+      action.run();
+    } else {
+      context.runOnContext(v -> action.run());
+    }
+  }
+
+  /**
+   * Signals that a turn was rejected because its session already has too many turns waiting.
+   */
+  public static class SessionBusyException extends RuntimeException {
+    public SessionBusyException(String message) {
+      super(message, null, false, false);
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package vertx.AI.session;
+
+/**
+ * Resolves the event bus address of the chat verticle owning a session.
+ * <p>
+ * Front-end verticles send every chat, streaming and cancel request of a session through the same router, so all
+ * turns of a session reach the one {@code OpenAIVerticle} holding its memory, on this node or, in clustered mode,
+ * on the worker node owning the session.
+ */
+public interface SessionRouter {
+
+  /**
+   * @param baseAddress one of the {@code OPENAI_CLIENT_*} or {@code OPENAI_CANCEL_*} event bus addresses
+   * @param sessionId   the chat session
+   * @return the address of the chat verticle owning the session
+   */
+  String addressFor(String baseAddress, String sessionId);
+}
@@ -0,0 +1,102 @@
+package vertx.AI.session;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Assigns chat sessions to {@code OpenAIVerticle} shards by consistent hashing.
+ * <p>
+ * Every session is served by exactly one shard, and changing the number of shards only moves about
+ * {@code 1/shardCount} of the sessions (see {@link ConsistentHashRing}). The assignment is a pure function of the
+ * shard count, virtual node count and session id, so the HTTP verticles and the chat verticles agree on it
+ * without sharing state.
+ * <p>
+ * A shard listens on the event bus addresses of {@link vertx.AI.constants.EventBusAddresses} suffixed with
+ * {@code .<shard>}. With a single shard the plain addresses are used. In clustered mode the shards of a worker
+ * node are additionally scoped by the node's id, as {@code <address>.<nodeId>[.<shard>]}.
+ */
+public class SessionShards implements SessionRouter {
+
+  private final String scope;
+  private final int shardCount;
+  private final int virtualNodes;
+  private final ConsistentHashRing<Integer> ring;
+
+  /**
+   * Builds the shards of a standalone node.
+   *
+   * @param shardCount   the number of chat verticle shards
+   * @param virtualNodes the number of ring points per shard; more points spread sessions more evenly
+   * @throws IllegalArgumentException if either value is not positive
+   */
+  public SessionShards(int shardCount, int virtualNodes) {
+    this(null, shardCount, virtualNodes);
+  }
+
+  /**
+   * Builds the shards of a node.
+   *
+   * @param scope        the id of the clustered worker node owning the shards, or {@code null} when standalone
+   * @param shardCount   the number of chat verticle shards
+   * @param virtualNodes the number of ring points per shard; more points spread sessions more evenly
+   * @throws IllegalArgumentException if either value is not positive
+   */
+  public SessionShards(String scope, int shardCount, int virtualNodes) {
+    if (shardCount < 1) {
+      throw new IllegalArgumentException("Shard count must be positive");
+    }
+    Map<String, Integer> shards = new LinkedHashMap<>();
+    for (int shard = 0; shard < shardCount; shard++) {
+      shards.put("shard-" + shard, shard);
+    }
+    this.scope = scope;
+    this.shardCount = shardCount;
+    this.virtualNodes = virtualNodes;
+    this.ring = new ConsistentHashRing<>(shards, virtualNodes);
+  }
+
+  /**
+   * @return a single shard owning every session, as used when chat is not sharded
+   */
+  public static SessionShards single() {
+    return new SessionShards(1, 1);
+  }
+
+  /** @return the id of the clustered worker node owning the shards, or {@code null} when standalone */
+  public String scope() {
+    return scope;
+  }
+
+  /** @return the number of ring points per shard */
+  public int virtualNodes() {
+    return virtualNodes;
+  }
+
+  /** @return the number of shards */
+  public int shardCount() {
+    return shardCount;
+  }
+
+  /**
+   * @param sessionId the chat session
+   * @return the shard owning the session
+   */
+  public int shardOf(String sessionId) {
+    return shardCount == 1 ? 0 : ring.memberFor(sessionId);
+  }
+
+  /**
+   * @param baseAddress one of the {@code OPENAI_CLIENT_*} or {@code OPENAI_CANCEL_*} event bus addresses
+   * @param shard       the shard
+   * @return the address the shard listens on
+   */
+  public String address(String baseAddress, int shard) {
+    String scoped = scope == null ? baseAddress : baseAddress + "." + scope;
+    return shardCount == 1 ? scoped : scoped + "." + shard;
+  }
+
+  @Override
+  public String addressFor(String baseAddress, String sessionId) {
+    return address(baseAddress, shardOf(sessionId));
+  }
+}
@@ -5,6 +5,7 @@ import com.mongodb.client.model.Filters;
 import org.bson.BsonDocument;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.MessageDigest;
@@ -16,8 +17,22 @@ import java.security.NoSuchAlgorithmException;
  */
 public class DocumentHashUtil {
 
+  private static final String HASH_ALGORITHM = "SHA-256";
+  private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * Creates a new digest for the algorithm used to identify document contents.
+   *
+   * @return a fresh SHA-256 {@link MessageDigest}
+   * @throws NoSuchAlgorithmException if SHA-256 is not supported on the system
+   */
+  public static MessageDigest newDigest() throws NoSuchAlgorithmException {
+    return MessageDigest.getInstance(HASH_ALGORITHM);
+  }
+
   /**
    * Computes the SHA-256 hash of the contents of a file.
+   * The file is read in fixed-size chunks, so large documents are never loaded onto the heap at once.
    *
    * @param filePath the path to the file
    * @return a hexadecimal string representing the SHA-256 hash
@@ -25,10 +40,15 @@ public class DocumentHashUtil {
    * @throws NoSuchAlgorithmException if SHA-256 is not supported on the system
    */
   public static String computeFileHash(Path filePath) throws IOException, NoSuchAlgorithmException {
-    byte[] fileBytes = Files.readAllBytes(filePath);
-    MessageDigest digest = MessageDigest.getInstance("SHA-256");
-    byte[] hashBytes = digest.digest(fileBytes);
-    return bytesToHex(hashBytes);
+    MessageDigest digest = newDigest();
+    byte[] buffer = new byte[READ_BUFFER_SIZE];
+    try (InputStream in = Files.newInputStream(filePath)) {
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        digest.update(buffer, 0, read);
+      }
+    }
+    return bytesToHex(digest.digest());
   }
 
   /**
@@ -37,7 +57,7 @@ public class DocumentHashUtil {
    * @param bytes the byte array to convert
    * @return a string of hexadecimal digits
    */
-  private static String bytesToHex(byte[] bytes) {
+  static String bytesToHex(byte[] bytes) {
     StringBuilder sb = new StringBuilder();
     for (byte b : bytes) {
       sb.append(String.format("%02x", b));
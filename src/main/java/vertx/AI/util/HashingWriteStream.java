@@ -0,0 +1,90 @@
+package vertx.AI.util;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.WriteStream;
+
+import java.security.MessageDigest;
+
+/**
+ * A {@link WriteStream} decorator that feeds every written buffer into a {@link MessageDigest}
+ * before handing it to the underlying stream.
+ * <p>
+ * Used to compute the content hash of an upload while it is being written to disk, so the file
+ * never needs to be read a second time just to hash it. Backpressure is delegated unchanged.
+ * Each buffer is hashed from a copy of its bytes, which for upload chunks of a few kilobytes costs far less than
+ * the digest itself.
+ */
+public class HashingWriteStream implements WriteStream<Buffer> {
+
+  private final WriteStream<Buffer> delegate;
+  private final MessageDigest digest;
+
+  /**
+   * Constructs a hashing stream around the given destination.
+   *
+   * @param delegate the stream receiving the actual bytes (e.g. an {@code AsyncFile})
+   * @param digest   the digest updated with every written buffer
+   */
+  public HashingWriteStream(WriteStream<Buffer> delegate, MessageDigest digest) {
+    this.delegate = delegate;
+    this.digest = digest;
+  }
+
+  /**
+   * Completes the digest and returns it as a hexadecimal string.
+   * Should only be called once the stream has been ended.
+   *
+   * @return the hexadecimal digest of everything written to this stream
+   */
+  public String hexDigest() {
+    return DocumentHashUtil.bytesToHex(digest.digest());
+  }
+
+  @Override
+  public HashingWriteStream exceptionHandler(Handler<Throwable> handler) {
+    delegate.exceptionHandler(handler);
+    return this;
+  }
+
+  @Override
+  public Future<Void> write(Buffer data) {
+    digest.update(data.getBytes());
+    return delegate.write(data);
+  }
+
+  @Override
+  public void write(Buffer data, Handler<AsyncResult<Void>> handler) {
+    digest.update(data.getBytes());
+    delegate.write(data, handler);
+  }
+
+  @Override
+  public Future<Void> end() {
+    return delegate.end();
+  }
+
+  @Override
+  public void end(Handler<AsyncResult<Void>> handler) {
+    delegate.end(handler);
+  }
+
+  @Override
+  public HashingWriteStream setWriteQueueMaxSize(int maxSize) {
+    delegate.setWriteQueueMaxSize(maxSize);
+    return this;
+  }
+
+  @Override
+  public boolean writeQueueFull() {
+    return delegate.writeQueueFull();
+  }
+
+  @Override
+  public HashingWriteStream drainHandler(Handler<Void> handler) {
+    delegate.drainHandler(handler);
+    return this;
+  }
+}
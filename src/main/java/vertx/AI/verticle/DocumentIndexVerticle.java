@@ -79,10 +79,11 @@ public class DocumentIndexVerticle extends AbstractVerticle {
       })
       .onSuccess(v -> {
         logger.info("Documents indexed successfully.");
-        vertx.eventBus().consumer(EventBusAddresses.RAG_INDEX, message -> {
-          String newFilePath = (String) message.body();
+        vertx.eventBus().<JsonObject>consumer(EventBusAddresses.RAG_INDEX, message -> {
+          String newFilePath = message.body().getString("filePath");
+          String contentHash = message.body().getString("contentHash");
           logger.info("New document uploaded. Re-indexing: {}", newFilePath);
-          fileService.indexFileIfNotIndexed(newFilePath, embeddingStoreIngestor)
+          fileService.indexFileIfNotIndexed(newFilePath, contentHash, embeddingStoreIngestor)
             .onSuccess(r -> logger.info("Re-indexed document successfully: {}", newFilePath))
             .onFailure(err -> logger.error("Failed to re-index document: {}", newFilePath, err));
         });
@@ -1,9 +1,14 @@
 package vertx.AI.verticle;
 
 import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Future;
 import io.vertx.core.Promise;
 import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
@@ -11,35 +16,69 @@ import io.vertx.ext.web.handler.BodyHandler;
 import vertx.AI.config.OpenAIConfigDefaults;
 import vertx.AI.dto.ErrorResponse;
 import vertx.AI.constants.EventBusAddresses;
+import vertx.AI.http.AdmissionController;
+import vertx.AI.http.AdmissionHandler;
+import vertx.AI.http.SseMetrics;
+import vertx.AI.http.SseWriter;
+import vertx.AI.http.WebSocketChatSession;
+import vertx.AI.metrics.MetricsRegistry;
 import vertx.AI.service.FileServiceInterface;
+import vertx.AI.session.SessionRouter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * {@code HttpServerVerticle} sets up and runs the HTTP server exposing endpoints for:
  * <ul>
  *   <li>Non-streaming chat requests at <b>/chat</b></li>
  *   <li>Streaming chat using Server-Sent Events at <b>/chat/stream</b></li>
+ *   <li>Batched non-streaming chat with NDJSON results at <b>/chat/batch</b></li>
+ *   <li>Multi-turn streaming chat over a WebSocket bound to one session at <b>/chat/ws</b></li>
  *   <li>File upload for document indexing at <b>/upload</b></li>
+ *   <li>Runtime metrics at <b>GET /metrics</b></li>
  * </ul>
  * <p>
  * This verticle handles routing logic and delegates file handling to {@link FileServiceInterface}.
+ * Body handling is scoped per route: chat routes read a small, size-limited JSON body into memory,
+ * while uploads are streamed part by part into a staging directory and never buffered on the heap.
+ * The chat, streaming chat and upload routes sit behind per-route admission control that sheds load with a
+ * fast {@code 503} once their in-flight limit and wait queue are exhausted.
  */
 public class HttpServerVerticle extends AbstractVerticle {
 
   private static final Logger logger = LoggerFactory.getLogger(HttpServerVerticle.class);
   private String documentsDirectory;
+  private String uploadsStagingDirectory;
+  private long sseFlushIntervalMs;
+  private int sseMaxFrameSize;
+  private SseMetrics sseMetrics;
+  private int batchMaxConcurrency;
+  private int batchMaxItems;
+  private int maxSessionIdLength;
   private final FileServiceInterface fileService;
+  private final MetricsRegistry metricsRegistry;
+  private final SessionRouter sessionRouter;
 
   /**
    * Constructs the HTTP server verticle with the given file service.
    *
-   * @param fileService service responsible for file handling and indexing
+   * @param fileService     service responsible for file handling and indexing
+   * @param metricsRegistry registry shared by all verticles for exporting metrics
+   * @param sessionRouter   resolves the OpenAIVerticle owning a session, locally or on a clustered worker node
    */
-  public HttpServerVerticle(FileServiceInterface fileService) {
+  public HttpServerVerticle(FileServiceInterface fileService, MetricsRegistry metricsRegistry,
+                            SessionRouter sessionRouter) {
     this.fileService = fileService;
+    this.metricsRegistry = metricsRegistry;
+    this.sessionRouter = sessionRouter;
   }
 
   /**
@@ -59,7 +98,29 @@ public class HttpServerVerticle extends AbstractVerticle {
       documentsDirectory = "documents/";
     }
 
-    startHttpServer(config, startPromise);
+    uploadsStagingDirectory = config.getString("uploadsStagingDirectory", OpenAIConfigDefaults.UPLOADS_STAGING_DIRECTORY);
+    if (uploadsStagingDirectory.isEmpty()) {
+      logger.warn("Uploads staging directory is empty in config.json. Using default: {}", OpenAIConfigDefaults.UPLOADS_STAGING_DIRECTORY);
+      uploadsStagingDirectory = OpenAIConfigDefaults.UPLOADS_STAGING_DIRECTORY;
+    }
+
+    JsonObject sseConfig = config.getJsonObject("sse", new JsonObject());
+    sseFlushIntervalMs = sseConfig.getLong("flushIntervalMs", OpenAIConfigDefaults.SSE_FLUSH_INTERVAL_MS);
+    sseMaxFrameSize = sseConfig.getInteger("maxFrameSize", OpenAIConfigDefaults.SSE_MAX_FRAME_SIZE);
+    sseMetrics = metricsRegistry.getOrCreate("sse", SseMetrics::new);
+
+    JsonObject batchConfig = config.getJsonObject("batch", new JsonObject());
+    batchMaxConcurrency = batchConfig.getInteger("maxConcurrency", OpenAIConfigDefaults.BATCH_MAX_CONCURRENCY);
+    batchMaxItems = batchConfig.getInteger("maxItems", OpenAIConfigDefaults.BATCH_MAX_ITEMS);
+
+    maxSessionIdLength = config.getInteger("maxSessionIdLength", OpenAIConfigDefaults.MAX_SESSION_ID_LENGTH);
+
+    vertx.fileSystem().mkdirs(uploadsStagingDirectory)
+      .onSuccess(v -> startHttpServer(config, startPromise))
+      .onFailure(err -> {
+        logger.error("Failed to create uploads staging directory: {}", uploadsStagingDirectory, err);
+        startPromise.fail(err);
+      });
   }
 
   /**
@@ -70,11 +131,31 @@ public class HttpServerVerticle extends AbstractVerticle {
    */
   private void startHttpServer(JsonObject config, Promise<Void> startPromise) {
     Router router = Router.router(vertx);
-    router.route().handler(BodyHandler.create().setUploadsDirectory(documentsDirectory));
 
-    router.post("/chat").handler(this::handleNonStreamingChatRequest);
-    router.post("/chat/stream").handler(this::handleStreamingChatRequest);
-    router.post("/upload").handler(this::handleFileUpload);
+    // Chat bodies are small JSON documents, so keep them in memory and skip the multipart/upload machinery
+    long maxChatBodySize = config.getLong("maxChatBodySize", OpenAIConfigDefaults.MAX_CHAT_BODY_SIZE);
+    BodyHandler chatBodyHandler = BodyHandler.create(false).setBodyLimit(maxChatBodySize);
+    long maxBatchBodySize = config.getJsonObject("batch", new JsonObject())
+      .getLong("maxBodySize", OpenAIConfigDefaults.BATCH_MAX_BODY_SIZE);
+    BodyHandler batchBodyHandler = BodyHandler.create(false).setBodyLimit(maxBatchBodySize);
+
+    JsonObject admissionConfig = config.getJsonObject("admission", new JsonObject());
+    long retryAfterSeconds = admissionConfig.getLong("retryAfterSeconds", OpenAIConfigDefaults.ADMISSION_RETRY_AFTER_SECONDS);
+
+    router.post("/chat")
+      .handler(createAdmissionHandler("chat", admissionConfig, retryAfterSeconds))
+      .handler(chatBodyHandler)
+      .handler(this::handleNonStreamingChatRequest);
+    router.post("/chat/stream")
+      .handler(createAdmissionHandler("chatStream", admissionConfig, retryAfterSeconds))
+      .handler(chatBodyHandler)
+      .handler(this::handleStreamingChatRequest);
+    router.post("/chat/batch").handler(batchBodyHandler).handler(this::handleBatchChatRequest);
+    router.get("/chat/ws").handler(this::handleWebSocketChat);
+    router.post("/upload")
+      .handler(createAdmissionHandler("upload", admissionConfig, retryAfterSeconds))
+      .handler(this::handleFileUpload);
+    router.get("/metrics").handler(this::handleMetricsRequest);
 
     vertx.createHttpServer()
       .requestHandler(router)
@@ -89,6 +170,26 @@ public class HttpServerVerticle extends AbstractVerticle {
       });
   }
 
+  /**
+   * Creates the admission handler for a route. The underlying {@link AdmissionController} is registered in the
+   * shared {@link MetricsRegistry}, so all verticle instances enforce one node-wide limit per route.
+   *
+   * @param routeName         the route key in the {@code admission} config section
+   * @param admissionConfig   the {@code admission} config section
+   * @param retryAfterSeconds the {@code Retry-After} value for rejected requests
+   * @return the admission handler for the route
+   */
+  private AdmissionHandler createAdmissionHandler(String routeName, JsonObject admissionConfig, long retryAfterSeconds) {
+    JsonObject routeConfig = admissionConfig.getJsonObject(routeName, new JsonObject());
+    AdmissionController controller = metricsRegistry.getOrCreate("admission." + routeName, () -> new AdmissionController(
+      vertx,
+      routeConfig.getInteger("maxInFlight", OpenAIConfigDefaults.ADMISSION_MAX_IN_FLIGHT),
+      routeConfig.getInteger("maxQueue", OpenAIConfigDefaults.ADMISSION_MAX_QUEUE),
+      routeConfig.getLong("maxWaitMs", OpenAIConfigDefaults.ADMISSION_MAX_WAIT_MS)
+    ));
+    return new AdmissionHandler(routeName, controller, retryAfterSeconds);
+  }
+
   /**
    * Handles non-streaming chat requests by forwarding them to the OpenAI event bus endpoint
    * and returning the full response as a JSON object.
@@ -108,13 +209,16 @@ public class HttpServerVerticle extends AbstractVerticle {
     String sessionId = request.getString("sessionId");
     if (sessionId == null || sessionId.isEmpty()) {
       sessionId = UUID.randomUUID().toString();
+    } else if (sessionId.length() > maxSessionIdLength) {
+      rejectSessionId(context);
+      return;
     }
 
     request.put("sessionId", sessionId);
 
     logger.info("Received non-streaming chat request for session: {}", sessionId);
 
-    vertx.eventBus().request(EventBusAddresses.OPENAI_CLIENT_NON_STREAMING, request)
+    vertx.eventBus().request(sessionRouter.addressFor(EventBusAddresses.OPENAI_CLIENT_NON_STREAMING, sessionId), request)
       .onSuccess(reply -> {
         JsonObject result = (JsonObject) reply.body();
         context.response()
@@ -122,6 +226,13 @@ public class HttpServerVerticle extends AbstractVerticle {
           .end(result.encode());
       })
       .onFailure(err -> {
+        if (isSessionBusy(err)) {
+          logger.warn("Rejected non-streaming chat request for busy session: {}", err.getMessage());
+          context.response()
+            .setStatusCode(429)
+            .end(ErrorResponse.createErrorResponse(429, "Too many pending requests for this session").encode());
+          return;
+        }
         logger.error("Failed to process non-streaming chat request", err);
         context.response()
           .setStatusCode(500)
@@ -132,7 +243,9 @@ public class HttpServerVerticle extends AbstractVerticle {
 
   /**
    * Handles streaming chat requests using Server-Sent Events (SSE).
-   * Sets up a message consumer on the event bus to stream tokens as they arrive.
+   * Sets up a message consumer on the stream's own event bus address to stream tokens as they arrive.
+   * If the client disconnects or the request fails before the stream ends, the turn is cancelled, whether it is
+   * already generating or still waiting behind an earlier turn of its session.
    */
   private void handleStreamingChatRequest(RoutingContext context) {
     JsonObject request = context.body().asJsonObject();
@@ -152,9 +265,14 @@ public class HttpServerVerticle extends AbstractVerticle {
     String sessionId = request.getString("sessionId");
     if (sessionId == null || sessionId.isEmpty()) {
       sessionId = UUID.randomUUID().toString();
+    } else if (sessionId.length() > maxSessionIdLength) {
+      rejectSessionId(context);
+      return;
     }
 
-    request.put("sessionId", sessionId);
+    // Identifies this stream so a disconnect can abort it upstream
+    String streamId = UUID.randomUUID().toString();
+    request.put("sessionId", sessionId).put("streamId", streamId);
 
     // Prepare an HTTP response as a Server-Sent Events (SSE) stream
     HttpServerResponse response = context.response();
@@ -164,62 +282,363 @@ public class HttpServerVerticle extends AbstractVerticle {
     response.putHeader("Connection", "keep-alive");
 
     String finalSessionId = sessionId;
-    MessageConsumer<JsonObject> consumer = vertx.eventBus().consumer(EventBusAddresses.OPENAI_RESPONSE_STREAMING + sessionId);
+    MessageConsumer<Object> consumer = vertx.eventBus()
+      .consumer(EventBusAddresses.responseStreamingAddress(sessionId, streamId));
+    SseWriter sseWriter = new SseWriter(vertx, response, sseFlushIntervalMs, sseMaxFrameSize, sseMetrics);
 
     consumer.handler(msg -> {
-      JsonObject chunk = msg.body();
+      Object chunk = msg.body();
 
-      // Send tokenized response chunks to the client
-      if (chunk.containsKey("token")) {
-        response.write("data: " + chunk.encode() + "\n\n");
+      // Send tokenized response chunks to the client, coalesced per flush window
+      if (chunk instanceof String token) {
+        sseWriter.writeToken(token);
 
         // End the connection when streaming is finished
-      } else if (chunk.containsKey("end")) {
+      } else if (chunk instanceof JsonObject control && control.containsKey("end")) {
         logger.info("Streaming finished for session: {}", finalSessionId);
 
-        if (!response.ended()) {
-          response.end();
-        }
+        sseWriter.end();
         consumer.unregister();
       }
     });
 
-    // Send request to OpenAIVerticle for processing
-    vertx.eventBus().request(EventBusAddresses.OPENAI_CLIENT_STREAMING, request)
+    // Send the request only once the consumer is registered, so that no token is missed on a clustered event bus
+    Promise<Void> registered = Promise.promise();
+    consumer.completionHandler(registered);
+    registered.future()
+      .compose(v -> vertx.eventBus().request(
+        sessionRouter.addressFor(EventBusAddresses.OPENAI_CLIENT_STREAMING, finalSessionId), request))
       .onFailure(err -> {
+        sseWriter.close();
+        consumer.unregister();
+        if (isSessionBusy(err)) {
+          logger.warn("Rejected streaming chat request for busy session: {}", err.getMessage());
+          if (!response.ended() && !response.headWritten()) {
+            response.setStatusCode(429).end(new JsonObject().put("error", "Too many pending requests for this session").encode());
+          }
+          return;
+        }
         logger.error("Failed to send request to OpenAIVerticle", err);
+        // The turn may have been queued even though its reply was lost, so it is cancelled rather than left to run
+        cancelStream(finalSessionId, streamId);
         if (!response.ended()) {
           response.setStatusCode(500).end(new JsonObject().put("error", "Internal server error").encode());
         }
-        consumer.unregister();
       });
 
-    // Handle client disconnection
+    // Handle client disconnection: stop listening and abort the generation nobody will read, whether it is
+    // streaming or still queued behind an earlier turn of the session
     context.request().connection().closeHandler(v -> {
       logger.info("Client disconnected, cleaning up session {}", finalSessionId);
+      sseWriter.close();
       consumer.unregister();
+      if (!response.ended()) {
+        cancelStream(finalSessionId, streamId);
+      }
     });
   }
 
   /**
-   * Handles file uploads by moving uploaded files to the documents directory
-   * and triggering document indexing through the event bus.
+   * Asks the chat verticle owning the session to abort a stream, queued or running.
    */
-  private void handleFileUpload(RoutingContext context) {
-    context.fileUploads().forEach(file -> {
-      String destination = documentsDirectory + file.fileName();
-      fileService.uploadFile(file.uploadedFileName(), destination, EventBusAddresses.RAG_INDEX)
-        .onSuccess(v -> {
-        logger.info("File uploaded: {}", file.fileName());
-        context.response().setStatusCode(200).end("File uploaded: " + file.fileName());
+  private void cancelStream(String sessionId, String streamId) {
+    vertx.eventBus().send(sessionRouter.addressFor(EventBusAddresses.OPENAI_CANCEL_STREAMING, sessionId), new JsonObject()
+      .put("streamId", streamId)
+      .put("sessionId", sessionId));
+  }
+
+  /**
+   * Upgrades the request to a WebSocket bound to a single chat session for all of its turns.
+   * The session is taken from the {@code sessionId} query parameter or generated when absent.
+   */
+  private void handleWebSocketChat(RoutingContext context) {
+    String requestedSessionId = context.request().getParam("sessionId");
+    if (requestedSessionId != null && requestedSessionId.length() > maxSessionIdLength) {
+      rejectSessionId(context);
+      return;
+    }
+    String sessionId = requestedSessionId == null || requestedSessionId.isEmpty()
+      ? UUID.randomUUID().toString()
+      : requestedSessionId;
+
+    context.request().toWebSocket()
+      .onSuccess(webSocket -> {
+        logger.info("WebSocket chat connected for session: {}", sessionId);
+        new WebSocketChatSession(vertx, webSocket, sessionId, sessionRouter);
       })
+      .onFailure(err -> {
+        logger.error("Failed to upgrade WebSocket chat request", err);
+        if (!context.response().ended()) {
+          context.response()
+            .setStatusCode(400)
+            .end(ErrorResponse.createErrorResponse(400, "WebSocket upgrade failed").encode());
+        }
+      });
+  }
+
+  /**
+   * Handles batched chat requests. The body is a JSON array of {@code {message, sessionId}} items which are
+   * forwarded to the non-streaming OpenAI endpoint with at most {@code batch.maxConcurrency} items in flight.
+   * Each result is written as one NDJSON line as soon as it completes, in completion order, tagged with the
+   * item's index in the request array.
+   */
+  private void handleBatchChatRequest(RoutingContext context) {
+    JsonArray items;
+    try {
+      items = context.body().asJsonArray();
+    } catch (DecodeException | ClassCastException e) {
+      items = null;
+    }
+
+    if (items == null || items.isEmpty()) {
+      logger.warn("[Batch] Received empty or invalid batch in HTTP request.");
+      context.response()
+        .setStatusCode(400)
+        .end(ErrorResponse.createErrorResponse(400, "Batch must be a non-empty JSON array").encode());
+      return;
+    }
+
+    if (items.size() > batchMaxItems) {
+      logger.warn("[Batch] Rejected batch of {} items (limit {}).", items.size(), batchMaxItems);
+      context.response()
+        .setStatusCode(413)
+        .end(ErrorResponse.createErrorResponse(413, "Batch cannot contain more than " + batchMaxItems + " items").encode());
+      return;
+    }
+
+    logger.info("Received batch chat request with {} items", items.size());
+
+    HttpServerResponse response = context.response();
+    response.setChunked(true);
+    response.putHeader("Content-Type", "application/x-ndjson");
+
+    BatchState batch = new BatchState(items);
+    response.closeHandler(v -> batch.cancelled = true);
+
+    dispatchBatchItems(batch, response);
+  }
+
+  /**
+   * Starts batch items until the concurrency cap is reached, the batch is exhausted or the client
+   * stops reading. Invalid items are answered inline without being dispatched.
+   */
+  private void dispatchBatchItems(BatchState batch, HttpServerResponse response) {
+    while (!batch.cancelled && batch.inFlight < batchMaxConcurrency && batch.next < batch.items.size()) {
+      if (response.writeQueueFull()) {
+        response.drainHandler(v -> dispatchBatchItems(batch, response));
+        return;
+      }
+
+      int index = batch.next++;
+      Object item = batch.items.getValue(index);
+      String userMessage = item instanceof JsonObject ? ((JsonObject) item).getString("message") : null;
+
+      if (userMessage == null || userMessage.trim().isEmpty()) {
+        writeBatchResult(batch, response, new JsonObject()
+          .put("index", index)
+          .put("status", 400)
+          .put("error", "Message cannot be empty"));
+        continue;
+      }
+
+      String sessionId = ((JsonObject) item).getString("sessionId");
+      if (sessionId == null || sessionId.isEmpty()) {
+        sessionId = UUID.randomUUID().toString();
+      } else if (sessionId.length() > maxSessionIdLength) {
+        writeBatchResult(batch, response, new JsonObject()
+          .put("index", index)
+          .put("status", 400)
+          .put("error", sessionIdTooLong()));
+        continue;
+      }
+
+      JsonObject request = new JsonObject()
+        .put("message", userMessage)
+        .put("sessionId", sessionId);
+
+      String finalSessionId = sessionId;
+      batch.inFlight++;
+
+      vertx.eventBus().request(sessionRouter.addressFor(EventBusAddresses.OPENAI_CLIENT_NON_STREAMING, sessionId), request)
+        .onComplete(ar -> {
+          batch.inFlight--;
+
+          JsonObject result = new JsonObject()
+            .put("index", index)
+            .put("sessionId", finalSessionId);
+
+          if (ar.succeeded()) {
+            JsonObject reply = (JsonObject) ar.result().body();
+            result.put("status", 200).put("response", reply.getString("response"));
+          } else {
+            logger.error("[Batch] Failed to process item {}", index, ar.cause());
+            int status = ar.cause() instanceof ReplyException replyException && replyException.failureCode() > 0
+              ? replyException.failureCode()
+              : 500;
+            result.put("status", status).put("error", "Failed to process request");
+          }
+
+          writeBatchResult(batch, response, result);
+          dispatchBatchItems(batch, response);
+        });
+    }
+  }
+
+  /**
+   * Writes one NDJSON result line and ends the response once every item has been answered.
+   */
+  private void writeBatchResult(BatchState batch, HttpServerResponse response, JsonObject result) {
+    batch.completed++;
+    if (batch.cancelled || response.ended()) {
+      return;
+    }
+
+    response.write(result.encode() + "\n");
+
+    if (batch.completed == batch.items.size()) {
+      logger.info("Batch chat request completed ({} items)", batch.completed);
+      response.end();
+    }
+  }
+
+  /**
+   * Progress of a single batch request. Only accessed from the event loop handling the request.
+   */
+  private static final class BatchState {
+    private final JsonArray items;
+    private int next;
+    private int inFlight;
+    private int completed;
+    private boolean cancelled;
+
+    private BatchState(JsonArray items) {
+      this.items = items;
+    }
+  }
+
+  /**
+   * Returns a JSON snapshot of all metrics registered in the shared {@link MetricsRegistry}.
+   */
+  private void handleMetricsRequest(RoutingContext context) {
+    context.response()
+      .putHeader("Content-Type", "application/json")
+      .end(metricsRegistry.snapshot().encode());
+  }
+
+  /**
+   * Handles multipart file uploads by streaming each part into the staging directory as it arrives
+   * (hashing it on the way), then moving the staged file into the documents directory and triggering indexing through the event bus.
+   * The response is sent once the request has been fully read and every part has been handled. A part whose file
+   * name does not name a file, such as an empty name, {@code /} or {@code ..}, is discarded and fails the request
+   * with {@code 400}.
+   */
+  private void handleFileUpload(RoutingContext context) {
+    HttpServerRequest request = context.request();
+    List<Future<String>> uploads = new ArrayList<>();
+    List<String> invalidFileNames = new ArrayList<>();
+
+    request.setExpectMultipart(true);
+
+    request.uploadHandler(upload -> {
+      String fileName = storedFileName(upload.filename());
+      if (fileName == null) {
+        logger.warn("Discarding upload with invalid file name: {}", upload.filename());
+        invalidFileNames.add(upload.filename());
+        return;
+      }
+      String stagedFile = uploadsStagingDirectory + UUID.randomUUID();
+      String destination = documentsDirectory + fileName;
+
+      uploads.add(fileService.stageUpload(upload, stagedFile)
+        .compose(hash -> fileService.uploadFile(stagedFile, destination, hash, EventBusAddresses.RAG_INDEX))
+        .map(fileName));
+    });
+
+    request.exceptionHandler(err -> {
+      logger.error("Failed to read upload request", err);
+      if (!context.response().ended()) {
+        context.response()
+          .setStatusCode(500)
+          .end(ErrorResponse.createErrorResponse(500, "Failed to upload file").encode());
+      }
+    });
+
+    request.endHandler(v -> {
+      if (!invalidFileNames.isEmpty()) {
+        context.response()
+          .setStatusCode(400)
+          .end(ErrorResponse.createErrorResponse(400, "Invalid file name").encode());
+        return;
+      }
+      if (uploads.isEmpty()) {
+        logger.warn("Received upload request without files.");
+        context.response()
+          .setStatusCode(400)
+          .end(ErrorResponse.createErrorResponse(400, "No file uploaded").encode());
+        return;
+      }
+
+      Future.all(uploads)
+        .onSuccess(result -> {
+          String fileNames = result.<String>list().stream().collect(Collectors.joining(", "));
+          logger.info("File uploaded: {}", fileNames);
+          context.response().setStatusCode(200).end("File uploaded: " + fileNames);
+        })
         .onFailure(err -> {
           logger.error("Failed to upload file: ", err);
-          context.response()
-            .setStatusCode(500)
-            .end(ErrorResponse.createErrorResponse(500, "Failed to upload file").encode());
+          if (!context.response().ended()) {
+            context.response()
+              .setStatusCode(500)
+              .end(ErrorResponse.createErrorResponse(500, "Failed to upload file").encode());
+          }
         });
     });
+
+    request.resume();
+  }
+
+  /**
+   * Reduces a client-supplied file name to its last path element, so that an upload cannot be written outside the
+   * documents directory.
+   *
+   * @param fileName the file name of a multipart part
+   * @return the name to store the file under, or {@code null} if it does not name a file
+   */
+  private static String storedFileName(String fileName) {
+    if (fileName == null || fileName.isBlank()) {
+      return null;
+    }
+    Path name;
+    try {
+      name = Paths.get(fileName).getFileName();
+    } catch (InvalidPathException e) {
+      return null;
+    }
+    if (name == null || name.toString().equals(".") || name.toString().equals("..")) {
+      return null;
+    }
+    return name.toString();
   }
 
+  /**
+   * Answers a request whose session id is longer than {@code maxSessionIdLength}. Session ids are used as event
+   * bus addresses and persisted with every turn, so they are bounded before reaching the chat verticles.
+   */
+  private void rejectSessionId(RoutingContext context) {
+    logger.warn("Rejected chat request with a session id longer than {} characters", maxSessionIdLength);
+    context.response()
+      .setStatusCode(400)
+      .end(ErrorResponse.createErrorResponse(400, sessionIdTooLong()).encode());
+  }
+
+  private String sessionIdTooLong() {
+    return "Session id cannot be longer than " + maxSessionIdLength + " characters";
+  }
+
+  /**
+   * @return whether a chat request failed because its session already had too many turns waiting
+   */
+  private static boolean isSessionBusy(Throwable err) {
+    return err instanceof ReplyException replyException && replyException.failureCode() == 429;
+  }
 }
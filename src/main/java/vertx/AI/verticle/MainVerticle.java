@@ -4,19 +4,48 @@ import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import dev.langchain4j.model.openai.OpenAiChatModelName;
+import dev.langchain4j.model.openai.OpenAiTokenizer;
 import dev.langchain4j.store.embedding.mongodb.MongoDbEmbeddingStore;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
 import io.vertx.core.Promise;
+import io.vertx.core.json.JsonObject;
+import vertx.AI.cluster.ClusterSessionRouter;
+import vertx.AI.cluster.NodeRole;
+import vertx.AI.cluster.WorkerAnnouncer;
 import vertx.AI.config.ConfigService;
+import vertx.AI.config.OpenAIConfigDefaults;
+import vertx.AI.config.QueryTransformConfig;
+import vertx.AI.execution.BlockingExecutor;
+import vertx.AI.execution.ExecutionMode;
+import vertx.AI.llm.AdaptiveConcurrencyLimiter;
+import vertx.AI.llm.EmbeddingBatchMetrics;
+import vertx.AI.memory.MappedLogChatMemoryStore;
+import vertx.AI.memory.SessionMemoryStore;
+import vertx.AI.metrics.MetricsRegistry;
+import vertx.AI.rag.CorpusTermStatistics;
+import vertx.AI.rag.QueryExpansionMode;
+import vertx.AI.rag.QueryTransformMetrics;
+import vertx.AI.rag.TermTokenizer;
 import vertx.AI.service.FileServiceInterface;
 import vertx.AI.service.OpenAIServiceInterface;
 import vertx.AI.service.impl.FileService;
 import vertx.AI.service.impl.OpenAIService;
+import vertx.AI.session.SessionRouter;
+import vertx.AI.session.SessionShards;
 import org.bson.BsonDocument;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
 /**
  * MainVerticle is the core bootstrap verticle responsible for initializing
  * all essential components of the RAG application.
@@ -24,23 +53,45 @@ import org.slf4j.LoggerFactory;
  * <p>On startup, it performs the following steps:
  * <ol>
  *   <li>Loads application configuration using {@link ConfigService}</li>
+ *   <li>Creates one {@link BlockingExecutor} per pipeline stage (chat, retrieval, ingestion, file I/O) in the configured
+ *   {@link ExecutionMode}, each with its own threads, queue limit and metrics</li>
+ *   <li>Splits the chat sessions into {@code chatShards.instances} shards by consistent hashing
+ *   ({@link SessionShards}) and creates one bounded {@link SessionMemoryStore} per shard, each with its share of
+ *   the session and token limits, backed by a shared {@link MappedLogChatMemoryStore} when persistence is enabled,
+ *   and schedules their expiry sweep</li>
  *   <li>Initializes a {@link MongoDbEmbeddingStore} for vector-based retrieval</li>
  *   <li>Sets up the {@link FileService} for handling document ingestion and indexing</li>
- *   <li>Sets up the {@link OpenAIService} for integrating with OpenAI's chat and embedding APIs</li>
+ *   <li>Sets up the {@link OpenAIService} for integrating with OpenAI's chat and embedding APIs,
+ *   with all upstream chat calls going through a shared {@link AdaptiveConcurrencyLimiter}, the query embeddings of
+ *   concurrent turns batched into shared calls as configured by {@code embeddingModel.batch}, and queries rewritten
+ *   before retrieval as configured by {@code queryTransform}; with local expansion, the {@link CorpusTermStatistics}
+ *   the variants are drawn from are gathered by the {@link FileService} while indexing</li>
  *   <li>Deploys the following dependent verticles:
  *     <ul>
  *       <li>{@link DocumentIndexVerticle} - handles initial and dynamic document ingestion</li>
- *       <li>{@link OpenAIVerticle} - manages OpenAI chat interaction (streaming and non-streaming)</li>
- *       <li>{@link HttpServerVerticle} - exposes the REST endpoints for document upload and chat</li>
+ *       <li>{@link OpenAIVerticle} - manages OpenAI chat interaction (streaming and non-streaming),
+ *       deployed once per shard (one per core by default) on the shard's own event bus addresses</li>
+ *       <li>{@link HttpServerVerticle} - exposes the REST endpoints for document upload and chat,
+ *       deployed as {@code httpServerInstances} instances (one per core by default) sharing the same port</li>
  *     </ul>
  *   </li>
  * </ol>
  *
+ * <p>On a clustered Vert.x instance the node only deploys the verticles of its {@link NodeRole}: {@code http}
+ * nodes run the HTTP servers and route each session to its owning worker through a {@link ClusterSessionRouter},
+ * {@code worker} nodes run the chat and ingestion verticles and announce their shards with a
+ * {@link WorkerAnnouncer}, and {@code all} nodes do both.
+ *
  * <p>If any step fails (configuration, MongoDB setup, verticle deployment), it logs the error and fails the startup promise.
  */
 public class MainVerticle extends AbstractVerticle {
 
   private static final Logger logger = LoggerFactory.getLogger(MainVerticle.class);
+  private final List<BlockingExecutor> blockingExecutors = new ArrayList<>();
+  private volatile MappedLogChatMemoryStore chatMemoryLog;
+  private WorkerAnnouncer workerAnnouncer;
+  private ClusterSessionRouter clusterRouter;
+  private volatile TermTokenizer termTokenizer;
 
   /**
    * Starts the Verticle. Initializes services, MongoDB embedding store,
@@ -54,6 +105,59 @@ public class MainVerticle extends AbstractVerticle {
 
     new ConfigService(vertx).getConfig().onSuccess(config -> {
       DeploymentOptions options = new DeploymentOptions().setConfig(config);
+      MetricsRegistry metricsRegistry = new MetricsRegistry();
+
+      JsonObject executionConfig = config.getJsonObject("execution", new JsonObject());
+      ExecutionMode executionMode;
+      try {
+        executionMode = ExecutionMode.fromConfig(executionConfig.getString("mode", OpenAIConfigDefaults.EXECUTION_MODE));
+      } catch (IllegalArgumentException e) {
+        logger.error("Invalid execution mode in configuration", e);
+        startPromise.fail(e);
+        return;
+      }
+      logger.info("Running blocking sections in '{}' execution mode", executionMode.configName());
+
+      BlockingExecutor chatExecutor = createExecutor(executionConfig, executionMode, "chat",
+        OpenAIConfigDefaults.CHAT_EXECUTOR_POOL_SIZE, OpenAIConfigDefaults.CHAT_EXECUTOR_MAX_QUEUE, metricsRegistry);
+      BlockingExecutor retrievalExecutor = createExecutor(executionConfig, executionMode, "retrieval",
+        OpenAIConfigDefaults.RETRIEVAL_EXECUTOR_POOL_SIZE, OpenAIConfigDefaults.RETRIEVAL_EXECUTOR_MAX_QUEUE, metricsRegistry);
+      BlockingExecutor ingestionExecutor = createExecutor(executionConfig, executionMode, "ingestion",
+        OpenAIConfigDefaults.INGESTION_EXECUTOR_POOL_SIZE, OpenAIConfigDefaults.INGESTION_EXECUTOR_MAX_QUEUE, metricsRegistry);
+      BlockingExecutor fileIoExecutor = createExecutor(executionConfig, executionMode, "fileIo",
+        OpenAIConfigDefaults.FILE_IO_EXECUTOR_POOL_SIZE, OpenAIConfigDefaults.FILE_IO_EXECUTOR_MAX_QUEUE, metricsRegistry);
+
+      JsonObject sessionsConfig = config.getJsonObject("sessions", new JsonObject());
+      JsonObject shardsConfig = config.getJsonObject("chatShards", new JsonObject());
+      JsonObject clusterConfig = config.getJsonObject("cluster", new JsonObject());
+      NodeRole role;
+      SessionShards sessionShards;
+      try {
+        role = NodeRole.fromConfig(config.getString("CLUSTER_ROLE",
+          clusterConfig.getString("role", OpenAIConfigDefaults.CLUSTER_NODE_ROLE)));
+        if (role != NodeRole.ALL && !vertx.isClustered()) {
+          throw new IllegalArgumentException("Node role '" + role.configName() + "' requires a clustered event bus");
+        }
+        // On a clustered worker the shard addresses are scoped by a node id so that front-ends can tell workers apart
+        sessionShards = new SessionShards(vertx.isClustered() ? UUID.randomUUID().toString() : null,
+          shardsConfig.getInteger("instances", OpenAIConfigDefaults.CHAT_SHARDS),
+          shardsConfig.getInteger("virtualNodes", OpenAIConfigDefaults.CHAT_SHARD_VIRTUAL_NODES));
+      } catch (IllegalArgumentException e) {
+        logger.error("Invalid node role or chat shard configuration", e);
+        startPromise.fail(e);
+        return;
+      }
+      logger.info("Starting node with role '{}'{}", role.configName(), vertx.isClustered() ? " in clustered mode" : "");
+
+      JsonObject queryTransformJson = config.getJsonObject("queryTransform", new JsonObject());
+      QueryTransformConfig queryTransformConfig;
+      try {
+        queryTransformConfig = QueryTransformConfig.from(queryTransformJson);
+      } catch (IllegalArgumentException e) {
+        logger.error("Invalid query transform configuration", e);
+        startPromise.fail(e);
+        return;
+      }
 
       vertx.executeBlocking(() -> {
         logger.info("Initializing MongoDB Embedding Store...");
@@ -78,25 +182,85 @@ public class MainVerticle extends AbstractVerticle {
         MongoDatabase database = mongoClient.getDatabase(dbName);
         MongoCollection<BsonDocument> collection = database.getCollection(collectionName, BsonDocument.class);
 
-        FileServiceInterface fileService = new FileService(vertx, collection);
-        OpenAIServiceInterface openAIService = new OpenAIService(vertx, embeddingStore);
+        CorpusTermStatistics termStatistics = role.runsWorkers()
+          && queryTransformConfig.getExpansion() == QueryExpansionMode.LOCAL
+          ? createTermStatistics(queryTransformJson.getJsonObject("localExpansion", new JsonObject()), metricsRegistry)
+          : null;
+
+        FileServiceInterface fileService = new FileService(vertx, ingestionExecutor, fileIoExecutor, collection,
+          termStatistics);
+        if (!role.runsWorkers()) {
+          return new Object[] { fileService, null, List.of() };
+        }
 
-        return new Object[] { fileService, openAIService };
+        JsonObject limiterConfig = config.getJsonObject("upstreamLimiter", new JsonObject());
+        AdaptiveConcurrencyLimiter upstreamLimiter = new AdaptiveConcurrencyLimiter(
+          limiterConfig.getInteger("initialLimit", OpenAIConfigDefaults.UPSTREAM_INITIAL_LIMIT),
+          limiterConfig.getInteger("minLimit", OpenAIConfigDefaults.UPSTREAM_MIN_LIMIT),
+          limiterConfig.getInteger("maxLimit", OpenAIConfigDefaults.UPSTREAM_MAX_LIMIT),
+          limiterConfig.getLong("latencyThresholdMs", OpenAIConfigDefaults.UPSTREAM_LATENCY_THRESHOLD_MS),
+          limiterConfig.getDouble("backoffRatio", OpenAIConfigDefaults.UPSTREAM_BACKOFF_RATIO),
+          limiterConfig.getInteger("maxQueue", OpenAIConfigDefaults.UPSTREAM_MAX_QUEUE)
+        );
+        metricsRegistry.register("upstreamLimiter", upstreamLimiter);
+
+        QueryTransformMetrics queryTransformMetrics = new QueryTransformMetrics();
+        metricsRegistry.register("queryTransform", queryTransformMetrics);
+
+        JsonObject embeddingBatchConfig = config.getJsonObject("embeddingModel", new JsonObject())
+          .getJsonObject("batch", new JsonObject());
+        EmbeddingBatchMetrics embeddingBatchMetrics = null;
+        if (embeddingBatchConfig.getBoolean("enabled", OpenAIConfigDefaults.EMBEDDING_BATCH_ENABLED)) {
+          embeddingBatchMetrics = new EmbeddingBatchMetrics();
+          metricsRegistry.register("embeddingBatch", embeddingBatchMetrics);
+        }
+
+        OpenAIServiceInterface openAIService = new OpenAIService(chatExecutor, embeddingStore, upstreamLimiter,
+          limiterConfig.getLong("maxWaitMs", OpenAIConfigDefaults.UPSTREAM_MAX_WAIT_MS),
+          queryTransformConfig, queryTransformMetrics, retrievalExecutor, termStatistics,
+          embeddingBatchConfig.getInteger("maxBatchSize", OpenAIConfigDefaults.EMBEDDING_BATCH_MAX_SIZE),
+          embeddingBatchConfig.getLong("maxDelayMs", OpenAIConfigDefaults.EMBEDDING_BATCH_MAX_DELAY_MS),
+          embeddingBatchMetrics);
+
+        List<SessionMemoryStore> sessionStores = createSessionStores(sessionsConfig, config, sessionShards.shardCount(),
+          openChatMemoryLog(sessionsConfig.getJsonObject("persistence", new JsonObject()), metricsRegistry),
+          metricsRegistry);
+
+        return new Object[] { fileService, openAIService, sessionStores };
       }).compose(services -> {
         FileServiceInterface fileService = (FileServiceInterface) services[0];
         OpenAIServiceInterface openAIService = (OpenAIServiceInterface) services[1];
+        @SuppressWarnings("unchecked")
+        List<SessionMemoryStore> sessionStores = (List<SessionMemoryStore>) services[2];
+
+        Future<Void> workers = role.runsWorkers()
+          ? deployWorkerVerticles(options, fileService, openAIService, chatExecutor, sessionStores, sessionShards,
+              sessionsConfig, clusterConfig, metricsRegistry)
+          : Future.succeededFuture();
+
+        return workers.compose(v -> {
+          if (!role.servesHttp()) {
+            return Future.succeededFuture("none");
+          }
 
-        return vertx.deployVerticle(new DocumentIndexVerticle(fileService, openAIService), options)
-          .compose(docIndexId -> {
-            logger.info("DocumentIndexVerticle deployed successfully.");
-            return vertx.deployVerticle(new OpenAIVerticle(openAIService), options);
-          })
-          .compose(openAiId -> {
-            logger.info("OpenAIVerticle deployed successfully.");
-            return vertx.deployVerticle(new HttpServerVerticle(fileService), options);
-          });
+          SessionRouter sessionRouter = sessionShards;
+          if (vertx.isClustered()) {
+            clusterRouter = new ClusterSessionRouter(vertx,
+              clusterConfig.getInteger("virtualNodes", OpenAIConfigDefaults.CLUSTER_VIRTUAL_NODES),
+              clusterConfig.getLong("workerTimeoutMs", OpenAIConfigDefaults.CLUSTER_WORKER_TIMEOUT_MS));
+            metricsRegistry.register("cluster", clusterRouter);
+            sessionRouter = clusterRouter;
+          }
+
+          // FileService is stateless, so every HTTP server instance (one per event loop) can share it
+          SessionRouter router = sessionRouter;
+          int httpInstances = config.getInteger("httpServerInstances", OpenAIConfigDefaults.HTTP_SERVER_INSTANCES);
+          DeploymentOptions httpOptions = new DeploymentOptions(options).setInstances(httpInstances);
+          logger.info("Deploying {} HttpServerVerticle instance(s)...", httpInstances);
+          return vertx.deployVerticle(() -> new HttpServerVerticle(fileService, metricsRegistry, router), httpOptions);
+        });
       }).onSuccess(httpServerId -> {
-        logger.info("HttpServerVerticle deployed successfully.");
+        logger.info("Node started with role '{}'.", role.configName());
         startPromise.complete();
       }).onFailure(err -> {
         logger.error("Failed to deploy verticles sequentially", err);
@@ -107,4 +271,165 @@ public class MainVerticle extends AbstractVerticle {
       startPromise.fail(err);
     });
   }
+
+  /**
+   * Deploys the verticles of a worker (or standalone) node: document indexing and one {@link OpenAIVerticle} per
+   * chat shard, then schedules the session expiry sweep. On a clustered node the shards are announced to the
+   * front-end nodes once they all listen.
+   */
+  private Future<Void> deployWorkerVerticles(DeploymentOptions options, FileServiceInterface fileService,
+                                             OpenAIServiceInterface openAIService, BlockingExecutor chatExecutor,
+                                             List<SessionMemoryStore> sessionStores, SessionShards sessionShards,
+                                             JsonObject sessionsConfig, JsonObject clusterConfig,
+                                             MetricsRegistry metricsRegistry) {
+    vertx.setPeriodic(sessionsConfig.getLong("sweepIntervalMs", OpenAIConfigDefaults.SESSION_SWEEP_INTERVAL_MS),
+      id -> sessionStores.forEach(SessionMemoryStore::evictExpired));
+
+    return vertx.deployVerticle(new DocumentIndexVerticle(fileService, openAIService), options)
+      .compose(docIndexId -> {
+        logger.info("DocumentIndexVerticle deployed successfully.");
+        logger.info("Deploying {} OpenAIVerticle shard(s)...", sessionShards.shardCount());
+        List<Future<String>> shardDeployments = new ArrayList<>();
+        for (int shard = 0; shard < sessionShards.shardCount(); shard++) {
+          shardDeployments.add(vertx.deployVerticle(new OpenAIVerticle(openAIService, chatExecutor,
+            sessionStores.get(shard), metricsRegistry, sessionShards, shard), options));
+        }
+        return Future.all(shardDeployments);
+      })
+      .map(openAiIds -> {
+        logger.info("OpenAIVerticle deployed successfully.");
+        if (vertx.isClustered()) {
+          workerAnnouncer = new WorkerAnnouncer(vertx, sessionShards.scope(), sessionShards.shardCount(),
+            sessionShards.virtualNodes(),
+            clusterConfig.getLong("heartbeatIntervalMs", OpenAIConfigDefaults.CLUSTER_HEARTBEAT_INTERVAL_MS));
+        }
+        return null;
+      });
+  }
+
+  /**
+   * Creates the executor of a pipeline stage from its {@code execution.<name>} section and registers its metrics
+   * as {@code executor.<name>}.
+   */
+  private BlockingExecutor createExecutor(JsonObject executionConfig, ExecutionMode mode, String name,
+                                          int defaultPoolSize, int defaultMaxQueue, MetricsRegistry metricsRegistry) {
+    JsonObject stageConfig = executionConfig.getJsonObject(name, new JsonObject());
+    BlockingExecutor executor = BlockingExecutor.create(vertx, mode, name,
+      stageConfig.getInteger("poolSize", defaultPoolSize),
+      stageConfig.getInteger("maxQueue", defaultMaxQueue));
+    metricsRegistry.register("executor." + name, executor);
+    blockingExecutors.add(executor);
+    return executor;
+  }
+
+  /**
+   * Creates one session store per chat shard from the {@code sessions} section, splitting the session and token
+   * limits evenly between them, and registers their metrics as {@code sessions.<shard>}. All stores share the
+   * same backing store, since a session only ever lives in the store of its shard, and the same thread-safe
+   * tokenizer, whose encoding tables are large.
+   */
+  private List<SessionMemoryStore> createSessionStores(JsonObject sessionsConfig, JsonObject config, int shardCount,
+                                                       MappedLogChatMemoryStore backingStore,
+                                                       MetricsRegistry metricsRegistry) {
+    int maxSessions = sessionsConfig.getInteger("maxSessions", OpenAIConfigDefaults.SESSION_MAX_SESSIONS);
+    long maxTotalTokens = sessionsConfig.getLong("maxTotalTokens", OpenAIConfigDefaults.SESSION_MAX_TOTAL_TOKENS);
+
+    OpenAiTokenizer tokenizer = new OpenAiTokenizer(OpenAiChatModelName.GPT_3_5_TURBO);
+    List<SessionMemoryStore> stores = new ArrayList<>(shardCount);
+    for (int shard = 0; shard < shardCount; shard++) {
+      SessionMemoryStore store = new SessionMemoryStore(
+        tokenizer,
+        backingStore,
+        config.getInteger("maxTokens", OpenAIConfigDefaults.MAX_TOKENS),
+        Math.max(1, maxSessions / shardCount),
+        Math.max(1, maxTotalTokens / shardCount),
+        sessionsConfig.getLong("idleTtlMs", OpenAIConfigDefaults.SESSION_IDLE_TTL_MS)
+      );
+      metricsRegistry.register("sessions." + shard, store);
+      stores.add(store);
+    }
+    return stores;
+  }
+
+  /**
+   * Opens the persistent chat memory log described by the {@code sessions.persistence} section and registers its
+   * metrics as {@code chatMemoryLog}. Blocks on file I/O.
+   *
+   * @return the log, or {@code null} when persistence is disabled and histories are kept on the heap only
+   */
+  private MappedLogChatMemoryStore openChatMemoryLog(JsonObject persistenceConfig, MetricsRegistry metricsRegistry) {
+    if (!persistenceConfig.getBoolean("enabled", OpenAIConfigDefaults.SESSION_PERSISTENCE_ENABLED)) {
+      return null;
+    }
+
+    Path path = Path.of(persistenceConfig.getString("path", OpenAIConfigDefaults.SESSION_PERSISTENCE_PATH));
+    logger.info("Opening chat memory log {}", path.toAbsolutePath());
+    chatMemoryLog = new MappedLogChatMemoryStore(path,
+      persistenceConfig.getInteger("initialSizeBytes", OpenAIConfigDefaults.SESSION_PERSISTENCE_INITIAL_SIZE_BYTES),
+      persistenceConfig.getDouble("compactionRatio", OpenAIConfigDefaults.SESSION_PERSISTENCE_COMPACTION_RATIO),
+      persistenceConfig.getLong("retentionMs", OpenAIConfigDefaults.SESSION_PERSISTENCE_RETENTION_MS));
+    metricsRegistry.register("chatMemoryLog", chatMemoryLog);
+    return chatMemoryLog;
+  }
+
+  /**
+   * Loads the tokenizer described by the {@code queryTransform.localExpansion} section and creates the empty term
+   * statistics filled in by indexing, registering their metrics as {@code corpusTerms}. Blocks on file I/O.
+   */
+  private CorpusTermStatistics createTermStatistics(JsonObject localExpansionConfig, MetricsRegistry metricsRegistry) {
+    String tokenizer = localExpansionConfig.getString("tokenizer", OpenAIConfigDefaults.LOCAL_EXPANSION_TOKENIZER);
+    logger.info("Loading query expansion tokenizer {}", tokenizer);
+    try {
+      termTokenizer = TermTokenizer.load(tokenizer);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    CorpusTermStatistics statistics = new CorpusTermStatistics(termTokenizer,
+      localExpansionConfig.getInteger("maxTerms", OpenAIConfigDefaults.LOCAL_EXPANSION_MAX_TERMS),
+      localExpansionConfig.getInteger("maxNeighbors", OpenAIConfigDefaults.LOCAL_EXPANSION_MAX_NEIGHBORS));
+    metricsRegistry.register("corpusTerms", statistics);
+    return statistics;
+  }
+
+  /**
+   * Tells the front-end nodes that this worker is leaving, so that they move its sessions while its chat verticles
+   * still serve them. Must be called before undeploying this verticle or closing Vert.x: child verticles are
+   * stopped before {@link #stop()} runs.
+   *
+   * @return a future completed once the leave has been announced
+   */
+  public Future<Void> leaveCluster() {
+    Promise<Void> announced = Promise.promise();
+    context.runOnContext(v -> {
+      closeWorkerAnnouncer();
+      announced.complete();
+    });
+    return announced.future();
+  }
+
+  private void closeWorkerAnnouncer() {
+    if (workerAnnouncer != null) {
+      workerAnnouncer.close();
+      workerAnnouncer = null;
+    }
+  }
+
+  /**
+   * Leaves the cluster if {@link #leaveCluster()} was not called, releases the stage executors and the query
+   * expansion tokenizer and flushes the chat memory log once all child verticles have been undeployed.
+   */
+  @Override
+  public void stop() {
+    closeWorkerAnnouncer();
+    if (clusterRouter != null) {
+      clusterRouter.close();
+    }
+    blockingExecutors.forEach(BlockingExecutor::close);
+    if (chatMemoryLog != null) {
+      chatMemoryLog.close();
+    }
+    if (termTokenizer != null) {
+      termTokenizer.close();
+    }
+  }
 }
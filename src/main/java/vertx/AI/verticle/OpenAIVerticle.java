@@ -3,35 +3,43 @@ package vertx.AI.verticle;
 import dev.langchain4j.data.message.AiMessage;
 import dev.langchain4j.data.message.ChatMessage;
 import dev.langchain4j.data.message.UserMessage;
-import dev.langchain4j.memory.ChatMemory;
-import dev.langchain4j.memory.chat.TokenWindowChatMemory;
 import dev.langchain4j.model.StreamingResponseHandler;
-import dev.langchain4j.model.Tokenizer;
-import dev.langchain4j.model.openai.OpenAiChatModel;
-import dev.langchain4j.model.openai.OpenAiChatModelName;
-import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
-import dev.langchain4j.model.openai.OpenAiTokenizer;
+import dev.langchain4j.model.chat.ChatLanguageModel;
 import dev.langchain4j.model.output.Response;
 import dev.langchain4j.rag.AugmentationRequest;
+import dev.langchain4j.rag.AugmentationResult;
 import dev.langchain4j.rag.RetrievalAugmentor;
 import dev.langchain4j.rag.content.retriever.ContentRetriever;
 import dev.langchain4j.rag.query.Metadata;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Future;
 import io.vertx.core.Promise;
+import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.eventbus.Message;
-import vertx.AI.config.OpenAIConfigDefaults;
 import vertx.AI.config.OpenAIVerticleConfig;
 import vertx.AI.dto.ErrorResponse;
 import vertx.AI.constants.EventBusAddresses;
+import vertx.AI.execution.BlockingExecutor;
+import vertx.AI.llm.CancellableStreamingChatLanguageModel;
+import vertx.AI.llm.StreamHandle;
+import vertx.AI.llm.TokenUsageMetrics;
+import vertx.AI.memory.HistoryMode;
+import vertx.AI.memory.SessionMemoryStore;
+import vertx.AI.metrics.MetricsRegistry;
+import vertx.AI.session.SessionMailboxMetrics;
+import vertx.AI.session.SessionMailboxes;
+import vertx.AI.session.SessionMailboxes.SessionBusyException;
+import vertx.AI.session.SessionShards;
 import vertx.AI.service.OpenAIServiceInterface;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * Verticle responsible for handling chat interactions using OpenAI's API.
@@ -42,26 +50,66 @@ import java.util.Map;
  *     <li>Initializes the OpenAI chat and streaming models</li>
  *     <li>Handles requests for non-streaming replies via the event bus</li>
  *     <li>Handles streaming responses using token-by-token delivery via SSE</li>
+ *     <li>Runs the turns of each session strictly in order through its {@link SessionMailboxes mailbox}</li>
+ *     <li>Aborts in-flight streams whose client has gone away or asked to cancel</li>
  * </ul>
+ * <p>
+ * Several instances may be deployed, each serving a disjoint shard of the sessions chosen by
+ * {@link SessionShards} and listening on that shard's event bus addresses, so a session's memory and streams
+ * are only ever handled on one event loop.
  */
 public class OpenAIVerticle extends AbstractVerticle {
 
   private static final Logger logger = LoggerFactory.getLogger(OpenAIVerticle.class);
 
-  private OpenAiStreamingChatModel streamingChatModel;
-  private OpenAiChatModel chatModel;
-  private final Map<String, ChatMemory> chatMemories = new HashMap<>();
+  private CancellableStreamingChatLanguageModel streamingChatModel;
+  private ChatLanguageModel chatModel;
+  // Confined to the verticle's context, like the session mailboxes
+  private final Map<String, ActiveStream> activeStreams = new HashMap<>();
   private ContentRetriever contentRetriever;
   private RetrievalAugmentor retrievalAugmentor;
   private final OpenAIServiceInterface openAIService;
+  private final BlockingExecutor blockingExecutor;
+  private final SessionMemoryStore sessionStore;
+  private final MetricsRegistry metricsRegistry;
+  private final SessionShards shards;
+  private final int shard;
+  private TokenUsageMetrics tokenUsage;
+  private HistoryMode historyMode;
+  private SessionMailboxes sessionMailboxes;
+
+  /**
+   * Constructs a single, unsharded verticle serving every session on the plain event bus addresses.
+   *
+   * @param openAIService    the service used to initialize and interact with OpenAI components
+   * @param blockingExecutor the executor running retrieval and blocking model calls
+   * @param sessionStore     the bounded store holding each session's chat memory
+   * @param metricsRegistry  registry shared by all verticles for exporting metrics
+   */
+  public OpenAIVerticle(OpenAIServiceInterface openAIService, BlockingExecutor blockingExecutor,
+                        SessionMemoryStore sessionStore, MetricsRegistry metricsRegistry) {
+    this(openAIService, blockingExecutor, sessionStore, metricsRegistry, SessionShards.single(), 0);
+  }
 
   /**
-   * Constructor accepting a service interface for OpenAI operations.
+   * Constructs the verticle serving one shard of the sessions.
    *
-   * @param openAIService the service used to initialize and interact with OpenAI components
+   * @param openAIService    the service used to initialize and interact with OpenAI components
+   * @param blockingExecutor the executor running retrieval and blocking model calls
+   * @param sessionStore     the bounded store holding the chat memory of this shard's sessions
+   * @param metricsRegistry  registry shared by all verticles for exporting metrics
+   * @param shards           the session-to-shard assignment shared with the HTTP verticles
+   * @param shard            the shard served by this instance
    */
-  public OpenAIVerticle(OpenAIServiceInterface openAIService) {
+  public OpenAIVerticle(OpenAIServiceInterface openAIService, BlockingExecutor blockingExecutor,
+                        SessionMemoryStore sessionStore, MetricsRegistry metricsRegistry,
+                        SessionShards shards, int shard) {
     this.openAIService = openAIService;
+    this.blockingExecutor = blockingExecutor;
+    this.sessionStore = sessionStore;
+    this.metricsRegistry = metricsRegistry;
+    this.shards = shards;
+    this.shard = shard;
   }
 
   /**
@@ -79,6 +127,10 @@ public class OpenAIVerticle extends AbstractVerticle {
       startPromise.fail(e);
       return;
     }
+    historyMode = cfg.getHistoryMode();
+    tokenUsage = metricsRegistry.getOrCreate("tokenUsage", TokenUsageMetrics::new);
+    sessionMailboxes = new SessionMailboxes(context, cfg.getMaxPendingTurns(),
+      metricsRegistry.getOrCreate("sessionMailboxes", SessionMailboxMetrics::new));
 
     openAIService.initializeStreamingChatModel(cfg.getStreamingModelConfig())
       .compose(streamingModel -> {
@@ -100,9 +152,10 @@ public class OpenAIVerticle extends AbstractVerticle {
       })
       .onSuccess(augmentor -> {
         this.retrievalAugmentor = augmentor;
-        vertx.eventBus().consumer(EventBusAddresses.OPENAI_CLIENT_NON_STREAMING, this::handleNonStreamingChatRequest);
-        vertx.eventBus().consumer(EventBusAddresses.OPENAI_CLIENT_STREAMING, this::handleStreamingChatRequest);
-        logger.info("OpenAI services initialized successfully.");
+        vertx.eventBus().consumer(shards.address(EventBusAddresses.OPENAI_CLIENT_NON_STREAMING, shard), this::handleNonStreamingChatRequest);
+        vertx.eventBus().consumer(shards.address(EventBusAddresses.OPENAI_CLIENT_STREAMING, shard), this::handleStreamingChatRequest);
+        vertx.eventBus().consumer(shards.address(EventBusAddresses.OPENAI_CANCEL_STREAMING, shard), this::handleCancelStreamingRequest);
+        logger.info("OpenAI services initialized successfully for shard {} of {}.", shard, shards.shardCount());
         startPromise.complete();
       })
       .onFailure(err -> {
@@ -114,6 +167,11 @@ public class OpenAIVerticle extends AbstractVerticle {
   /**
    * Handles non-streaming chat requests from the event bus.
    * Performs context retrieval using RAG and returns a complete AI response.
+   * <p>
+   * Augmentation and generation run as a single blocking task on the {@link BlockingExecutor}, so the event loop
+   * only validates the request, records the turn in the session's memory and sends the reply, and concurrent
+   * requests of different sessions do not queue behind each other. Turns of the same session run one after
+   * another through its mailbox.
    *
    * @param message the incoming event bus message containing user message and session ID
    */
@@ -129,65 +187,85 @@ public class OpenAIVerticle extends AbstractVerticle {
 
     logger.info("Handling non-streaming chat for session: {}", sessionId);
 
-    UserMessage originalMessage = new UserMessage(userMessage);
+    sessionMailboxes.submit(sessionId, () -> blockingExecutor.execute(() -> generateNonStreamingReply(sessionId, userMessage))
+        // Back on the verticle's context, which owns the session's memory, before the mailbox starts the next turn
+        .map(turn -> {
+          sessionStore.append(sessionId, turn.userMessage(), turn.reply());
+          return turn.reply().text();
+        }))
+      .onSuccess(reply -> message.reply(new JsonObject().put("response", reply)))
+      .onFailure(err -> {
+        if (err instanceof SessionBusyException) {
+          logger.warn("[Non-Streaming][Session: {}] Rejecting turn: {}", sessionId, err.getMessage());
+          message.fail(429, ErrorResponse.createErrorResponse(429, err.getMessage()).encode());
+          return;
+        }
+        logger.error("Failed to process non-streaming chat request", err);
+        message.fail(500, ErrorResponse.createErrorResponse(500, "Failed to process request").encode());
+      });
+  }
 
-    List<ChatMessage> chatHistory = chatMemories.containsKey(sessionId)
-      ? chatMemories.get(sessionId).messages()
-      : Collections.emptyList();
+  /**
+   * Runs the blocking part of a non-streaming chat turn: retrieves context and calls the chat model. Must not be
+   * called on the event loop.
+   *
+   * @param sessionId   the chat session
+   * @param userMessage the user's message
+   * @return the messages the turn adds to the session's memory
+   */
+  private CompletedTurn generateNonStreamingReply(String sessionId, String userMessage) {
+    UserMessage originalMessage = new UserMessage(userMessage);
+    List<ChatMessage> chatHistory = sessionStore.history(sessionId);
 
     Metadata metadata = Metadata.from(originalMessage, sessionId, chatHistory);
-    AugmentationRequest augmentationRequest = new AugmentationRequest(originalMessage, metadata);
-
-    vertx.executeBlocking(() -> retrievalAugmentor.augment(augmentationRequest))
-      .onSuccess(augmentationResult -> {
-        String retrievedText;
-        try {
-          UserMessage augmentedMessage = (UserMessage) augmentationResult.chatMessage();
-          retrievedText = augmentedMessage.singleText();
-        } catch (ClassCastException e) {
-          logger.warn("Augmentation result is not a UserMessage, using fallback.");
-          retrievedText = augmentationResult.chatMessage().toString();
-        }
+    AugmentationResult augmentationResult = retrievalAugmentor.augment(new AugmentationRequest(originalMessage, metadata));
 
-        if (retrievedText == null || retrievedText.trim().isEmpty()) {
-          retrievedText = "No relevant documents found.";
-        }
-
-        logger.info("[Non-Streaming][Session: {}] Retrieved context:\n{}", sessionId, retrievedText);
+    String retrievedText;
+    try {
+      UserMessage augmentedMessage = (UserMessage) augmentationResult.chatMessage();
+      retrievedText = augmentedMessage.singleText();
+    } catch (ClassCastException e) {
+      logger.warn("Augmentation result is not a UserMessage, using fallback.");
+      retrievedText = augmentationResult.chatMessage().toString();
+    }
 
-        String augmentedUserMessage = "Context:\n" + retrievedText + "\n\nUser Question:\n" + userMessage;
+    if (retrievedText == null || retrievedText.trim().isEmpty()) {
+      retrievedText = "No relevant documents found.";
+    }
 
-        Tokenizer tokenizer = new OpenAiTokenizer(OpenAiChatModelName.GPT_3_5_TURBO);
+    logger.info("[Non-Streaming][Session: {}] Retrieved context:\n{}", sessionId, retrievedText);
 
-        int maxTokens = config().getInteger("maxTokens", OpenAIConfigDefaults.MAX_TOKENS);
-        ChatMemory chatMemory = chatMemories.computeIfAbsent(sessionId,
-          id -> TokenWindowChatMemory.withMaxTokens(maxTokens, tokenizer));
+    String augmentedUserMessage = "Context:\n" + retrievedText + "\n\nUser Question:\n" + userMessage;
 
-        chatMemory.add(new UserMessage(augmentedUserMessage));
+    logger.info("Non-Streaming OpenAI response for: {}", augmentedUserMessage);
 
-        logger.info("Non-Streaming OpenAI response for: {}", augmentedUserMessage);
+    UserMessage turnMessage = new UserMessage(augmentedUserMessage);
+    List<ChatMessage> messages = new ArrayList<>(chatHistory);
+    messages.add(turnMessage);
 
-        Response<AiMessage> response = chatModel.generate(chatMemory.messages());
-        chatMemory.add(response.content());
+    Response<AiMessage> response = chatModel.generate(messages);
+    tokenUsage.record(response);
 
-        JsonObject result = new JsonObject().put("response", response.content().text());
-        message.reply(result);
-      })
-      .onFailure(err -> {
-        logger.error("Failed to process non-streaming chat request", err);
-        message.fail(500, ErrorResponse.createErrorResponse(500, "Failed to process request").encode());
-      });
+    return new CompletedTurn(historyMessage(originalMessage, turnMessage), response.content());
   }
 
   /**
    * Handles streaming chat requests from the event bus.
-   * Uses RAG to retrieve context, augments the prompt, and streams the response token-by-token.
+   * Uses RAG to retrieve context, augments the prompt, and streams the response token-by-token to the turn's own
+   * {@link EventBusAddresses#responseStreamingAddress response address}, or to the {@code responseAddress} of the
+   * request, such as a {@link EventBusAddresses#connectionStreamingAddress connection address}. Every token and end
+   * marker carries the turn's {@link EventBusAddresses#STREAM_ID_HEADER stream ID header}. The request is answered with
+   * {@code queued} as soon as the turn is accepted, or failed with {@code 429} when its session is busy; later
+   * failures end the stream with an error marker. The stream is registered under the request's {@code streamId}
+   * until it ends, so that it can be aborted through {@link EventBusAddresses#OPENAI_CANCEL_STREAMING}, even while it waits for an earlier turn of its
+   * session or its context is still being retrieved.
    *
-   * @param message the incoming event bus message containing user message and session ID
+   * @param message the incoming event bus message containing user message, session ID and stream ID
    */
   private void handleStreamingChatRequest(Message<JsonObject> message) {
     String userMessage = message.body().getString("message");
     String sessionId = message.body().getString("sessionId");
+    String streamId = message.body().getString("streamId", UUID.randomUUID().toString());
 
     if (userMessage.isEmpty()) {
       logger.warn("[Streaming] Empty message received, rejecting request.");
@@ -197,18 +275,61 @@ public class OpenAIVerticle extends AbstractVerticle {
 
     logger.info("Handling chat for session: {}", sessionId);
 
-    UserMessage originalMessage = new UserMessage(userMessage);
+    StreamHandle streamHandle = new StreamHandle();
+    String responseAddress = message.body().getString("responseAddress",
+      EventBusAddresses.responseStreamingAddress(sessionId, streamId));
+    activeStreams.put(streamId, new ActiveStream(streamHandle, responseAddress));
+
+    Future<Void> turn = sessionMailboxes.submit(sessionId,
+      () -> streamTurn(responseAddress, sessionId, streamId, userMessage, streamHandle));
+    if (turn.failed()) {
+      activeStreams.remove(streamId);
+      logger.warn("[Streaming][Session: {}] Rejecting turn: {}", sessionId, turn.cause().getMessage());
+      message.fail(429, ErrorResponse.createErrorResponse(429, turn.cause().getMessage()).encode());
+      return;
+    }
 
-    List<ChatMessage> chatHistory = chatMemories.containsKey(sessionId)
-      ? chatMemories.get(sessionId).messages()
-      : Collections.emptyList();
+    // Reply before the turn starts: it may wait behind a long stream of the session, and its outcome reaches the
+    // client through the response address anyway
+    message.reply(new JsonObject().put("status", "queued"));
+    turn.onFailure(err -> {
+      activeStreams.remove(streamId);
+      logger.error("[Streaming][Session: {}] Turn failed", sessionId, err);
+      publish(responseAddress, streamId, new JsonObject().put("end", true).put("error", "Failed to process request"));
+    });
+  }
 
-    Metadata metadata = Metadata.from(originalMessage, sessionId, chatHistory);
+  /**
+   * Runs one streaming turn once its session's earlier turns are done: retrieves context, streams the response
+   * and records the completed turn in the session's memory.
+   *
+   * @return a future completing when the turn is over, whether it completed, failed or was cancelled
+   */
+  private Future<Void> streamTurn(String responseAddress, String sessionId, String streamId, String userMessage,
+                                  StreamHandle streamHandle) {
+    Promise<Void> turnDone = Promise.promise();
+    // A cancelled turn is over at once; aborting the upstream request happens alongside
+    streamHandle.onCancel(turnDone::tryComplete);
+    if (streamHandle.isCancelled()) {
+      logger.info("[Streaming][Session: {}] Stream {} cancelled while waiting for its turn", sessionId, streamId);
+      return turnDone.future();
+    }
 
-    AugmentationRequest augmentationRequest = new AugmentationRequest(originalMessage, metadata);
+    UserMessage originalMessage = new UserMessage(userMessage);
 
-    vertx.executeBlocking(() -> retrievalAugmentor.augment(augmentationRequest))
-      .onSuccess(augmentationResult -> {
+    // Loading the history may read the persistent memory log, so it happens on the executor along with retrieval
+    blockingExecutor.execute(() -> {
+      List<ChatMessage> chatHistory = sessionStore.history(sessionId);
+      Metadata metadata = Metadata.from(originalMessage, sessionId, chatHistory);
+      return new AugmentedTurn(chatHistory, retrievalAugmentor.augment(new AugmentationRequest(originalMessage, metadata)));
+    })
+      .onSuccess(augmentedTurn -> {
+        if (streamHandle.isCancelled()) {
+          logger.info("[Streaming][Session: {}] Stream {} cancelled before generation started", sessionId, streamId);
+          return;
+        }
+
+        AugmentationResult augmentationResult = augmentedTurn.augmentation();
 
         String retrievedText;
         try {
@@ -227,50 +348,124 @@ public class OpenAIVerticle extends AbstractVerticle {
 
         String augmentedUserMessage = "Context:\n" + retrievedText + "\n\nUser Question:\n" + userMessage;
 
-        Tokenizer tokenizer = new OpenAiTokenizer(OpenAiChatModelName.GPT_3_5_TURBO);
-
-        // Use TokenWindowChatMemory with a token-based limit
-        int maxTokens = config().getInteger("maxTokens", OpenAIConfigDefaults.MAX_TOKENS);
-        ChatMemory chatMemory = chatMemories.computeIfAbsent(sessionId, id -> TokenWindowChatMemory.withMaxTokens(maxTokens, tokenizer));
-        chatMemory.add(new UserMessage(augmentedUserMessage));
+        // The turn is only committed to memory once it completes, so a cancelled turn leaves no trace
+        UserMessage turnMessage = new UserMessage(augmentedUserMessage);
+        List<ChatMessage> messages = new ArrayList<>(augmentedTurn.history());
+        messages.add(turnMessage);
 
         // Stream OpenAI response token-by-token
         logger.info("Streaming OpenAI response for: {}", augmentedUserMessage);
 
-        streamingChatModel.generate(chatMemory.messages(), new StreamingResponseHandler<>() {
+        StreamHandle upstream = streamingChatModel.stream(messages, new StreamingResponseHandler<>() {
           @Override
           public void onNext(String token) {
             if (token != null && !token.isEmpty()) {
-              logger.info("Sending token: {}", token);
-              JsonObject chunkMessage = new JsonObject().put("token", token);
-              vertx.eventBus().publish(EventBusAddresses.OPENAI_RESPONSE_STREAMING + sessionId, chunkMessage);
+              logger.debug("Sending token: {}", token);
+              // Tokens travel as plain strings; the HTTP side encodes them straight into SSE frames
+              publish(responseAddress, streamId, token);
             }
           }
 
           @Override
           public void onComplete(Response<AiMessage> response) {
-            String aiResponse = response.content().text();
-            chatMemory.add(new AiMessage(aiResponse));
+            // Called on an OpenAI client thread; the session's memory belongs to the verticle's context
+            context.runOnContext(v -> {
+              activeStreams.remove(streamId);
+
+              tokenUsage.record(response);
+              String aiResponse = response.content().text();
+              sessionStore.append(sessionId, historyMessage(originalMessage, turnMessage), new AiMessage(aiResponse));
 
-            logger.info("OpenAI streaming completed.");
+              logger.info("OpenAI streaming completed.");
 
-            JsonObject endMessage = new JsonObject().put("end", true);
-            vertx.eventBus().publish(EventBusAddresses.OPENAI_RESPONSE_STREAMING + sessionId, endMessage);
+              publish(responseAddress, streamId, new JsonObject().put("end", true));
+              turnDone.tryComplete();
+            });
           }
 
           @Override
           public void onError(Throwable error) {
             logger.error("OpenAI streaming error: ", error);
-            message.fail(500, ErrorResponse.createErrorResponse(500, "OpenAI API streaming error: " + error.getMessage()).encode());
+            context.runOnContext(v -> {
+              activeStreams.remove(streamId);
+
+              // Let listeners finish the turn instead of waiting for tokens that will never come
+              publish(responseAddress, streamId, new JsonObject().put("end", true).put("error", "OpenAI API streaming error"));
+              turnDone.tryComplete();
+            });
           }
         });
-
-        message.reply(new JsonObject().put("status", "streaming_started"));
+        streamHandle.onCancel(upstream::cancel);
       })
       .onFailure(err -> {
+        activeStreams.remove(streamId);
         logger.error("Failed to process augmentation request", err);
-        message.fail(500, ErrorResponse.createErrorResponse(500, "Failed to process augmentation request").encode());
+        publish(responseAddress, streamId, new JsonObject()
+          .put("end", true)
+          .put("error", "Failed to process augmentation request"));
+        turnDone.tryComplete();
       });
+
+    return turnDone.future();
+  }
+
+  /**
+   * Handles requests to abort an in-flight stream, sent when its client disconnects or cancels the turn.
+   * The upstream request is aborted, its limiter permit is released and the turn is not added to the chat memory.
+   * An end marker flagged as cancelled is published so that listeners still attached to the stream finish the turn.
+   *
+   * @param message the incoming event bus message containing the stream ID and session ID
+   */
+  private void handleCancelStreamingRequest(Message<JsonObject> message) {
+    String streamId = message.body().getString("streamId");
+    String sessionId = message.body().getString("sessionId");
+
+    ActiveStream stream = streamId == null ? null : activeStreams.remove(streamId);
+    if (stream == null) {
+      logger.debug("[Streaming] Ignoring cancellation of unknown or finished stream: {}", streamId);
+      return;
+    }
+
+    logger.info("[Streaming][Session: {}] Cancelling stream {}", sessionId, streamId);
+    stream.handle().cancel();
+    publish(stream.responseAddress(), streamId, new JsonObject().put("end", true).put("cancelled", true));
+  }
+
+  /**
+   * Publishes a token or end marker of a stream, tagged with its stream ID.
+   */
+  private void publish(String responseAddress, String streamId, Object chunk) {
+    vertx.eventBus().publish(responseAddress, chunk,
+      new DeliveryOptions().addHeader(EventBusAddresses.STREAM_ID_HEADER, streamId));
+  }
+
+  /**
+   * Picks the user message a completed turn leaves in the session history: in {@link HistoryMode#RAW} mode the
+   * retrieved context is only sent to the model for the current turn and never stored.
+   *
+   * @param originalMessage the user's own message
+   * @param turnMessage     the message sent to the model, including the retrieved context
+   * @return the message to record
+   */
+  private UserMessage historyMessage(UserMessage originalMessage, UserMessage turnMessage) {
+    return historyMode == HistoryMode.RAW ? originalMessage : turnMessage;
+  }
+
+  /**
+   * The messages a completed non-streaming turn adds to its session's memory.
+   */
+  private record CompletedTurn(UserMessage userMessage, AiMessage reply) {
   }
-}
 
+  /**
+   * An in-flight stream and the address its tokens are published to.
+   */
+  private record ActiveStream(StreamHandle handle, String responseAddress) {
+  }
+
+  /**
+   * The session history a streaming turn was augmented against, with the augmentation result.
+   */
+  private record AugmentedTurn(List<ChatMessage> history, AugmentationResult augmentation) {
+  }
+}
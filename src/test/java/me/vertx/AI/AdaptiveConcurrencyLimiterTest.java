@@ -0,0 +1,152 @@
+package me.vertx.AI;
+
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.openai.OpenAiChatModel;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import vertx.AI.llm.AdaptiveConcurrencyLimiter;
+import vertx.AI.llm.LimitedChatLanguageModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exercises {@link AdaptiveConcurrencyLimiter} against a local mock of the OpenAI chat completions endpoint
+ * that injects latency and rate-limit responses.
+ */
+@ExtendWith(VertxExtension.class)
+public class AdaptiveConcurrencyLimiterTest {
+
+  private static final int CALLERS = 24;
+
+  private HttpServer mockServer;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxObservedInFlight = new AtomicInteger();
+  private volatile long injectedLatencyMs;
+  private volatile boolean rateLimited;
+  private ExecutorService callers;
+
+  @BeforeEach
+  void startMockServer(Vertx vertx, VertxTestContext testContext) {
+    callers = Executors.newFixedThreadPool(CALLERS);
+
+    mockServer = vertx.createHttpServer().requestHandler(request -> {
+      int current = inFlight.incrementAndGet();
+      maxObservedInFlight.accumulateAndGet(current, Math::max);
+
+      vertx.setTimer(Math.max(1, injectedLatencyMs), id -> {
+        inFlight.decrementAndGet();
+        if (rateLimited) {
+          request.response().setStatusCode(429)
+            .putHeader("Content-Type", "application/json")
+            .end(new JsonObject().put("error", new JsonObject().put("message", "Rate limit reached")).encode());
+          return;
+        }
+        request.response()
+          .putHeader("Content-Type", "application/json")
+          .end(completion("ok").encode());
+      });
+    });
+
+    mockServer.listen(0).onComplete(testContext.succeedingThenComplete());
+  }
+
+  @AfterEach
+  void stopMockServer(VertxTestContext testContext) {
+    callers.shutdownNow();
+    mockServer.close().onComplete(testContext.succeedingThenComplete());
+  }
+
+  @Test
+  void shouldBoundUpstreamConcurrencyAndBackOffWhenLatencyRises() throws Exception {
+    injectedLatencyMs = 200;
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 8, 100, 0.5, 100);
+    ChatLanguageModel model = new LimitedChatLanguageModel(mockModel(), limiter, 30_000);
+
+    runConcurrently(model, CALLERS);
+
+    assertTrue(maxObservedInFlight.get() <= 8, "Upstream saw more concurrent calls than the limit allows");
+    assertTrue(limiter.getLimit() < 8, "Limit should shrink when latency exceeds the threshold");
+    assertEquals(0, limiter.toJson().getInteger("inFlight"));
+  }
+
+  @Test
+  void shouldGrowLimitWhenUpstreamIsFast() throws Exception {
+    injectedLatencyMs = 5;
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 64, 1_000, 0.5, 100);
+    ChatLanguageModel model = new LimitedChatLanguageModel(mockModel(), limiter, 30_000);
+
+    runConcurrently(model, CALLERS * 4);
+
+    assertTrue(limiter.getLimit() > 4, "Limit should grow while latency stays under the threshold");
+  }
+
+  @Test
+  void shouldBackOffOnRateLimitResponses() throws Exception {
+    injectedLatencyMs = 5;
+    rateLimited = true;
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(16, 1, 16, 1_000, 0.5, 100);
+    ChatLanguageModel model = new LimitedChatLanguageModel(mockModel(), limiter, 30_000);
+
+    List<Future<?>> calls = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      calls.add(callers.submit(() -> assertThrows(RuntimeException.class, () -> model.generate("Hello"))));
+    }
+    for (Future<?> call : calls) {
+      call.get(30, TimeUnit.SECONDS);
+    }
+
+    assertTrue(limiter.getLimit() <= 2, "Limit should back off multiplicatively on 429 responses");
+    assertEquals(4L, limiter.toJson().getLong("drops"));
+  }
+
+  private void runConcurrently(ChatLanguageModel model, int calls) throws Exception {
+    List<Future<String>> results = new ArrayList<>();
+    for (int i = 0; i < calls; i++) {
+      results.add(callers.submit(() -> model.generate("Hello")));
+    }
+    for (Future<String> result : results) {
+      assertEquals("ok", result.get(60, TimeUnit.SECONDS));
+    }
+  }
+
+  private ChatLanguageModel mockModel() {
+    return OpenAiChatModel.builder()
+      .baseUrl("http://localhost:" + mockServer.actualPort() + "/v1/")
+      .apiKey("test-key")
+      .modelName("gpt-3.5-turbo")
+      .maxRetries(1)
+      .build();
+  }
+
+  private static JsonObject completion(String content) {
+    return new JsonObject()
+      .put("id", "chatcmpl-test")
+      .put("object", "chat.completion")
+      .put("created", 0)
+      .put("model", "gpt-3.5-turbo")
+      .put("choices", new JsonArray().add(new JsonObject()
+        .put("index", 0)
+        .put("message", new JsonObject().put("role", "assistant").put("content", content))
+        .put("finish_reason", "stop")))
+      .put("usage", new JsonObject()
+        .put("prompt_tokens", 1)
+        .put("completion_tokens", 1)
+        .put("total_tokens", 2));
+  }
+}
@@ -0,0 +1,138 @@
+package me.vertx.AI;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.query.Metadata;
+import dev.langchain4j.rag.query.Query;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
+import vertx.AI.config.QueryTransformConfig;
+import vertx.AI.rag.AdaptiveQueryTransformer;
+import vertx.AI.rag.QueryProbe;
+import vertx.AI.rag.QueryTransformMetrics;
+import vertx.AI.rag.QueryTransformMode;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that {@link AdaptiveQueryTransformer} only calls the model for compression and expansion when they can
+ * change what is retrieved, and that a probed query is not searched a second time.
+ */
+public class AdaptiveQueryTransformerTest {
+
+  private static final String REFUND_CHUNK = "Refunds are granted within thirty days of purchase.";
+
+  private final CountingChatModel chatModel = new CountingChatModel();
+  private final QueryTransformMetrics metrics = new QueryTransformMetrics();
+  private QueryProbe probe;
+  private AdaptiveQueryTransformer transformer;
+
+  @BeforeEach
+  void setUp() {
+    KeywordEmbeddingModel embeddingModel = new KeywordEmbeddingModel();
+    InMemoryEmbeddingStore<TextSegment> store = new InMemoryEmbeddingStore<>();
+    TextSegment segment = TextSegment.from(REFUND_CHUNK);
+    store.add(embeddingModel.embed(segment).content(), segment);
+    probe = new QueryProbe(embeddingModel, store, 5, 0.0);
+    transformer = new AdaptiveQueryTransformer(chatModel, probe,
+      new QueryTransformConfig(QueryTransformMode.ADAPTIVE, 6, 0.85), metrics);
+  }
+
+  @Test
+  void shouldRetrieveShortSpecificFirstQueryWithoutModelCalls() {
+    Query query = query("Refund policy deadlines", List.of());
+
+    Collection<Query> queries = transformer.transform(query);
+
+    assertEquals(List.of(query), List.copyOf(queries));
+    assertEquals(0, chatModel.calls.get(), "A first, specific question should need no model round-trip");
+    JsonObject json = metrics.toJson();
+    assertEquals(1, json.getLong("compressionSkipped"));
+    assertEquals(1, json.getLong("expansionSkippedShort"));
+    assertEquals(0, json.getLong("probes"));
+  }
+
+  @Test
+  void shouldSkipExpansionAndReuseProbeWhenRawQueryRetrievesWell() {
+    Query query = query("Could you walk me through how the refund process works for my order", List.of());
+
+    Collection<Query> queries = transformer.transform(query);
+
+    assertEquals(List.of(query), List.copyOf(queries));
+    assertEquals(0, chatModel.calls.get());
+    assertEquals(1, metrics.toJson().getLong("expansionSkippedProbe"));
+
+    ContentRetriever retriever = probe.reusingProbes(q -> {
+      throw new AssertionError("Probed queries should not be searched again");
+    });
+    assertEquals(List.of(Content.from(REFUND_CHUNK)), retriever.retrieve(queries.iterator().next()));
+  }
+
+  @Test
+  void shouldCompressAndExpandVagueFollowUp() {
+    List<ChatMessage> history = List.of(UserMessage.from("Tell me about shipping"), AiMessage.from("Shipping takes a week."));
+    Query query = query("and what about the other one, can you tell me more about it", history);
+
+    Collection<Query> queries = transformer.transform(query);
+
+    assertEquals(2, chatModel.calls.get(), "A vague follow-up should be compressed and expanded");
+    assertEquals(3, queries.size());
+    JsonObject json = metrics.toJson();
+    assertEquals(1, json.getLong("compressed"));
+    assertEquals(1, json.getLong("expanded"));
+    assertEquals(1, json.getLong("queries"));
+  }
+
+  private static Query query(String text, List<ChatMessage> history) {
+    List<ChatMessage> chatMemory = new ArrayList<>(history);
+    return Query.from(text, Metadata.from(UserMessage.from(text), "session", chatMemory));
+  }
+
+  /**
+   * Embeds texts mentioning refunds on one axis and everything else on another, so refund questions match the
+   * stored chunk exactly and other questions do not match it at all.
+   */
+  private static final class KeywordEmbeddingModel implements EmbeddingModel {
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> segments) {
+      List<Embedding> embeddings = new ArrayList<>();
+      for (TextSegment segment : segments) {
+        boolean refund = segment.text().toLowerCase().contains("refund");
+        embeddings.add(Embedding.from(new float[] { refund ? 1 : 0, refund ? 0 : 1 }));
+      }
+      return Response.from(embeddings);
+    }
+  }
+
+  /**
+   * Answers compression prompts with a vague question and expansion prompts with three query variants.
+   */
+  private static final class CountingChatModel implements ChatLanguageModel {
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+      calls.incrementAndGet();
+      String prompt = ((UserMessage) messages.get(messages.size() - 1)).singleText();
+      if (prompt.startsWith("Generate")) {
+        return Response.from(AiMessage.from("shipping times abroad\ndelivery options\ncarrier tracking"));
+      }
+      return Response.from(AiMessage.from("what else is there to know about shipping and all of that"));
+    }
+  }
+}
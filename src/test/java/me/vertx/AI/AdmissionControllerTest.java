@@ -0,0 +1,121 @@
+package me.vertx.AI;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServer;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.handler.BodyHandler;
+import io.vertx.junit5.VertxExtension;
+import vertx.AI.http.AdmissionController;
+import vertx.AI.http.AdmissionHandler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that {@link AdmissionHandler} admits requests up to the in-flight limit, queues the next ones until a
+ * permit is returned or their wait expires, and sheds the rest with a {@code 503} and a {@code Retry-After}.
+ */
+@ExtendWith(VertxExtension.class)
+public class AdmissionControllerTest {
+
+  private static final int PORT = 8095;
+  private static final long RETRY_AFTER_SECONDS = 7;
+
+  private final List<RoutingContext> running = new CopyOnWriteArrayList<>();
+
+  @Test
+  void shouldAdmitQueueAndShedRequests(Vertx vertx) throws Exception {
+    AdmissionController controller = new AdmissionController(vertx, 1, 1, 10_000);
+    WebClient client = start(vertx, controller);
+
+    Future<HttpResponse<Buffer>> first = send(client);
+    awaitUntil(() -> running.size() == 1);
+    Future<HttpResponse<Buffer>> second = send(client);
+    awaitUntil(() -> controller.toJson().getInteger("queueDepth") == 1);
+
+    HttpResponse<Buffer> shed = await(send(client));
+    assertEquals(503, shed.statusCode());
+    assertEquals(String.valueOf(RETRY_AFTER_SECONDS), shed.getHeader("Retry-After"));
+
+    running.get(0).response().end("first");
+    assertEquals("first", await(first).bodyAsString());
+    awaitUntil(() -> running.size() == 2);
+    running.get(1).response().end("second");
+    assertEquals("second", await(second).bodyAsString(), "The queued request should be admitted once a permit is free");
+
+    assertEquals(2, controller.toJson().getLong("admitted"));
+    assertEquals(1, controller.toJson().getLong("rejectedQueueFull"));
+    awaitUntil(() -> controller.toJson().getInteger("inFlight") == 0);
+  }
+
+  @Test
+  void shouldShedQueuedRequestsWhoseWaitExpires(Vertx vertx) throws Exception {
+    AdmissionController controller = new AdmissionController(vertx, 1, 1, 100);
+    WebClient client = start(vertx, controller);
+
+    Future<HttpResponse<Buffer>> first = send(client);
+    awaitUntil(() -> running.size() == 1);
+    HttpResponse<Buffer> expired = await(send(client));
+
+    assertEquals(503, expired.statusCode());
+    assertEquals(1, controller.toJson().getLong("rejectedTimeout"));
+    running.get(0).response().end();
+    assertEquals(200, await(first).statusCode());
+  }
+
+  @Test
+  void shouldShedAtOnceWhenQueueingIsDisabled(Vertx vertx) throws Exception {
+    AdmissionController controller = new AdmissionController(vertx, 1, 10, 0);
+    WebClient client = start(vertx, controller);
+
+    Future<HttpResponse<Buffer>> first = send(client);
+    awaitUntil(() -> running.size() == 1);
+    HttpResponse<Buffer> shed = await(send(client));
+
+    assertEquals(503, shed.statusCode());
+    assertEquals(1, controller.toJson().getLong("rejectedQueueFull"));
+    running.get(0).response().end();
+    assertEquals(200, await(first).statusCode());
+  }
+
+  /**
+   * Serves a route whose requests stay in flight until the test ends their response.
+   */
+  private WebClient start(Vertx vertx, AdmissionController controller) throws Exception {
+    Router router = Router.router(vertx);
+    router.post("/chat")
+      .handler(new AdmissionHandler("chat", controller, RETRY_AFTER_SECONDS))
+      .handler(BodyHandler.create(false))
+      .handler(running::add);
+    HttpServer server = await(vertx.createHttpServer().requestHandler(router).listen(PORT));
+    assertNotNull(server);
+    return WebClient.create(vertx);
+  }
+
+  private static Future<HttpResponse<Buffer>> send(WebClient client) {
+    return client.post(PORT, "localhost", "/chat").sendBuffer(Buffer.buffer("{\"message\":\"hello\"}"));
+  }
+
+  private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.nanoTime() < deadline, "Timed out waiting for the requests to settle");
+      Thread.sleep(10);
+    }
+  }
+
+  private static <T> T await(Future<T> future) throws Exception {
+    return future.toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+  }
+}
@@ -0,0 +1,154 @@
+package me.vertx.AI;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.openai.OpenAiChatModelName;
+import dev.langchain4j.model.openai.OpenAiTokenizer;
+import dev.langchain4j.model.output.Response;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.junit5.VertxExtension;
+import vertx.AI.execution.WorkerPoolBlockingExecutor;
+import vertx.AI.memory.SessionMemoryStore;
+import vertx.AI.metrics.MetricsRegistry;
+import vertx.AI.session.SessionShards;
+import vertx.AI.verticle.HttpServerVerticle;
+import vertx.AI.verticle.OpenAIVerticle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives {@code /chat/batch} end to end against a mocked chat model: one NDJSON line per item, at most
+ * {@code batch.maxConcurrency} items in flight, and batches over {@code batch.maxItems} rejected.
+ */
+@ExtendWith(VertxExtension.class)
+public class BatchChatEndpointTest {
+
+  private static final int PORT = 8097;
+  private static final int MAX_CONCURRENCY = 2;
+  private static final int MAX_ITEMS = 8;
+  private static final long REPLY_DELAY_MS = 100;
+
+  @TempDir
+  Path directory;
+
+  private final AtomicInteger running = new AtomicInteger();
+  private final AtomicInteger maxRunning = new AtomicInteger();
+  private WebClient client;
+
+  @BeforeEach
+  void deploy(Vertx vertx) throws Exception {
+    SessionMemoryStore sessionStore = new SessionMemoryStore(new OpenAiTokenizer(OpenAiChatModelName.GPT_3_5_TURBO),
+      100_000, 100, 10_000_000, 60_000);
+    await(vertx.deployVerticle(new OpenAIVerticle(new MockOpenAIService(new EchoingChatModel()),
+        new WorkerPoolBlockingExecutor(vertx, "chat", 4, 100), sessionStore, new MetricsRegistry()),
+      new DeploymentOptions().setConfig(new JsonObject().put("OPENAI_API_KEY", "test-key"))));
+    await(vertx.deployVerticle(new HttpServerVerticle(null, new MetricsRegistry(), SessionShards.single()),
+      new DeploymentOptions().setConfig(new JsonObject()
+        .put("portNumber", PORT)
+        .put("uploadsStagingDirectory", directory + "/")
+        .put("batch", new JsonObject().put("maxConcurrency", MAX_CONCURRENCY).put("maxItems", MAX_ITEMS)))));
+    client = WebClient.create(vertx);
+  }
+
+  @Test
+  void shouldAnswerEachItemOnItsOwnLine() throws Exception {
+    JsonArray items = new JsonArray()
+      .add(new JsonObject().put("message", "zero"))
+      .add(new JsonObject().put("message", ""))
+      .add(new JsonObject().put("message", "two").put("sessionId", "session"));
+
+    HttpResponse<Buffer> response = post(items);
+
+    assertEquals(200, response.statusCode());
+    assertEquals("application/x-ndjson", response.getHeader("Content-Type"));
+    List<JsonObject> results = lines(response);
+    assertEquals(Set.of(0, 1, 2), results.stream().map(result -> result.getInteger("index")).collect(Collectors.toSet()));
+    for (JsonObject result : results) {
+      switch (result.getInteger("index")) {
+        case 0 -> assertEquals("zero", result.getString("response"));
+        case 1 -> assertEquals(400, result.getInteger("status"));
+        default -> {
+          assertEquals(200, result.getInteger("status"));
+          assertEquals("two", result.getString("response"));
+          assertEquals("session", result.getString("sessionId"));
+        }
+      }
+    }
+  }
+
+  @Test
+  void shouldKeepAtMostMaxConcurrencyItemsInFlight() throws Exception {
+    JsonArray items = new JsonArray();
+    for (int i = 0; i < MAX_ITEMS; i++) {
+      items.add(new JsonObject().put("message", "item " + i));
+    }
+
+    HttpResponse<Buffer> response = post(items);
+
+    assertEquals(MAX_ITEMS, lines(response).size());
+    assertEquals(MAX_CONCURRENCY, maxRunning.get(), "Items in flight at once");
+  }
+
+  @Test
+  void shouldRejectBatchesOverMaxItems() throws Exception {
+    JsonArray items = new JsonArray();
+    for (int i = 0; i <= MAX_ITEMS; i++) {
+      items.add(new JsonObject().put("message", "item " + i));
+    }
+
+    assertEquals(413, post(items).statusCode());
+    assertEquals(0, maxRunning.get(), "No item of a rejected batch should be dispatched");
+  }
+
+  private HttpResponse<Buffer> post(JsonArray items) throws Exception {
+    return await(client.post(PORT, "localhost", "/chat/batch").sendBuffer(items.toBuffer()));
+  }
+
+  private static List<JsonObject> lines(HttpResponse<Buffer> response) {
+    return Arrays.stream(response.bodyAsString().split("\n")).map(JsonObject::new).toList();
+  }
+
+  private static <T> T await(Future<T> future) throws Exception {
+    return future.toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Answers with the user's question after a delay, recording how many calls run at once.
+   */
+  private final class EchoingChatModel implements ChatLanguageModel {
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(REPLY_DELAY_MS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        running.decrementAndGet();
+      }
+      String prompt = ((UserMessage) messages.get(messages.size() - 1)).singleText();
+      return Response.from(AiMessage.from(prompt.substring(prompt.lastIndexOf('\n') + 1)));
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package me.vertx.AI;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import io.vertx.core.json.JsonObject;
+import vertx.AI.llm.BatchingEmbeddingModel;
+import vertx.AI.llm.EmbeddingBatchMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that {@link BatchingEmbeddingModel} merges concurrent embedding requests into few upstream calls while
+ * every caller still receives the embedding of its own text.
+ */
+public class BatchingEmbeddingModelTest {
+
+  private static final int CALLERS = 32;
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+  private final EmbeddingBatchMetrics metrics = new EmbeddingBatchMetrics();
+
+  @AfterEach
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void shouldMergeConcurrentRequestsAndReturnEachCallerItsEmbedding() throws Exception {
+    LengthEmbeddingModel upstream = new LengthEmbeddingModel();
+    BatchingEmbeddingModel model = new BatchingEmbeddingModel(upstream, 64, 50, metrics);
+
+    List<Future<Embedding>> results = embedConcurrently(model);
+
+    for (int i = 0; i < CALLERS; i++) {
+      assertEquals(text(i).length(), results.get(i).get(10, TimeUnit.SECONDS).vector()[0],
+        "Caller " + i + " should receive the embedding of its own text");
+    }
+    assertTrue(upstream.calls.get() <= CALLERS / 4,
+      "Expected concurrent requests to share calls, made " + upstream.calls.get());
+    JsonObject json = metrics.toJson();
+    assertEquals(CALLERS, json.getLong("requests"));
+    assertEquals(upstream.calls.get(), json.getLong("upstreamCalls"));
+  }
+
+  @Test
+  void shouldSplitBatchesAtMaxBatchSize() throws Exception {
+    LengthEmbeddingModel upstream = new LengthEmbeddingModel();
+    BatchingEmbeddingModel model = new BatchingEmbeddingModel(upstream, 4, 200, metrics);
+
+    List<Future<Embedding>> results = embedConcurrently(model);
+
+    for (int i = 0; i < CALLERS; i++) {
+      assertEquals(text(i).length(), results.get(i).get(10, TimeUnit.SECONDS).vector()[0]);
+    }
+    assertTrue(upstream.calls.get() >= CALLERS / 4);
+    assertTrue(metrics.toJson().getLong("maxTextsPerCall") <= 4);
+  }
+
+  @Test
+  void shouldSendLargeRequestsWithoutWaiting() {
+    LengthEmbeddingModel upstream = new LengthEmbeddingModel();
+    BatchingEmbeddingModel model = new BatchingEmbeddingModel(upstream, 4, 5_000, metrics);
+    List<TextSegment> document = List.of(TextSegment.from("a"), TextSegment.from("bb"), TextSegment.from("ccc"),
+      TextSegment.from("dddd"));
+
+    long start = System.nanoTime();
+    List<Embedding> embeddings = model.embedAll(document).content();
+
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000);
+    assertEquals(4, embeddings.size());
+    assertEquals(1, upstream.calls.get());
+  }
+
+  @Test
+  void shouldFailEveryCallerOfAFailedBatch() throws Exception {
+    EmbeddingModel failing = segments -> {
+      throw new IllegalStateException("Rate limit exceeded");
+    };
+    BatchingEmbeddingModel model = new BatchingEmbeddingModel(failing, 64, 50, metrics);
+
+    List<Future<Embedding>> results = embedConcurrently(model);
+
+    for (Future<Embedding> result : results) {
+      Exception e = assertThrows(Exception.class, () -> result.get(10, TimeUnit.SECONDS));
+      assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+    assertEquals(metrics.toJson().getLong("upstreamCalls"), metrics.toJson().getLong("failedCalls"));
+  }
+
+  @Test
+  void shouldReleaseEveryCallerWhenTheUpstreamThrowsAnError() throws Exception {
+    EmbeddingModel failing = segments -> {
+      throw new OutOfMemoryError("Java heap space");
+    };
+    BatchingEmbeddingModel model = new BatchingEmbeddingModel(failing, 64, 50, metrics);
+
+    List<Future<Embedding>> results = embedConcurrently(model);
+
+    for (Future<Embedding> result : results) {
+      Exception e = assertThrows(Exception.class, () -> result.get(10, TimeUnit.SECONDS));
+      assertInstanceOf(OutOfMemoryError.class, e.getCause());
+    }
+    assertEquals(metrics.toJson().getLong("upstreamCalls"), metrics.toJson().getLong("failedCalls"));
+  }
+
+  private List<Future<Embedding>> embedConcurrently(BatchingEmbeddingModel model) {
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Embedding>> results = new ArrayList<>();
+    for (int i = 0; i < CALLERS; i++) {
+      String text = text(i);
+      results.add(executor.submit(() -> {
+        start.await();
+        return model.embed(text).content();
+      }));
+    }
+    start.countDown();
+    return results;
+  }
+
+  private static String text(int i) {
+    return "query " + "x".repeat(i);
+  }
+
+  /**
+   * Embeds each text as its length after a short delay, counting upstream calls.
+   */
+  private static final class LengthEmbeddingModel implements EmbeddingModel {
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> segments) {
+      calls.incrementAndGet();
+      try {
+        Thread.sleep(20);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      List<Embedding> embeddings = new ArrayList<>();
+      for (TextSegment segment : segments) {
+        embeddings.add(Embedding.from(new float[] { segment.text().length() }));
+      }
+      return Response.from(embeddings);
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package me.vertx.AI;
+
+import com.hazelcast.config.Config;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.openai.OpenAiChatModelName;
+import dev.langchain4j.model.openai.OpenAiTokenizer;
+import dev.langchain4j.model.output.Response;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.eventbus.EventBusOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.spi.cluster.hazelcast.HazelcastClusterManager;
+import vertx.AI.cluster.ClusterSessionRouter;
+import vertx.AI.cluster.WorkerAnnouncer;
+import vertx.AI.constants.EventBusAddresses;
+import vertx.AI.execution.WorkerPoolBlockingExecutor;
+import vertx.AI.memory.SessionMemoryStore;
+import vertx.AI.metrics.MetricsRegistry;
+import vertx.AI.session.SessionShards;
+import vertx.AI.verticle.OpenAIVerticle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts a front-end node and two worker nodes as clustered Vert.x instances in this JVM and checks that every
+ * turn of a session is served by the same worker, and that a leaving worker's sessions move to the other one.
+ */
+public class ClusteredSessionRoutingTest {
+
+  private static final int SESSIONS = 40;
+  private static final int TURNS = 3;
+
+  private final List<Vertx> nodes = new ArrayList<>();
+
+  @AfterEach
+  void closeNodes() throws Exception {
+    for (Vertx node : nodes) {
+      await(node.close());
+    }
+  }
+
+  @Test
+  void shouldRouteEachSessionToOneWorkerNode() throws Exception {
+    Worker first = startWorker("worker-a");
+    Worker second = startWorker("worker-b");
+    Vertx front = startNode();
+    ClusterSessionRouter router = onContext(front, () -> new ClusterSessionRouter(front, 160, 5000));
+    awaitWorkers(router, 2);
+
+    for (int turn = 0; turn < TURNS; turn++) {
+      List<Future<?>> replies = new ArrayList<>();
+      for (int i = 0; i < SESSIONS; i++) {
+        String sessionId = "session-" + i;
+        JsonObject request = new JsonObject().put("message", "Question " + turn).put("sessionId", sessionId);
+        replies.add(front.eventBus().request(
+          router.addressFor(EventBusAddresses.OPENAI_CLIENT_NON_STREAMING, sessionId), request));
+      }
+      await(Future.all(replies));
+    }
+
+    assertEquals(SESSIONS, first.store.size() + second.store.size(), "Each session should live on one worker only");
+    assertTrue(first.store.size() > 0 && second.store.size() > 0, "Sessions should be spread over both workers");
+    for (Worker worker : List.of(first, second)) {
+      assertEquals(TURNS * worker.store.size(), worker.chatModel.calls(),
+        "Every turn of a worker's sessions should have been served by that worker");
+    }
+
+    onContext(first.vertx, () -> {
+      first.announcer.close();
+      return null;
+    });
+    awaitWorkers(router, 1);
+    assertTrue(router.addressFor(EventBusAddresses.OPENAI_CLIENT_NON_STREAMING, "session-0")
+      .startsWith(EventBusAddresses.OPENAI_CLIENT_NON_STREAMING + ".worker-b"), "Sessions should move to the remaining worker");
+  }
+
+  private Worker startWorker(String nodeId) throws Exception {
+    Vertx vertx = startNode();
+    SessionShards shards = new SessionShards(nodeId, 2, 160);
+    SessionMemoryStore store = new SessionMemoryStore(new OpenAiTokenizer(OpenAiChatModelName.GPT_3_5_TURBO),
+      4000, 1000, 1_000_000, 60_000);
+    CountingChatModel chatModel = new CountingChatModel();
+    WorkerPoolBlockingExecutor executor = new WorkerPoolBlockingExecutor(vertx, "chat-" + nodeId, 4, 1000);
+    DeploymentOptions options = new DeploymentOptions().setConfig(new JsonObject().put("OPENAI_API_KEY", "test-key"));
+
+    List<Future<String>> deployments = new ArrayList<>();
+    for (int shard = 0; shard < shards.shardCount(); shard++) {
+      deployments.add(vertx.deployVerticle(new OpenAIVerticle(new MockOpenAIService(chatModel), executor, store,
+        new MetricsRegistry(), shards, shard), options));
+    }
+    await(Future.all(deployments));
+
+    WorkerAnnouncer announcer = onContext(vertx,
+      () -> new WorkerAnnouncer(vertx, nodeId, shards.shardCount(), shards.virtualNodes(), 500));
+    return new Worker(vertx, store, chatModel, announcer);
+  }
+
+  private Vertx startNode() throws Exception {
+    // Built in code rather than from XML, and bound to loopback so the nodes find each other in any sandbox
+    Config hazelcast = new Config().setProperty("hazelcast.phone.home.enabled", "false");
+    hazelcast.getNetworkConfig().getInterfaces().setEnabled(true).addInterface("127.0.0.1");
+    hazelcast.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+    hazelcast.getNetworkConfig().getJoin().getTcpIpConfig().setEnabled(true).addMember("127.0.0.1");
+
+    Vertx vertx = await(Vertx.builder()
+      .with(new VertxOptions().setEventBusOptions(new EventBusOptions().setHost("127.0.0.1")))
+      .withClusterManager(new HazelcastClusterManager(hazelcast))
+      .buildClustered());
+    nodes.add(vertx);
+    return vertx;
+  }
+
+  private static void awaitWorkers(ClusterSessionRouter router, int expected) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 20_000;
+    while (router.toJson().getInteger("workers") != expected && System.currentTimeMillis() < deadline) {
+      Thread.sleep(50);
+    }
+    assertEquals(expected, router.toJson().getInteger("workers"));
+  }
+
+  private static <T> T onContext(Vertx vertx, Supplier<T> action) throws Exception {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    vertx.getOrCreateContext().runOnContext(v -> result.complete(action.get()));
+    return result.get(10, TimeUnit.SECONDS);
+  }
+
+  private static <T> T await(Future<T> future) throws Exception {
+    return future.toCompletionStage().toCompletableFuture().get(60, TimeUnit.SECONDS);
+  }
+
+  private record Worker(Vertx vertx, SessionMemoryStore store, CountingChatModel chatModel,
+                        WorkerAnnouncer announcer) {
+  }
+
+  /**
+   * Chat model that counts the turns it served.
+   */
+  private static final class CountingChatModel implements ChatLanguageModel {
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+      calls.incrementAndGet();
+      return Response.from(AiMessage.from("ok"));
+    }
+
+    int calls() {
+      return calls.get();
+    }
+  }
+}
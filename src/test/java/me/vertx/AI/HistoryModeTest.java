@@ -0,0 +1,107 @@
+package me.vertx.AI;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.Tokenizer;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.openai.OpenAiChatModelName;
+import dev.langchain4j.model.openai.OpenAiTokenizer;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+import dev.langchain4j.rag.content.Content;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import vertx.AI.constants.EventBusAddresses;
+import vertx.AI.execution.WorkerPoolBlockingExecutor;
+import vertx.AI.llm.StreamHandle;
+import vertx.AI.memory.SessionMemoryStore;
+import vertx.AI.metrics.MetricsRegistry;
+import vertx.AI.verticle.OpenAIVerticle;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the {@code raw} and {@code augmented} history modes over a multi-turn conversation: in raw mode
+ * retrieved context must reach the model for the current turn only, keeping both prompts and stored history small.
+ */
+@ExtendWith(VertxExtension.class)
+public class HistoryModeTest {
+
+  private static final Tokenizer TOKENIZER = new OpenAiTokenizer(OpenAiChatModelName.GPT_3_5_TURBO);
+  private static final String CONTEXT = "Refunds are granted within thirty days of purchase. ".repeat(30);
+  private static final int TURNS = 5;
+
+  @Test
+  void shouldKeepRetrievedContextOutOfRawHistory(Vertx vertx) throws Exception {
+    Conversation raw = converse(vertx, "raw");
+    Conversation augmented = converse(vertx, "augmented");
+
+    for (ChatMessage message : raw.lastPrompt.subList(0, raw.lastPrompt.size() - 1)) {
+      assertFalse(message instanceof UserMessage userMessage && userMessage.singleText().contains(CONTEXT),
+        "Earlier turns should not carry their retrieved context in raw mode");
+    }
+    assertTrue(((UserMessage) raw.lastPrompt.get(raw.lastPrompt.size() - 1)).singleText().contains(CONTEXT),
+      "The current turn should still receive its retrieved context");
+
+    long rawPromptTokens = raw.tokenUsage.getLong("inputTokens");
+    long augmentedPromptTokens = augmented.tokenUsage.getLong("inputTokens");
+    assertTrue(rawPromptTokens * 2 < augmentedPromptTokens,
+      "Prompt tokens should drop: raw " + rawPromptTokens + ", augmented " + augmentedPromptTokens);
+
+    long rawStored = raw.sessions.getLong("avgTokensPerSession");
+    long augmentedStored = augmented.sessions.getLong("avgTokensPerSession");
+    assertTrue(rawStored * 10 < augmentedStored,
+      "Stored history should shrink: raw " + rawStored + ", augmented " + augmentedStored);
+  }
+
+  private Conversation converse(Vertx vertx, String historyMode) throws Exception {
+    SessionMemoryStore sessionStore = new SessionMemoryStore(TOKENIZER, 100_000, 100, 10_000_000, 60_000);
+    MetricsRegistry metricsRegistry = new MetricsRegistry();
+    RecordingChatModel chatModel = new RecordingChatModel();
+
+    DeploymentOptions options = new DeploymentOptions().setConfig(new JsonObject()
+      .put("OPENAI_API_KEY", "test-key")
+      .put("sessions", new JsonObject().put("historyMode", historyMode)));
+    String deploymentId = await(vertx.deployVerticle(new OpenAIVerticle(new MockOpenAIService(chatModel,
+      (messages, handler) -> new StreamHandle(), query -> List.of(Content.from(CONTEXT))),
+      new WorkerPoolBlockingExecutor(vertx, "chat-" + historyMode, 4, 100), sessionStore, metricsRegistry), options));
+
+    for (int i = 0; i < TURNS; i++) {
+      JsonObject request = new JsonObject().put("message", "Question " + i).put("sessionId", "session");
+      await(vertx.eventBus().request(EventBusAddresses.OPENAI_CLIENT_NON_STREAMING, request));
+    }
+    await(vertx.undeploy(deploymentId));
+
+    return new Conversation(chatModel.lastPrompt, metricsRegistry.snapshot().getJsonObject("tokenUsage"),
+      sessionStore.toJson());
+  }
+
+  private static <T> T await(Future<T> future) throws Exception {
+    return future.toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+  }
+
+  private record Conversation(List<ChatMessage> lastPrompt, JsonObject tokenUsage, JsonObject sessions) {
+  }
+
+  /**
+   * Chat model that remembers the last prompt and reports its size as token usage.
+   */
+  private static final class RecordingChatModel implements ChatLanguageModel {
+    private volatile List<ChatMessage> lastPrompt;
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+      lastPrompt = List.copyOf(messages);
+      return Response.from(AiMessage.from("ok"), new TokenUsage(TOKENIZER.estimateTokenCountInMessages(messages), 1));
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package me.vertx.AI;
+
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.rag.query.Metadata;
+import dev.langchain4j.rag.query.Query;
+import vertx.AI.rag.CorpusTermStatistics;
+import vertx.AI.rag.LocalQueryExpander;
+import vertx.AI.rag.QueryTransformMetrics;
+import vertx.AI.rag.TermTokenizer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that {@link LocalQueryExpander} derives query variants from the vocabulary of the indexed documents,
+ * and does so in well under a millisecond.
+ */
+public class LocalQueryExpanderTest {
+
+  private static final List<String> DOCUMENTS = List.of(
+    "A refund is issued to the original card once the returned parcel reaches the warehouse.",
+    "Customers may request a refund within thirty days; the returned parcel must include the receipt.",
+    "A reimbursement is issued to the original card once the returned parcel reaches the warehouse.",
+    "Customers may request a reimbursement within thirty days; the returned parcel must include the receipt.",
+    "Shipping abroad takes ten business days and the courier provides a tracking number.",
+    "Express shipping takes two business days and the courier provides a tracking number.",
+    "Passwords must be rotated every ninety days and stored in the vault.",
+    "The vault keeps passwords encrypted and rotated by the security team.");
+
+  private static final List<String> FILLERS = List.of("apple", "river", "candle", "mountain", "pencil", "garden",
+    "window", "button", "ladder", "engine", "forest", "violin", "basket", "bridge", "castle", "desert", "feather",
+    "harbor", "island", "jacket", "kettle", "lemon", "marble", "needle", "orchard", "pepper", "quilt", "saddle");
+
+  private static TermTokenizer tokenizer;
+  private static CorpusTermStatistics statistics;
+
+  @BeforeAll
+  static void indexCorpus() throws IOException {
+    tokenizer = TermTokenizer.load("bge-small-en-v1.5-q-tokenizer.json");
+    statistics = new CorpusTermStatistics(tokenizer, 10_000, 32);
+    for (int i = 0; i < DOCUMENTS.size(); i++) {
+      assertTrue(statistics.addDocument("doc-" + i, DOCUMENTS.get(i)));
+    }
+    assertFalse(statistics.addDocument("doc-0", DOCUMENTS.get(0)), "A document must only be counted once");
+  }
+
+  @AfterAll
+  static void closeTokenizer() {
+    tokenizer.close();
+  }
+
+  @Test
+  void shouldExpandWithAssociatedTermsAndCorpusSynonyms() {
+    QueryTransformMetrics metrics = new QueryTransformMetrics();
+    LocalQueryExpander expander = new LocalQueryExpander(statistics, 3, 3, metrics);
+    Query query = query("How do I get a refund?");
+
+    List<Query> queries = List.copyOf(expander.transform(query));
+
+    assertSame(query, queries.get(0));
+    assertTrue(queries.size() > 1, "Expected variants, got " + queries);
+    List<String> texts = queries.stream().map(Query::text).toList();
+    assertTrue(texts.contains("How do I get a reimbursement?"), "Expected a synonym variant, got " + texts);
+    assertTrue(texts.stream().anyMatch(text -> text.contains("parcel") || text.contains("card")),
+      "Expected associated terms, got " + texts);
+    assertTrue(texts.stream().noneMatch(text -> text.contains("vault") || text.contains("courier")),
+      "Unrelated topics must not leak into the variants: " + texts);
+    assertEquals(1, metrics.toJson().getLong("localExpansions"));
+  }
+
+  @Test
+  void shouldReturnQueryUnchangedWhenTermsAreUnknown() {
+    LocalQueryExpander expander = new LocalQueryExpander(statistics, 3, 3, new QueryTransformMetrics());
+    Query query = query("What is the weather like on Jupiter?");
+
+    assertEquals(List.of(query), List.copyOf(expander.transform(query)));
+  }
+
+  @Test
+  void shouldExpandInMicroseconds() {
+    QueryTransformMetrics metrics = new QueryTransformMetrics();
+    LocalQueryExpander expander = new LocalQueryExpander(statistics, 3, 3, metrics);
+    Query query = query("Which tracking number does the courier provide for express shipping?");
+    for (int i = 0; i < 2_000; i++) {
+      expander.transform(query);
+    }
+
+    double avgUs = metrics.toJson().getDouble("avgLocalExpansionUs");
+    assertTrue(avgUs < 1000, "Local expansion should take well under a millisecond, took " + avgUs + " us");
+  }
+
+  @Test
+  void shouldKeepNeighboursFirstSeenLateInTheCorpus() {
+    CorpusTermStatistics late = new CorpusTermStatistics(tokenizer, 10_000, 4);
+    for (int i = 0; i < 20; i++) {
+      late.addDocument("early-" + i, "refund card refund receipt refund label refund invoice");
+    }
+    for (int i = 0; i < 3 * FILLERS.size(); i++) {
+      late.addDocument("late-" + i, "refund parcel " + FILLERS.get(i % FILLERS.size()));
+    }
+
+    assertTrue(late.associatedTerms(List.of("refund"), 3).contains("parcel"),
+      "A frequent neighbour must not be pruned for arriving after the map filled up");
+  }
+
+  private static Query query(String text) {
+    return Query.from(text, Metadata.from(UserMessage.from(text), "session", List.of()));
+  }
+}
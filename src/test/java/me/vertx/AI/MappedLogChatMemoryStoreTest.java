@@ -0,0 +1,123 @@
+package me.vertx.AI;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.openai.OpenAiChatModelName;
+import dev.langchain4j.model.openai.OpenAiTokenizer;
+import vertx.AI.memory.MappedLogChatMemoryStore;
+import vertx.AI.memory.SessionMemoryStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link MappedLogChatMemoryStore}: recovery after a restart, compaction and torn records.
+ */
+public class MappedLogChatMemoryStoreTest {
+
+  private static final long RETENTION_MS = 60_000;
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void shouldRestoreSessionsAfterReopening() {
+    Path log = directory.resolve("chat.log");
+
+    MappedLogChatMemoryStore store = new MappedLogChatMemoryStore(log, 4096, 0.5, RETENTION_MS);
+    store.updateMessages("a", List.of(UserMessage.from("first"), AiMessage.from("reply")));
+    store.updateMessages("b", List.of(UserMessage.from("other")));
+    store.updateMessages("a", List.of(UserMessage.from("first"), AiMessage.from("reply"), UserMessage.from("second")));
+    store.deleteMessages("b");
+    store.close();
+
+    MappedLogChatMemoryStore reopened = new MappedLogChatMemoryStore(log, 4096, 0.5, RETENTION_MS);
+    List<ChatMessage> messages = reopened.getMessages("a");
+    assertEquals(3, messages.size());
+    assertEquals("second", ((UserMessage) messages.get(2)).singleText());
+    assertTrue(reopened.getMessages("b").isEmpty());
+    assertEquals(1, reopened.toJson().getInteger("sessions"));
+    reopened.close();
+  }
+
+  @Test
+  void shouldCompactSupersededRecords() {
+    Path log = directory.resolve("chat.log");
+    MappedLogChatMemoryStore store = new MappedLogChatMemoryStore(log, 4096, 0.5, RETENTION_MS);
+
+    for (int i = 0; i < 500; i++) {
+      store.updateMessages("session-" + (i % 3), List.of(UserMessage.from("message " + i)));
+    }
+
+    assertTrue(store.toJson().getLong("compactions") > 0, "The log should have been compacted");
+    assertEquals(4096, store.toJson().getInteger("capacityBytes"), "A log of mostly garbage should not grow");
+    assertEquals("message 499", ((UserMessage) store.getMessages("session-1").get(0)).singleText());
+    store.close();
+
+    MappedLogChatMemoryStore reopened = new MappedLogChatMemoryStore(log, 4096, 0.5, RETENTION_MS);
+    assertEquals("message 498", ((UserMessage) reopened.getMessages("session-0").get(0)).singleText());
+    reopened.close();
+  }
+
+  @Test
+  void shouldIgnoreTornRecordOnRecovery() throws Exception {
+    Path log = directory.resolve("chat.log");
+    MappedLogChatMemoryStore store = new MappedLogChatMemoryStore(log, 4096, 0.5, RETENTION_MS);
+    store.updateMessages("a", List.of(UserMessage.from("kept")));
+    int intact = store.toJson().getInteger("logBytes");
+    store.updateMessages("a", List.of(UserMessage.from("torn")));
+    store.close();
+
+    // Corrupt the body of the second record, as if the process died while writing it
+    try (RandomAccessFile file = new RandomAccessFile(log.toFile(), "rw")) {
+      file.seek(intact + 20);
+      file.write(new byte[] { 1, 2, 3, 4 });
+    }
+
+    MappedLogChatMemoryStore reopened = new MappedLogChatMemoryStore(log, 4096, 0.5, RETENTION_MS);
+    assertEquals("kept", ((UserMessage) reopened.getMessages("a").get(0)).singleText());
+    assertEquals(intact, reopened.toJson().getInteger("logBytes"));
+
+    reopened.updateMessages("a", List.of(UserMessage.from("after recovery")));
+    reopened.close();
+    MappedLogChatMemoryStore recovered = new MappedLogChatMemoryStore(log, 4096, 0.5, RETENTION_MS);
+    assertEquals("after recovery", ((UserMessage) recovered.getMessages("a").get(0)).singleText());
+    recovered.close();
+  }
+
+  @Test
+  void shouldRestoreSessionsWithIdsLongerThanASignedShort() {
+    Path log = directory.resolve("chat.log");
+    String id = "x".repeat(40_000);
+    MappedLogChatMemoryStore store = new MappedLogChatMemoryStore(log, 4096, 0.5, RETENTION_MS);
+    store.updateMessages(id, List.of(UserMessage.from("long id")));
+    store.close();
+
+    MappedLogChatMemoryStore reopened = new MappedLogChatMemoryStore(log, 4096, 0.5, RETENTION_MS);
+    assertEquals("long id", ((UserMessage) reopened.getMessages(id).get(0)).singleText());
+    assertThrows(IllegalArgumentException.class,
+      () -> reopened.updateMessages("x".repeat(70_000), List.of(UserMessage.from("too long"))));
+    reopened.close();
+  }
+
+  @Test
+  void shouldLoadEvictedSessionsBackFromTheLog() {
+    MappedLogChatMemoryStore log = new MappedLogChatMemoryStore(directory.resolve("chat.log"), 4096, 0.5, RETENTION_MS);
+    SessionMemoryStore sessions = new SessionMemoryStore(new OpenAiTokenizer(OpenAiChatModelName.GPT_3_5_TURBO),
+      log, 1000, 1, 1_000_000, 60_000);
+
+    sessions.append("a", UserMessage.from("hello"), AiMessage.from("hi"));
+    sessions.append("b", UserMessage.from("hello"), AiMessage.from("hi"));
+    assertEquals(1, sessions.size(), "Only one session should stay on the heap");
+
+    assertEquals(2, sessions.history("a").size(), "The evicted session should be loaded back from the log");
+    assertEquals(2L, sessions.toJson().getLong("evictedLru"));
+    log.close();
+  }
+}
@@ -0,0 +1,75 @@
+package me.vertx.AI;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.rag.DefaultRetrievalAugmentor;
+import dev.langchain4j.rag.RetrievalAugmentor;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.store.embedding.EmbeddingStoreIngestor;
+import io.vertx.core.Future;
+import vertx.AI.config.OpenAIModelConfig;
+import vertx.AI.llm.CancellableStreamingChatLanguageModel;
+import vertx.AI.llm.StreamHandle;
+import vertx.AI.service.OpenAIServiceInterface;
+
+import java.util.List;
+
+/**
+ * Service handing out mocked models instead of OpenAI clients, for tests deploying {@code OpenAIVerticle}.
+ * <p>
+ * Retrieval uses langchain4j's default augmentor around the given content retriever, which retrieves nothing
+ * unless a test provides one, leaving user messages unchanged. Document ingestion is not supported.
+ */
+final class MockOpenAIService implements OpenAIServiceInterface {
+
+  private final ChatLanguageModel chatModel;
+  private final CancellableStreamingChatLanguageModel streamingChatModel;
+  private final ContentRetriever contentRetriever;
+
+  /**
+   * A service whose streaming model never streams and whose retriever finds nothing.
+   */
+  MockOpenAIService(ChatLanguageModel chatModel) {
+    this(chatModel, (messages, handler) -> new StreamHandle(), query -> List.of());
+  }
+
+  MockOpenAIService(ChatLanguageModel chatModel, CancellableStreamingChatLanguageModel streamingChatModel,
+                    ContentRetriever contentRetriever) {
+    this.chatModel = chatModel;
+    this.streamingChatModel = streamingChatModel;
+    this.contentRetriever = contentRetriever;
+  }
+
+  /**
+   * @return a chat model answering every prompt with the given text at once
+   */
+  static ChatLanguageModel replying(String text) {
+    return messages -> Response.from(AiMessage.from(text));
+  }
+
+  @Override
+  public Future<CancellableStreamingChatLanguageModel> initializeStreamingChatModel(OpenAIModelConfig config) {
+    return Future.succeededFuture(streamingChatModel);
+  }
+
+  @Override
+  public Future<ChatLanguageModel> initializeNonStreamingChatModel(OpenAIModelConfig config) {
+    return Future.succeededFuture(chatModel);
+  }
+
+  @Override
+  public Future<ContentRetriever> initializeContentRetriever(String apiKey, String embeddingModelName, int maxResult, double minScore) {
+    return Future.succeededFuture(contentRetriever);
+  }
+
+  @Override
+  public Future<EmbeddingStoreIngestor> initializeEmbeddingStoreIngestor(String apiKey, String embeddingModelName) {
+    return Future.failedFuture(new UnsupportedOperationException("Not used by chat requests"));
+  }
+
+  @Override
+  public Future<RetrievalAugmentor> initializeRetrievalAugmentor(ContentRetriever contentRetriever, ChatLanguageModel chatModel) {
+    return Future.succeededFuture(DefaultRetrievalAugmentor.builder().contentRetriever(contentRetriever).build());
+  }
+}
@@ -0,0 +1,112 @@
+package me.vertx.AI;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.openai.OpenAiChatModelName;
+import dev.langchain4j.model.openai.OpenAiTokenizer;
+import dev.langchain4j.model.output.Response;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import vertx.AI.constants.EventBusAddresses;
+import vertx.AI.execution.WorkerPoolBlockingExecutor;
+import vertx.AI.memory.SessionMemoryStore;
+import vertx.AI.metrics.MetricsRegistry;
+import vertx.AI.verticle.OpenAIVerticle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Regression test for the non-streaming chat path: while many requests wait on a slow (mocked) chat model,
+ * the event loop running {@link OpenAIVerticle} must stay responsive.
+ */
+@ExtendWith(VertxExtension.class)
+public class NonStreamingChatEventLoopTest {
+
+  private static final int CONCURRENT_REQUESTS = 100;
+  private static final long MODEL_LATENCY_MS = 200;
+  private static final long TICK_MS = 10;
+  private static final long MAX_EVENT_LOOP_LAG_MS = 100;
+
+  private Vertx vertx;
+
+  @BeforeEach
+  void deployVerticle(VertxTestContext testContext) {
+    // A single event loop, so the verticle and the lag probe share the same thread
+    vertx = Vertx.vertx(new VertxOptions().setEventLoopPoolSize(1));
+
+    DeploymentOptions options = new DeploymentOptions()
+      .setConfig(new JsonObject().put("OPENAI_API_KEY", "test-key"));
+
+    SessionMemoryStore sessionStore = new SessionMemoryStore(new OpenAiTokenizer(OpenAiChatModelName.GPT_3_5_TURBO),
+      4000, 1000, 1_000_000, 60_000);
+    vertx.deployVerticle(new OpenAIVerticle(new MockOpenAIService(new SlowChatModel()),
+      new WorkerPoolBlockingExecutor(vertx, "chat", 20, 1000), sessionStore, new MetricsRegistry()), options)
+      .onComplete(testContext.succeedingThenComplete());
+  }
+
+  @AfterEach
+  void closeVertx(VertxTestContext testContext) {
+    vertx.close().onComplete(testContext.succeedingThenComplete());
+  }
+
+  @Test
+  void shouldKeepEventLoopResponsiveUnderConcurrentRequests() throws Exception {
+    AtomicLong maxLagMs = new AtomicLong();
+    AtomicLong lastTick = new AtomicLong(System.nanoTime());
+
+    long probe = vertx.setPeriodic(TICK_MS, id -> {
+      long now = System.nanoTime();
+      long lagMs = TimeUnit.NANOSECONDS.toMillis(now - lastTick.getAndSet(now)) - TICK_MS;
+      maxLagMs.accumulateAndGet(lagMs, Math::max);
+    });
+
+    List<Future<Message<Object>>> replies = new ArrayList<>();
+    for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+      // One session per request: turns of a session run one after another, these should all be in flight at once
+      JsonObject request = new JsonObject()
+        .put("message", "Question " + i)
+        .put("sessionId", "session-" + i);
+      replies.add(vertx.eventBus().request(EventBusAddresses.OPENAI_CLIENT_NON_STREAMING, request));
+    }
+
+    Future.all(replies).toCompletionStage().toCompletableFuture().get(60, TimeUnit.SECONDS);
+    vertx.cancelTimer(probe);
+
+    for (Future<Message<Object>> reply : replies) {
+      assertEquals("ok", ((JsonObject) reply.result().body()).getString("response"));
+    }
+    assertTrue(maxLagMs.get() < MAX_EVENT_LOOP_LAG_MS,
+      "Event loop was blocked for " + maxLagMs.get() + " ms while requests were in flight");
+  }
+
+  /**
+   * Chat model that blocks like a slow upstream call.
+   */
+  private static final class SlowChatModel implements ChatLanguageModel {
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+      try {
+        Thread.sleep(MODEL_LATENCY_MS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return Response.from(AiMessage.from("ok"));
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package me.vertx.AI;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.rag.AugmentationRequest;
+import dev.langchain4j.rag.AugmentationResult;
+import dev.langchain4j.rag.RetrievalAugmentor;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.query.Metadata;
+import io.vertx.core.Vertx;
+import io.vertx.junit5.VertxExtension;
+import vertx.AI.config.QueryTransformConfig;
+import vertx.AI.execution.BlockingExecutor;
+import vertx.AI.execution.ExecutionMode;
+import vertx.AI.llm.AdaptiveConcurrencyLimiter;
+import vertx.AI.rag.QueryTransformMetrics;
+import vertx.AI.rag.QueryTransformMode;
+import vertx.AI.service.impl.OpenAIService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that the searches of a turn's expanded queries run at the same time on the retrieval executor, and
+ * still complete on the calling thread when that executor is saturated.
+ */
+@ExtendWith(VertxExtension.class)
+public class ParallelRetrievalTest {
+
+  private static final long SEARCH_MS = 300;
+
+  @Test
+  void shouldSearchExpandedQueriesInParallel(Vertx vertx) throws Exception {
+    BlockingExecutor retrieval = BlockingExecutor.create(vertx, ExecutionMode.WORKER, "retrieval", 8, 100);
+    try {
+      RetrievalAugmentor augmentor = augmentor(vertx, retrieval);
+
+      long start = System.nanoTime();
+      AugmentationResult result = augment(augmentor);
+      long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+      assertEquals(3, result.contents().size(), "Contents of every expanded query should be merged");
+      assertTrue(elapsedMs < 2 * SEARCH_MS, "Three searches should take about one search, took " + elapsedMs + " ms");
+      assertTrue(retrieval.toJson().getLong("completed") >= 3, "Searches should run on the retrieval executor");
+    } finally {
+      retrieval.close();
+    }
+  }
+
+  @Test
+  void shouldSearchOnCallingThreadWhenRetrievalExecutorIsFull(Vertx vertx) throws Exception {
+    BlockingExecutor retrieval = BlockingExecutor.create(vertx, ExecutionMode.WORKER, "retrieval", 1, 0);
+    CountDownLatch release = new CountDownLatch(1);
+    try {
+      // Occupies the only slot, leaving no room for the searches
+      retrieval.execute(() -> release.await(10, TimeUnit.SECONDS));
+      AugmentationResult result = augment(augmentor(vertx, retrieval));
+
+      assertEquals(3, result.contents().size());
+      assertTrue(retrieval.toJson().getLong("rejected") >= 3, "Searches should have been turned away by the executor");
+    } finally {
+      release.countDown();
+      retrieval.close();
+    }
+  }
+
+  private static RetrievalAugmentor augmentor(Vertx vertx, BlockingExecutor retrieval) throws Exception {
+    OpenAIService service = new OpenAIService(BlockingExecutor.create(vertx, ExecutionMode.WORKER, "chat", 2, 10),
+      null, new AdaptiveConcurrencyLimiter(20, 2, 200, 10_000, 0.9, 500), 1000,
+      new QueryTransformConfig(QueryTransformMode.FULL, 6, 0.85), new QueryTransformMetrics(), retrieval, null, 64, 5, null);
+    ContentRetriever slowRetriever = query -> {
+      try {
+        Thread.sleep(SEARCH_MS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return List.of(Content.from("Chunk for " + query.text()));
+    };
+    return service.initializeRetrievalAugmentor(slowRetriever, new ExpandingChatModel())
+      .toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+  }
+
+  private static AugmentationResult augment(RetrievalAugmentor augmentor) {
+    UserMessage message = UserMessage.from("How are refunds handled?");
+    return augmentor.augment(new AugmentationRequest(message, Metadata.from(message, "session", List.of())));
+  }
+
+  /**
+   * Answers every expansion prompt with three distinct query variants.
+   */
+  private static final class ExpandingChatModel implements ChatLanguageModel {
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+      return Response.from(AiMessage.from("refund policy\nrefund timeline\nrefund eligibility"));
+    }
+  }
+}
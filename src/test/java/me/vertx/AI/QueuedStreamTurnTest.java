@@ -0,0 +1,169 @@
+package me.vertx.AI;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.openai.OpenAiChatModelName;
+import dev.langchain4j.model.openai.OpenAiTokenizer;
+import dev.langchain4j.model.output.Response;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import vertx.AI.constants.EventBusAddresses;
+import vertx.AI.execution.WorkerPoolBlockingExecutor;
+import vertx.AI.llm.CancellableStreamingChatLanguageModel;
+import vertx.AI.llm.StreamHandle;
+import vertx.AI.memory.SessionMemoryStore;
+import vertx.AI.metrics.MetricsRegistry;
+import vertx.AI.verticle.OpenAIVerticle;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that a streaming turn queued behind a running turn of the same session is answered at once and only
+ * receives its own tokens and end marker, on its own address or tagged on one shared by a connection.
+ */
+@ExtendWith(VertxExtension.class)
+public class QueuedStreamTurnTest {
+
+  private static final int TOKENS = 5;
+  private static final long TOKEN_INTERVAL_MS = 100;
+
+  @Test
+  void shouldDeliverEachQueuedTurnItsOwnTokens(Vertx vertx) throws Exception {
+    SessionMemoryStore sessionStore = new SessionMemoryStore(new OpenAiTokenizer(OpenAiChatModelName.GPT_3_5_TURBO),
+      100_000, 100, 10_000_000, 60_000);
+    DeploymentOptions options = new DeploymentOptions().setConfig(new JsonObject().put("OPENAI_API_KEY", "test-key"));
+    await(vertx.deployVerticle(new OpenAIVerticle(new MockOpenAIService(MockOpenAIService.replying("ok"),
+      new SlowStreamingModel(), query -> List.of()),
+      new WorkerPoolBlockingExecutor(vertx, "chat", 4, 100), sessionStore, new MetricsRegistry()), options));
+
+    Turn first = startTurn(vertx, "first");
+    Turn second = startTurn(vertx, "second");
+
+    long start = System.nanoTime();
+    assertEquals("queued", await(first.reply).body().getString("status"));
+    assertEquals("queued", await(second.reply).body().getString("status"));
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < TOKENS * TOKEN_INTERVAL_MS,
+      "The queued turn should be answered without waiting for the running stream");
+
+    for (Turn turn : List.of(first, second)) {
+      turn.ended.get(10, TimeUnit.SECONDS);
+      assertEquals(TOKENS, turn.tokens.size(), "Tokens received by the " + turn.label + " turn: " + turn.tokens);
+      assertTrue(turn.tokens.stream().allMatch(token -> token.startsWith(turn.label)),
+        "The " + turn.label + " turn received another turn's tokens: " + turn.tokens);
+    }
+  }
+
+  @Test
+  void shouldTagTheTurnsOfAConnectionWithTheirStreamIds(Vertx vertx) throws Exception {
+    SessionMemoryStore sessionStore = new SessionMemoryStore(new OpenAiTokenizer(OpenAiChatModelName.GPT_3_5_TURBO),
+      100_000, 100, 10_000_000, 60_000);
+    DeploymentOptions options = new DeploymentOptions().setConfig(new JsonObject().put("OPENAI_API_KEY", "test-key"));
+    await(vertx.deployVerticle(new OpenAIVerticle(new MockOpenAIService(MockOpenAIService.replying("ok"),
+      new SlowStreamingModel(), query -> List.of()),
+      new WorkerPoolBlockingExecutor(vertx, "chat", 4, 100), sessionStore, new MetricsRegistry()), options));
+
+    String responseAddress = EventBusAddresses.connectionStreamingAddress("connection");
+    Map<String, Turn> turns = Map.of("first-stream", new Turn("first"), "second-stream", new Turn("second"));
+    MessageConsumer<Object> consumer = vertx.eventBus().consumer(responseAddress);
+    consumer.handler(message -> {
+      Turn turn = turns.get(message.headers().get(EventBusAddresses.STREAM_ID_HEADER));
+      if (message.body() instanceof String token) {
+        turn.tokens.add(token);
+      } else {
+        turn.ended.complete(null);
+      }
+    });
+    Promise<Void> registered = Promise.promise();
+    consumer.completionHandler(registered);
+    await(registered.future());
+
+    for (Map.Entry<String, Turn> entry : turns.entrySet()) {
+      await(vertx.eventBus().request(EventBusAddresses.OPENAI_CLIENT_STREAMING, new JsonObject()
+        .put("message", entry.getValue().label)
+        .put("sessionId", "session")
+        .put("streamId", entry.getKey())
+        .put("responseAddress", responseAddress)));
+    }
+
+    for (Turn turn : turns.values()) {
+      turn.ended.get(10, TimeUnit.SECONDS);
+      assertEquals(TOKENS, turn.tokens.size(), "Tokens received by the " + turn.label + " turn: " + turn.tokens);
+      assertTrue(turn.tokens.stream().allMatch(token -> token.startsWith(turn.label)),
+        "The " + turn.label + " turn received another turn's tokens: " + turn.tokens);
+    }
+  }
+
+  private static Turn startTurn(Vertx vertx, String label) throws Exception {
+    String streamId = label + "-stream";
+    Turn turn = new Turn(label);
+    MessageConsumer<Object> consumer = vertx.eventBus()
+      .consumer(EventBusAddresses.responseStreamingAddress("session", streamId));
+    consumer.handler(message -> {
+      if (message.body() instanceof String token) {
+        turn.tokens.add(token);
+      } else {
+        consumer.unregister();
+        turn.ended.complete(null);
+      }
+    });
+    turn.reply = vertx.eventBus().request(EventBusAddresses.OPENAI_CLIENT_STREAMING, new JsonObject()
+      .put("message", label)
+      .put("sessionId", "session")
+      .put("streamId", streamId));
+    return turn;
+  }
+
+  private static <T> T await(Future<T> future) throws Exception {
+    return future.toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+  }
+
+  private static final class Turn {
+    private final String label;
+    private final List<String> tokens = new CopyOnWriteArrayList<>();
+    private final CompletableFuture<Void> ended = new CompletableFuture<>();
+    private Future<Message<JsonObject>> reply;
+
+    private Turn(String label) {
+      this.label = label;
+    }
+  }
+
+  /**
+   * Streams a few tokens named after the user's question, slowly, from a separate thread.
+   */
+  private static final class SlowStreamingModel implements CancellableStreamingChatLanguageModel {
+    @Override
+    public StreamHandle stream(List<ChatMessage> messages, StreamingResponseHandler<AiMessage> handler) {
+      String prompt = ((UserMessage) messages.get(messages.size() - 1)).singleText();
+      String label = prompt.substring(prompt.lastIndexOf('\n') + 1);
+      Thread.ofVirtual().start(() -> {
+        try {
+          for (int i = 0; i < TOKENS; i++) {
+            Thread.sleep(TOKEN_INTERVAL_MS);
+            handler.onNext(label + " " + i);
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        handler.onComplete(Response.from(AiMessage.from(label)));
+      });
+      return new StreamHandle();
+    }
+  }
+}
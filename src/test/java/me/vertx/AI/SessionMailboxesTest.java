@@ -0,0 +1,123 @@
+package me.vertx.AI;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import vertx.AI.session.SessionMailboxMetrics;
+import vertx.AI.session.SessionMailboxes;
+import vertx.AI.session.SessionMailboxes.SessionBusyException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link SessionMailboxes}: turns of a session run one at a time and in order, turns of different
+ * sessions overlap, and a session's backlog is bounded.
+ */
+@ExtendWith(VertxExtension.class)
+public class SessionMailboxesTest {
+
+  @Test
+  void shouldRunTurnsOfSessionInOrderOneAtATime(Vertx vertx) throws Exception {
+    Context context = vertx.getOrCreateContext();
+    SessionMailboxes mailboxes = new SessionMailboxes(context, 10, new SessionMailboxMetrics());
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    List<Integer> order = new ArrayList<>();
+
+    List<Future<Integer>> turns = onContext(context, () -> {
+      List<Future<Integer>> futures = new ArrayList<>();
+      for (int i = 0; i < 5; i++) {
+        int turn = i;
+        futures.add(mailboxes.submit("session", () -> {
+          maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+          order.add(turn);
+          return vertx.executeBlocking(() -> {
+            Thread.sleep(20);
+            running.decrementAndGet();
+            return turn;
+          }, false);
+        }));
+      }
+      return futures;
+    });
+
+    await(Future.all(turns));
+    assertEquals(List.of(0, 1, 2, 3, 4), order);
+    assertEquals(1, maxRunning.get(), "Turns of a session should never overlap");
+  }
+
+  @Test
+  void shouldRunDifferentSessionsConcurrently(Vertx vertx) throws Exception {
+    Context context = vertx.getOrCreateContext();
+    SessionMailboxes mailboxes = new SessionMailboxes(context, 10, new SessionMailboxMetrics());
+    Promise<Void> firstStarted = Promise.promise();
+    Promise<Void> secondStarted = Promise.promise();
+
+    List<Future<Void>> turns = onContext(context, () -> List.of(
+      mailboxes.submit("a", () -> {
+        firstStarted.complete();
+        return secondStarted.future();
+      }),
+      mailboxes.submit("b", () -> {
+        secondStarted.complete();
+        return firstStarted.future();
+      })));
+
+    // Each turn waits for the other to start, so this only completes if the sessions run side by side
+    await(Future.all(turns));
+  }
+
+  @Test
+  void shouldRejectTurnsBeyondPendingLimit(Vertx vertx) throws Exception {
+    Context context = vertx.getOrCreateContext();
+    SessionMailboxMetrics metrics = new SessionMailboxMetrics();
+    SessionMailboxes mailboxes = new SessionMailboxes(context, 2, metrics);
+    Promise<String> blocker = Promise.promise();
+
+    List<Future<String>> turns = onContext(context, () -> List.of(
+      mailboxes.submit("session", blocker::future),
+      mailboxes.submit("session", () -> Future.succeededFuture("second")),
+      mailboxes.submit("session", () -> Future.succeededFuture("third")),
+      mailboxes.submit("session", () -> Future.succeededFuture("fourth")),
+      mailboxes.submit("other", () -> Future.succeededFuture("other"))));
+
+    assertInstanceOf(SessionBusyException.class, turns.get(3).cause());
+    assertEquals("other", await(turns.get(4)), "Other sessions should not be affected");
+
+    JsonObject busy = metrics.toJson();
+    assertEquals(2, busy.getInteger("pendingTurns"));
+    assertEquals(1L, busy.getLong("rejected"));
+
+    context.runOnContext(v -> blocker.complete("first"));
+    assertEquals("third", await(turns.get(2)));
+    assertEquals("first", await(turns.get(0)));
+
+    JsonObject idle = metrics.toJson();
+    assertEquals(0, idle.getInteger("activeSessions"));
+    assertEquals(0, idle.getInteger("runningTurns"));
+    assertEquals(0, idle.getInteger("pendingTurns"));
+    assertEquals(4L, idle.getLong("turns"));
+  }
+
+  private static <T> T onContext(Context context, Supplier<T> action) throws Exception {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    context.runOnContext(v -> result.complete(action.get()));
+    return result.get(5, TimeUnit.SECONDS);
+  }
+
+  private static <T> T await(Future<T> future) throws Exception {
+    return future.toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+  }
+}
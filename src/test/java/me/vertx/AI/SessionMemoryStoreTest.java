@@ -0,0 +1,63 @@
+package me.vertx.AI;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.openai.OpenAiChatModelName;
+import dev.langchain4j.model.openai.OpenAiTokenizer;
+import io.vertx.core.json.JsonObject;
+import vertx.AI.memory.SessionMemoryStore;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the eviction rules of {@link SessionMemoryStore}.
+ */
+public class SessionMemoryStoreTest {
+
+  private static final OpenAiTokenizer TOKENIZER = new OpenAiTokenizer(OpenAiChatModelName.GPT_3_5_TURBO);
+
+  @Test
+  void shouldEvictLeastRecentlyUsedSessionWhenFull() {
+    SessionMemoryStore store = new SessionMemoryStore(TOKENIZER, 1000, 2, 1_000_000, 60_000);
+
+    store.append("a", UserMessage.from("hello"), AiMessage.from("hi"));
+    store.append("b", UserMessage.from("hello"), AiMessage.from("hi"));
+    store.history("a");
+    store.append("c", UserMessage.from("hello"), AiMessage.from("hi"));
+
+    assertEquals(2, store.size());
+    assertEquals(2, store.history("a").size());
+    assertTrue(store.history("b").isEmpty(), "The least recently used session should have been evicted");
+    assertEquals(1L, store.toJson().getLong("evictedLru"));
+  }
+
+  @Test
+  void shouldEvictSessionsOverTheTokenBudget() {
+    SessionMemoryStore store = new SessionMemoryStore(TOKENIZER, 1000, 100, 150, 60_000);
+    String text = "word ".repeat(50);
+
+    store.append("a", UserMessage.from(text));
+    store.append("b", UserMessage.from(text));
+    store.append("c", UserMessage.from(text));
+
+    JsonObject metrics = store.toJson();
+    assertTrue(metrics.getLong("totalTokens") <= 150, "Total tokens should stay within the budget");
+    assertTrue(metrics.getLong("evictedTokenBudget") >= 1);
+    assertFalse(store.history("c").isEmpty(), "The session being written should be kept");
+  }
+
+  @Test
+  void shouldExpireIdleSessions() throws Exception {
+    SessionMemoryStore store = new SessionMemoryStore(TOKENIZER, 1000, 100, 1_000_000, 50);
+
+    store.append("a", UserMessage.from("hello"));
+    store.append("b", UserMessage.from("hello"));
+    Thread.sleep(100);
+
+    assertEquals(2, store.evictExpired());
+    assertEquals(0, store.size());
+    assertEquals(0L, store.toJson().getLong("totalTokens"));
+    assertTrue(store.history("a").isEmpty());
+  }
+}
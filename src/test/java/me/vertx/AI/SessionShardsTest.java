@@ -0,0 +1,116 @@
+package me.vertx.AI;
+
+import dev.langchain4j.model.openai.OpenAiChatModelName;
+import dev.langchain4j.model.openai.OpenAiTokenizer;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import vertx.AI.constants.EventBusAddresses;
+import vertx.AI.execution.WorkerPoolBlockingExecutor;
+import vertx.AI.memory.SessionMemoryStore;
+import vertx.AI.metrics.MetricsRegistry;
+import vertx.AI.session.SessionShards;
+import vertx.AI.verticle.OpenAIVerticle;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link SessionShards}: sessions spread evenly over the shards, adding a shard moves only a small
+ * fraction of them, and sharded {@link OpenAIVerticle} instances each serve only the sessions they own.
+ */
+@ExtendWith(VertxExtension.class)
+public class SessionShardsTest {
+
+  private static final int SESSIONS = 20_000;
+
+  @Test
+  void shouldSpreadSessionsEvenlyOverShards() {
+    SessionShards shards = new SessionShards(8, 160);
+    int[] counts = new int[8];
+    for (int i = 0; i < SESSIONS; i++) {
+      counts[shards.shardOf("session-" + i)]++;
+    }
+
+    int expected = SESSIONS / 8;
+    for (int count : counts) {
+      assertTrue(Math.abs(count - expected) < expected * 0.25,
+        "Shard load should stay within 25% of the mean: " + count + " vs " + expected);
+    }
+  }
+
+  @Test
+  void shouldOnlyMoveSessionsToAddedShard() {
+    SessionShards before = new SessionShards(4, 160);
+    SessionShards after = new SessionShards(5, 160);
+
+    int moved = 0;
+    for (int i = 0; i < SESSIONS; i++) {
+      String sessionId = "session-" + i;
+      int oldShard = before.shardOf(sessionId);
+      int newShard = after.shardOf(sessionId);
+      if (oldShard != newShard) {
+        assertEquals(4, newShard, "Sessions should only move to the new shard");
+        moved++;
+      }
+    }
+    assertTrue(moved < SESSIONS * 0.3, "About a fifth of the sessions should move, moved " + moved);
+  }
+
+  @Test
+  void shouldUsePlainAddressesWithSingleShard() {
+    assertEquals(EventBusAddresses.OPENAI_CLIENT_STREAMING,
+      SessionShards.single().addressFor(EventBusAddresses.OPENAI_CLIENT_STREAMING, "session"));
+
+    SessionShards shards = new SessionShards(4, 16);
+    assertEquals(EventBusAddresses.OPENAI_CLIENT_STREAMING + "." + shards.shardOf("session"),
+      shards.addressFor(EventBusAddresses.OPENAI_CLIENT_STREAMING, "session"));
+  }
+
+  @Test
+  void shouldServeEachSessionOnItsOwnShard(Vertx vertx) throws Exception {
+    SessionShards shards = new SessionShards(4, 160);
+    MetricsRegistry metricsRegistry = new MetricsRegistry();
+    WorkerPoolBlockingExecutor executor = new WorkerPoolBlockingExecutor(vertx, "chat-sharded", 4, 1000);
+    DeploymentOptions options = new DeploymentOptions()
+      .setConfig(new JsonObject().put("OPENAI_API_KEY", "test-key"));
+
+    List<SessionMemoryStore> stores = new ArrayList<>();
+    List<Future<String>> deployments = new ArrayList<>();
+    for (int shard = 0; shard < shards.shardCount(); shard++) {
+      SessionMemoryStore store = new SessionMemoryStore(new OpenAiTokenizer(OpenAiChatModelName.GPT_3_5_TURBO),
+        4000, 1000, 1_000_000, 60_000);
+      stores.add(store);
+      deployments.add(vertx.deployVerticle(new OpenAIVerticle(new MockOpenAIService(MockOpenAIService.replying("ok")), executor, store,
+        metricsRegistry, shards, shard), options));
+    }
+    await(Future.all(deployments));
+
+    int[] expected = new int[shards.shardCount()];
+    List<Future<Message<Object>>> replies = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      String sessionId = "session-" + i;
+      expected[shards.shardOf(sessionId)]++;
+      JsonObject request = new JsonObject().put("message", "Question " + i).put("sessionId", sessionId);
+      replies.add(vertx.eventBus().request(
+        shards.addressFor(EventBusAddresses.OPENAI_CLIENT_NON_STREAMING, sessionId), request));
+    }
+    await(Future.all(replies));
+
+    for (int shard = 0; shard < shards.shardCount(); shard++) {
+      assertEquals(expected[shard], stores.get(shard).size(), "Shard " + shard + " should hold exactly its sessions");
+    }
+  }
+
+  private static <T> T await(Future<T> future) throws Exception {
+    return future.toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+  }
+}
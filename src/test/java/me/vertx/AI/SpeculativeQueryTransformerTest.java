@@ -0,0 +1,159 @@
+package me.vertx.AI;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.query.Metadata;
+import dev.langchain4j.rag.query.Query;
+import dev.langchain4j.rag.query.transformer.QueryTransformer;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
+import io.vertx.core.json.JsonObject;
+import vertx.AI.rag.QueryProbe;
+import vertx.AI.rag.QueryTransformMetrics;
+import vertx.AI.rag.SpeculativeQueryTransformer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that {@link SpeculativeQueryTransformer} answers from the raw query's search without waiting for a slow
+ * rewrite when that search is confident, and merges both otherwise.
+ */
+public class SpeculativeQueryTransformerTest {
+
+  private static final String REFUND_CHUNK = "Refunds are granted within thirty days of purchase.";
+  private static final long REWRITE_MS = 1000;
+
+  private final ExecutorService searchExecutor = Executors.newCachedThreadPool();
+  private final ExecutorService rewriteExecutor = Executors.newCachedThreadPool();
+  private final QueryTransformMetrics metrics = new QueryTransformMetrics();
+  private final ContentRetriever noSearch = q -> {
+    throw new AssertionError("Speculatively searched queries should not be searched again");
+  };
+
+  @AfterEach
+  void shutdown() {
+    searchExecutor.shutdownNow();
+    rewriteExecutor.shutdownNow();
+  }
+
+  @Test
+  void shouldUseConfidentRawSearchWithoutWaitingForRewrite() {
+    QueryProbe probe = probe(new KeywordEmbeddingModel());
+    SpeculativeQueryTransformer transformer = new SpeculativeQueryTransformer(slowRewrite(), probe, 0.9, searchExecutor,
+      rewriteExecutor, metrics);
+    Query query = query("How long do I have to ask for a refund?");
+
+    long start = System.nanoTime();
+    Collection<Query> queries = transformer.transform(query);
+    long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    assertEquals(List.of(query), List.copyOf(queries));
+    assertTrue(elapsedMs < REWRITE_MS / 2, "The turn should not wait for the rewrite, took " + elapsedMs + " ms");
+    assertEquals(List.of(Content.from(REFUND_CHUNK)), probe.reusingProbes(noSearch).retrieve(query));
+    JsonObject speculation = metrics.toJson().getJsonObject("speculation");
+    assertEquals(1, speculation.getLong("wins"));
+    assertEquals(1.0, speculation.getDouble("winRate"));
+  }
+
+  @Test
+  void shouldMergeRawQueryWithRewriteWhenRawSearchIsWeak() {
+    QueryProbe probe = probe(new KeywordEmbeddingModel());
+    SpeculativeQueryTransformer transformer = new SpeculativeQueryTransformer(slowRewrite(), probe, 0.9, searchExecutor,
+      rewriteExecutor, metrics);
+    Query query = query("What are the shipping options?");
+
+    List<Query> queries = List.copyOf(transformer.transform(query));
+
+    assertEquals(List.of("rewrite one", "rewrite two", query.text()), queries.stream().map(Query::text).toList());
+    assertEquals(List.of(Content.from(REFUND_CHUNK)), probe.reusingProbes(noSearch).retrieve(query),
+      "The raw query should be retrieved from its speculative search");
+    JsonObject speculation = metrics.toJson().getJsonObject("speculation");
+    assertEquals(1, speculation.getLong("merged"));
+    assertEquals(0.0, speculation.getDouble("winRate"));
+  }
+
+  @Test
+  void shouldFallBackToRewriteWhenRawSearchFails() {
+    EmbeddingModel failing = segments -> {
+      throw new IllegalStateException("Embedding service unavailable");
+    };
+    SpeculativeQueryTransformer transformer = new SpeculativeQueryTransformer(slowRewrite(), probe(failing), 0.9,
+      searchExecutor, rewriteExecutor, metrics);
+
+    Collection<Query> queries = transformer.transform(query("What are the shipping options?"));
+
+    assertEquals(2, queries.size());
+    assertEquals(1, metrics.toJson().getJsonObject("speculation").getLong("failed"));
+  }
+
+  @Test
+  void shouldRewriteOnTheWaitingTurnWhenTheChatExecutorIsBusy() {
+    List<Runnable> queued = new ArrayList<>();
+    AtomicInteger rewrites = new AtomicInteger();
+    QueryTransformer rewrite = query -> {
+      rewrites.incrementAndGet();
+      return List.of(Query.from("rewrite", query.metadata()));
+    };
+    SpeculativeQueryTransformer transformer = new SpeculativeQueryTransformer(rewrite,
+      probe(new KeywordEmbeddingModel()), 0.9, searchExecutor, queued::add, metrics);
+
+    List<Query> merged = List.copyOf(transformer.transform(query("What are the shipping options?")));
+    Collection<Query> won = transformer.transform(query("How long do I have to ask for a refund?"));
+    queued.forEach(Runnable::run);
+
+    assertEquals(List.of("rewrite", "What are the shipping options?"), merged.stream().map(Query::text).toList());
+    assertEquals(1, won.size());
+    assertEquals(1, rewrites.get(), "The rewrite of the winning query should be skipped, not run late");
+  }
+
+  private static QueryProbe probe(EmbeddingModel embeddingModel) {
+    InMemoryEmbeddingStore<TextSegment> store = new InMemoryEmbeddingStore<>();
+    TextSegment segment = TextSegment.from(REFUND_CHUNK);
+    store.add(Embedding.from(new float[] { 1, 0 }), segment);
+    return new QueryProbe(embeddingModel, store, 5, 0.0);
+  }
+
+  private static QueryTransformer slowRewrite() {
+    return query -> {
+      try {
+        Thread.sleep(REWRITE_MS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return List.of(Query.from("rewrite one", query.metadata()), Query.from("rewrite two", query.metadata()));
+    };
+  }
+
+  private static Query query(String text) {
+    return Query.from(text, Metadata.from(UserMessage.from(text), "session", List.of()));
+  }
+
+  /**
+   * Embeds texts mentioning refunds onto the stored chunk and everything else halfway away from it.
+   */
+  private static final class KeywordEmbeddingModel implements EmbeddingModel {
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> segments) {
+      List<Embedding> embeddings = new ArrayList<>();
+      for (TextSegment segment : segments) {
+        boolean refund = segment.text().toLowerCase().contains("refund");
+        embeddings.add(Embedding.from(refund ? new float[] { 1, 0 } : new float[] { 0, 1 }));
+      }
+      return Response.from(embeddings);
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package me.vertx.AI;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import vertx.AI.http.SseFrameEncoder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SseFrameEncoderTest {
+
+  @Test
+  void shouldProduceSameBytesAsJsonObjectEncoding() {
+    String[] tokens = {"Hello", " \"quoted\"", "back\\slash", "line\nbreak\ttab", "\u0001", "café", "日本", "👍", ""};
+
+    for (String token : tokens) {
+      Buffer expected = Buffer.buffer("data: " + new JsonObject().put("token", token).encode() + "\n\n");
+      assertEquals(expected, SseFrameEncoder.encodeToken(token), "Frame mismatch for token: " + token);
+    }
+  }
+
+  @Test
+  void shouldCoalesceTokensIntoSingleFrame() {
+    Buffer frame = SseFrameEncoder.startFrame(16);
+    SseFrameEncoder.appendEscaped(frame, "Hello");
+    SseFrameEncoder.appendEscaped(frame, " world");
+    SseFrameEncoder.finishFrame(frame);
+
+    String frameText = frame.toString();
+    assertTrue(frameText.startsWith("data: "));
+    assertTrue(frameText.endsWith("\n\n"));
+    assertEquals("Hello world", new JsonObject(frameText.substring(6).trim()).getString("token"));
+  }
+}
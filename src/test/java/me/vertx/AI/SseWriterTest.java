@@ -0,0 +1,149 @@
+package me.vertx.AI;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import vertx.AI.http.SseMetrics;
+import vertx.AI.http.SseWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks how {@link SseWriter} coalesces tokens into frames, and that a stalled client gets the tokens it missed
+ * as one frame once it drains. The response is a stub whose write queue the test fills and drains.
+ */
+@ExtendWith(VertxExtension.class)
+public class SseWriterTest {
+
+  @Test
+  void shouldCoalesceTokensWithinTheFlushWindow(Vertx vertx) throws Exception {
+    StubResponse response = new StubResponse();
+    Context context = vertx.getOrCreateContext();
+    SseWriter writer = onContext(context, () -> new SseWriter(vertx, response.proxy(), 50, 1024, new SseMetrics()));
+
+    onContext(context, () -> {
+      writer.writeToken("Hello");
+      writer.writeToken(" world");
+      return null;
+    });
+    assertEquals(List.of(), response.tokens(), "Tokens should wait for the flush window");
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (response.frames.isEmpty()) {
+      assertTrue(System.nanoTime() < deadline, "The flush window should elapse");
+      Thread.sleep(10);
+    }
+    assertEquals(List.of("Hello world"), response.tokens());
+  }
+
+  @Test
+  void shouldFlushAtOnceWhenTheFrameReachesItsMaximumSize(Vertx vertx) throws Exception {
+    StubResponse response = new StubResponse();
+    Context context = vertx.getOrCreateContext();
+    SseWriter writer = onContext(context, () -> new SseWriter(vertx, response.proxy(), 60_000, 8, new SseMetrics()));
+
+    onContext(context, () -> {
+      writer.writeToken("Hello");
+      writer.writeToken(" world");
+      writer.writeToken("!");
+      writer.end();
+      return null;
+    });
+
+    assertEquals(List.of("Hello world", "!"), response.tokens());
+    assertTrue(response.ended);
+  }
+
+  @Test
+  void shouldCoalesceTokensWhileStalledAndFlushThemOnDrain(Vertx vertx) throws Exception {
+    StubResponse response = new StubResponse();
+    SseMetrics metrics = new SseMetrics();
+    Context context = vertx.getOrCreateContext();
+    SseWriter writer = onContext(context, () -> new SseWriter(vertx, response.proxy(), 0, 1024, metrics));
+
+    onContext(context, () -> {
+      response.queueFull = true;
+      writer.writeToken("a");
+      writer.writeToken("b");
+      writer.writeToken("c");
+      return null;
+    });
+    assertEquals(List.of("a"), response.tokens(), "Nothing should be written while the client is stalled");
+    assertEquals(1, metrics.toJson().getInteger("stalledClients"));
+
+    onContext(context, () -> {
+      response.queueFull = false;
+      response.drainHandler.handle(null);
+      writer.writeToken("d");
+      writer.end();
+      return null;
+    });
+    assertEquals(List.of("a", "bc", "d"), response.tokens());
+    assertEquals(0, metrics.toJson().getInteger("stalledClients"));
+    assertEquals(0, metrics.toJson().getInteger("activeStreams"));
+  }
+
+  private static <T> T onContext(Context context, Callable<T> action) throws Exception {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    context.runOnContext(v -> {
+      try {
+        result.complete(action.call());
+      } catch (Throwable e) {
+        result.completeExceptionally(e);
+      }
+    });
+    return result.get(5, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Records the frames written to a response whose write queue is full while {@link #queueFull} is set.
+   */
+  private static final class StubResponse {
+    private final List<Buffer> frames = new CopyOnWriteArrayList<>();
+    private volatile boolean queueFull;
+    private volatile boolean ended;
+    private volatile Handler<Void> drainHandler;
+
+    @SuppressWarnings("unchecked")
+    private HttpServerResponse proxy() {
+      return (HttpServerResponse) Proxy.newProxyInstance(HttpServerResponse.class.getClassLoader(),
+        new Class<?>[] { HttpServerResponse.class }, (proxy, method, args) -> switch (method.getName()) {
+          case "write" -> {
+            frames.add((Buffer) args[0]);
+            yield Future.succeededFuture();
+          }
+          case "writeQueueFull" -> queueFull;
+          case "drainHandler" -> {
+            drainHandler = (Handler<Void>) args[0];
+            yield proxy;
+          }
+          case "ended" -> ended;
+          case "end" -> {
+            ended = true;
+            yield Future.succeededFuture();
+          }
+          default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private List<String> tokens() {
+      return frames.stream()
+        .map(frame -> new JsonObject(frame.toString().substring("data: ".length()).trim()).getString("token"))
+        .toList();
+    }
+  }
+}
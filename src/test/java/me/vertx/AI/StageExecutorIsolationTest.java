@@ -0,0 +1,65 @@
+package me.vertx.AI;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import vertx.AI.execution.BlockingExecutor;
+import vertx.AI.execution.ExecutionMode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that per-stage executors are isolated: a saturated ingestion executor neither delays chat tasks nor
+ * queues beyond its limit.
+ */
+@ExtendWith(VertxExtension.class)
+public class StageExecutorIsolationTest {
+
+  @Test
+  void shouldRunChatTasksWhileIngestionIsSaturated(Vertx vertx) throws Exception {
+    for (ExecutionMode mode : ExecutionMode.values()) {
+      BlockingExecutor ingestion = BlockingExecutor.create(vertx, mode, "ingestion-" + mode.configName(), 2, 4);
+      BlockingExecutor chat = BlockingExecutor.create(vertx, mode, "chat-" + mode.configName(), 2, 10);
+      CountDownLatch release = new CountDownLatch(1);
+      CountDownLatch started = new CountDownLatch(2);
+
+      try {
+        // Submitted in one burst: admission must not depend on the threads having picked up the first tasks
+        for (int i = 0; i < 6; i++) {
+          ingestion.execute(() -> {
+            started.countDown();
+            return release.await(10, TimeUnit.SECONDS);
+          });
+        }
+
+        Future<Boolean> overflow = ingestion.execute(() -> true);
+        assertTrue(overflow.failed(), "Ingestion should reject tasks beyond its queue limit");
+        assertInstanceOf(RejectedExecutionException.class, overflow.cause());
+
+        long start = System.nanoTime();
+        String reply = chat.execute(() -> "ok").toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("ok", reply);
+        assertTrue(elapsedMs < 1000, "Chat task waited " + elapsedMs + " ms behind ingestion");
+
+        assertTrue(started.await(5, TimeUnit.SECONDS), "Ingestion should run two tasks");
+        JsonObject metrics = ingestion.toJson();
+        assertEquals(2, metrics.getInteger("activeThreads"));
+        assertEquals(4, metrics.getInteger("queued"));
+        assertEquals(1L, metrics.getLong("rejected"));
+      } finally {
+        release.countDown();
+        ingestion.close();
+        chat.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,218 @@
+package me.vertx.AI;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.output.Response;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import vertx.AI.config.OpenAIModelConfig;
+import vertx.AI.llm.AdaptiveConcurrencyLimiter;
+import vertx.AI.llm.CancellableStreamingChatLanguageModel;
+import vertx.AI.llm.LimitedStreamingChatLanguageModel;
+import vertx.AI.llm.OpenAiCancellableStreamingChatModel;
+import vertx.AI.llm.StreamHandle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that cancelling a stream aborts the upstream request and releases its limiter permit once the request has
+ * ended, using a local mock of the OpenAI chat completions endpoint that streams tokens slowly.
+ */
+@ExtendWith(VertxExtension.class)
+public class StreamCancellationTest {
+
+  private static final int STREAMED_TOKENS = 500;
+  private static final List<ChatMessage> MESSAGES = List.of(UserMessage.from("Hello"));
+
+  private HttpServer mockServer;
+  private final AtomicInteger requests = new AtomicInteger();
+  private volatile CountDownLatch upstreamClosed;
+  private volatile int silentTicks;
+
+  @BeforeEach
+  void startMockServer(Vertx vertx, VertxTestContext testContext) {
+    upstreamClosed = new CountDownLatch(1);
+
+    mockServer = vertx.createHttpServer().requestHandler(request -> {
+      requests.incrementAndGet();
+      HttpServerResponse response = request.response()
+        .setChunked(true)
+        .putHeader("Content-Type", "text/event-stream");
+
+      AtomicInteger sent = new AtomicInteger();
+      AtomicInteger silent = new AtomicInteger(silentTicks);
+      long timerId = vertx.setPeriodic(10, id -> {
+        if (silent.getAndDecrement() > 0) {
+          return;
+        }
+        if (sent.incrementAndGet() > STREAMED_TOKENS) {
+          vertx.cancelTimer(id);
+          response.end("data: [DONE]\n\n");
+        } else {
+          response.write("data: " + chunk("token ") + "\n\n");
+        }
+      });
+
+      response.closeHandler(v -> {
+        vertx.cancelTimer(timerId);
+        upstreamClosed.countDown();
+      });
+    });
+
+    mockServer.listen(0).onComplete(testContext.succeedingThenComplete());
+  }
+
+  @AfterEach
+  void stopMockServer(VertxTestContext testContext) {
+    mockServer.close().onComplete(testContext.succeedingThenComplete());
+  }
+
+  @Test
+  void shouldAbortUpstreamStreamAndReleasePermitWhenCancelled() throws Exception {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 4, 10_000, 0.5, 10);
+    CancellableStreamingChatLanguageModel model = new LimitedStreamingChatLanguageModel(mockModel(), limiter);
+
+    CountDownLatch firstTokens = new CountDownLatch(3);
+    AtomicInteger tokens = new AtomicInteger();
+    AtomicBoolean finished = new AtomicBoolean();
+
+    StreamHandle handle = model.stream(MESSAGES, new StreamingResponseHandler<>() {
+      @Override
+      public void onNext(String token) {
+        tokens.incrementAndGet();
+        firstTokens.countDown();
+      }
+
+      @Override
+      public void onComplete(Response<AiMessage> response) {
+        finished.set(true);
+      }
+
+      @Override
+      public void onError(Throwable error) {
+        finished.set(true);
+      }
+    });
+
+    assertTrue(firstTokens.await(10, TimeUnit.SECONDS), "Stream should start delivering tokens");
+    handle.cancel();
+    int tokensAtCancel = tokens.get();
+
+    assertTrue(upstreamClosed.await(10, TimeUnit.SECONDS), "Upstream connection should be closed after cancellation");
+    awaitReleased(limiter);
+
+    Thread.sleep(100);
+    assertTrue(tokens.get() <= tokensAtCancel + 1, "No tokens should be delivered after cancellation");
+    assertFalse(finished.get(), "A cancelled stream should not complete or fail");
+  }
+
+  @Test
+  void shouldNotReachUpstreamWhenCancelledWhileWaitingForPermit() throws Exception {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 10_000, 0.5, 10);
+    CancellableStreamingChatLanguageModel model = new LimitedStreamingChatLanguageModel(mockModel(), limiter);
+
+    CountDownLatch firstToken = new CountDownLatch(1);
+    StreamHandle running = model.stream(MESSAGES, new IgnoringHandler(firstToken));
+    StreamHandle queued = model.stream(MESSAGES, new IgnoringHandler(new CountDownLatch(1)));
+
+    assertTrue(firstToken.await(10, TimeUnit.SECONDS), "First stream should hold the only permit");
+    assertEquals(1, limiter.toJson().getInteger("queueLength"));
+
+    queued.cancel();
+    assertEquals(0, limiter.toJson().getInteger("queueLength"));
+
+    running.cancel();
+    assertTrue(upstreamClosed.await(10, TimeUnit.SECONDS));
+    awaitReleased(limiter);
+    assertEquals(1, requests.get(), "The cancelled queued stream should never reach the upstream");
+  }
+
+  @Test
+  void shouldHoldPermitUntilUpstreamEndsWhenCancelledBeforeFirstToken() throws Exception {
+    silentTicks = 50;
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 10_000, 0.5, 10);
+    CancellableStreamingChatLanguageModel model = new LimitedStreamingChatLanguageModel(mockModel(), limiter);
+
+    StreamHandle handle = model.stream(MESSAGES, new IgnoringHandler(new CountDownLatch(1)));
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (requests.get() == 0) {
+      assertTrue(System.nanoTime() < deadline, "Stream should reach the upstream");
+      Thread.sleep(10);
+    }
+    handle.cancel();
+
+    assertEquals(1, limiter.toJson().getInteger("inFlight"), "The permit should be held while the upstream request is open");
+    assertFalse(handle.ended().isDone());
+    assertTrue(upstreamClosed.await(10, TimeUnit.SECONDS), "Upstream connection should be closed on the first token");
+    awaitReleased(limiter);
+    handle.ended().get(10, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Waits for the permit of an aborted stream, which is returned once the client has reported the end of the call.
+   */
+  private static void awaitReleased(AdaptiveConcurrencyLimiter limiter) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (limiter.toJson().getInteger("inFlight") > 0) {
+      assertTrue(System.nanoTime() < deadline, "The permit should be released once the upstream request has ended");
+      Thread.sleep(10);
+    }
+  }
+
+  private CancellableStreamingChatLanguageModel mockModel() {
+    return new OpenAiCancellableStreamingChatModel(OpenAIModelConfig.builder()
+      .baseUrl("http://localhost:" + mockServer.actualPort() + "/v1/")
+      .apiKey("test-key")
+      .modelName("gpt-3.5-turbo")
+      .build());
+  }
+
+  private static String chunk(String content) {
+    return new JsonObject()
+      .put("id", "chatcmpl-test")
+      .put("object", "chat.completion.chunk")
+      .put("created", 0)
+      .put("model", "gpt-3.5-turbo")
+      .put("choices", new JsonArray().add(new JsonObject()
+        .put("index", 0)
+        .put("delta", new JsonObject().put("content", content))))
+      .encode();
+  }
+
+  /**
+   * Counts down on the first token and ignores everything else.
+   */
+  private static final class IgnoringHandler implements StreamingResponseHandler<AiMessage> {
+    private final CountDownLatch firstToken;
+
+    private IgnoringHandler(CountDownLatch firstToken) {
+      this.firstToken = firstToken;
+    }
+
+    @Override
+    public void onNext(String token) {
+      firstToken.countDown();
+    }
+
+    @Override
+    public void onError(Throwable error) {
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package me.vertx.AI;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.Tokenizer;
+import dev.langchain4j.model.openai.OpenAiChatModelName;
+import dev.langchain4j.model.openai.OpenAiTokenizer;
+import dev.langchain4j.store.memory.chat.InMemoryChatMemoryStore;
+import vertx.AI.memory.TokenCountingChatMemory;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the incremental token accounting of {@link TokenCountingChatMemory}.
+ */
+public class TokenCountingChatMemoryTest {
+
+  private static final Tokenizer TOKENIZER = new OpenAiTokenizer(OpenAiChatModelName.GPT_3_5_TURBO);
+
+  @Test
+  void shouldKeepRunningCountInLineWithFullTokenization() {
+    TokenCountingChatMemory memory = new TokenCountingChatMemory("session", 200, TOKENIZER, null);
+    memory.add(SystemMessage.from("You are a helpful assistant."));
+
+    for (int i = 0; i < 50; i++) {
+      memory.add(UserMessage.from("Question number " + i + " about the refund policy?"));
+      memory.add(AiMessage.from("Answer number " + i + "."));
+
+      List<ChatMessage> messages = memory.messages();
+      assertEquals(TOKENIZER.estimateTokenCountInMessages(messages), memory.tokenCount());
+      assertTrue(memory.tokenCount() <= 200, "The window should stay within its token limit");
+      assertInstanceOf(SystemMessage.class, messages.get(0), "The system message should never be evicted");
+    }
+  }
+
+  @Test
+  void shouldLoadAndWriteThroughBackingStore() {
+    InMemoryChatMemoryStore store = new InMemoryChatMemoryStore();
+    store.updateMessages("session", List.of(UserMessage.from("hello"), AiMessage.from("hi")));
+
+    TokenCountingChatMemory memory = new TokenCountingChatMemory("session", 1000, TOKENIZER, store);
+    assertEquals(2, memory.messages().size());
+    assertEquals(TOKENIZER.estimateTokenCountInMessages(store.getMessages("session")), memory.tokenCount());
+
+    memory.add(UserMessage.from("again"));
+    assertEquals(3, store.getMessages("session").size());
+
+    CountingStore counting = new CountingStore();
+    TokenCountingChatMemory turns = new TokenCountingChatMemory("session", 1000, TOKENIZER, counting);
+    turns.addAll(List.of(UserMessage.from("question"), AiMessage.from("answer")));
+    assertEquals(1, counting.updates, "A turn should be written through once, not once per message");
+    assertEquals(2, counting.getMessages("session").size());
+
+    memory.clear();
+    assertTrue(store.getMessages("session").isEmpty());
+    assertEquals(TOKENIZER.estimateTokenCountInMessages(List.of()), memory.tokenCount());
+  }
+
+  /**
+   * Counts the histories written to it.
+   */
+  private static final class CountingStore extends InMemoryChatMemoryStore {
+    private int updates;
+
+    @Override
+    public void updateMessages(Object memoryId, List<ChatMessage> messages) {
+      updates++;
+      super.updateMessages(memoryId, messages);
+    }
+  }
+}
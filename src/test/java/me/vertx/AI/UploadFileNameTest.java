@@ -0,0 +1,102 @@
+package me.vertx.AI;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.multipart.MultipartForm;
+import io.vertx.junit5.VertxExtension;
+import vertx.AI.execution.BlockingExecutor;
+import vertx.AI.execution.ExecutionMode;
+import vertx.AI.metrics.MetricsRegistry;
+import vertx.AI.service.impl.FileService;
+import vertx.AI.session.SessionShards;
+import vertx.AI.verticle.HttpServerVerticle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that {@code /upload} rejects file names that do not name a file, and leaves no staged file behind when
+ * an upload cannot be moved into the documents directory.
+ */
+@ExtendWith(VertxExtension.class)
+public class UploadFileNameTest {
+
+  private static final int PORT = 8094;
+
+  @TempDir
+  Path directory;
+
+  private Path documents;
+  private Path staging;
+  private WebClient client;
+
+  @BeforeEach
+  void deploy(Vertx vertx) throws Exception {
+    documents = Files.createDirectories(directory.resolve("documents"));
+    staging = Files.createDirectories(directory.resolve("staging"));
+    FileService fileService = new FileService(vertx,
+      BlockingExecutor.create(vertx, ExecutionMode.WORKER, "ingestion", 1, 10),
+      BlockingExecutor.create(vertx, ExecutionMode.WORKER, "file-io", 1, 10), null, null);
+    DeploymentOptions options = new DeploymentOptions().setConfig(new JsonObject()
+      .put("portNumber", PORT)
+      .put("documentsDirectory", documents + "/")
+      .put("uploadsStagingDirectory", staging + "/"));
+    await(vertx.deployVerticle(new HttpServerVerticle(fileService, new MetricsRegistry(), SessionShards.single()), options));
+    client = WebClient.create(vertx);
+  }
+
+  @Test
+  void shouldRejectFileNamesThatDoNotNameAFile() throws Exception {
+    for (String fileName : new String[] { "/", "", "..", "uploads/.." }) {
+      HttpResponse<Buffer> response = upload(fileName);
+      assertEquals(400, response.statusCode(), "File name '" + fileName + "': " + response.bodyAsString());
+    }
+    assertEquals(0, count(documents));
+    assertEquals(0, count(staging));
+  }
+
+  @Test
+  void shouldDeleteTheStagedFileWhenItCannotBeMoved() throws Exception {
+    Files.writeString(documents.resolve("policy.txt"), "Already indexed");
+
+    HttpResponse<Buffer> response = upload("../policy.txt");
+
+    assertEquals(500, response.statusCode());
+    assertEquals("Already indexed", Files.readString(documents.resolve("policy.txt")));
+    // The staged file is deleted asynchronously after the move fails
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (count(staging) > 0 && System.nanoTime() < deadline) {
+      Thread.sleep(20);
+    }
+    assertEquals(0, count(staging));
+  }
+
+  private HttpResponse<Buffer> upload(String fileName) throws Exception {
+    MultipartForm form = MultipartForm.create()
+      .binaryFileUpload("file", fileName, Buffer.buffer("Refunds are granted within thirty days."), "text/plain");
+    return await(client.post(PORT, "localhost", "/upload").sendMultipartForm(form));
+  }
+
+  private static long count(Path directory) throws IOException {
+    try (var files = Files.list(directory)) {
+      return files.count();
+    }
+  }
+
+  private static <T> T await(Future<T> future) throws Exception {
+    return future.toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+  }
+}
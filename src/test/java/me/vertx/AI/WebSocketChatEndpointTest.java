@@ -0,0 +1,176 @@
+package me.vertx.AI;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.openai.OpenAiChatModelName;
+import dev.langchain4j.model.openai.OpenAiTokenizer;
+import dev.langchain4j.model.output.Response;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.WebSocket;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import vertx.AI.execution.WorkerPoolBlockingExecutor;
+import vertx.AI.llm.CancellableStreamingChatLanguageModel;
+import vertx.AI.llm.StreamHandle;
+import vertx.AI.memory.SessionMemoryStore;
+import vertx.AI.metrics.MetricsRegistry;
+import vertx.AI.session.SessionShards;
+import vertx.AI.verticle.HttpServerVerticle;
+import vertx.AI.verticle.OpenAIVerticle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives {@code /chat/ws} end to end against a mocked streaming model: consecutive turns on one connection, a turn
+ * cancelled by a {@code cancel} frame and a turn cancelled by the client disconnecting.
+ */
+@ExtendWith(VertxExtension.class)
+public class WebSocketChatEndpointTest {
+
+  private static final int PORT = 8096;
+  private static final int TOKENS = 5;
+  private static final long TOKEN_INTERVAL_MS = 50;
+
+  @TempDir
+  Path directory;
+
+  private final SlowStreamingModel model = new SlowStreamingModel();
+  private final BlockingQueue<JsonObject> frames = new LinkedBlockingQueue<>();
+  private WebSocket webSocket;
+
+  @BeforeEach
+  void deploy(Vertx vertx) throws Exception {
+    SessionMemoryStore sessionStore = new SessionMemoryStore(new OpenAiTokenizer(OpenAiChatModelName.GPT_3_5_TURBO),
+      100_000, 100, 10_000_000, 60_000);
+    await(vertx.deployVerticle(new OpenAIVerticle(new MockOpenAIService(MockOpenAIService.replying("ok"), model,
+        query -> List.of()), new WorkerPoolBlockingExecutor(vertx, "chat", 4, 100), sessionStore, new MetricsRegistry()),
+      new DeploymentOptions().setConfig(new JsonObject().put("OPENAI_API_KEY", "test-key"))));
+    await(vertx.deployVerticle(new HttpServerVerticle(null, new MetricsRegistry(), SessionShards.single()),
+      new DeploymentOptions().setConfig(new JsonObject()
+        .put("portNumber", PORT)
+        .put("uploadsStagingDirectory", directory + "/"))));
+
+    // The handler is set as the upgrade completes, before the server's first frame can be dispatched
+    webSocket = await(vertx.createWebSocketClient().connect(PORT, "localhost", "/chat/ws?sessionId=session")
+      .onSuccess(connected -> connected.textMessageHandler(text -> frames.add(new JsonObject(text)))));
+    JsonObject session = nextFrame();
+    assertEquals("session", session.getString("type"));
+    assertEquals("session", session.getString("sessionId"));
+  }
+
+  @Test
+  void shouldRunConsecutiveTurnsOverOneConnection() throws Exception {
+    send("first");
+    assertEquals(tokens("first"), readTurn("end"));
+    send("second");
+    assertEquals(tokens("second"), readTurn("end"));
+
+    assertEquals(2, model.conversations.size());
+    assertTrue(model.conversations.get(1).size() > model.conversations.get(0).size(),
+      "The second turn should see the first one in the session's history");
+  }
+
+  @Test
+  void shouldCancelTheTurnOnACancelFrame() throws Exception {
+    send("first");
+    assertEquals("token", nextFrame().getString("type"));
+    webSocket.writeTextMessage(new JsonObject().put("type", "cancel").encode());
+    readTurn("cancelled");
+    assertTrue(model.cancelled.await(5, TimeUnit.SECONDS), "The upstream stream should be cancelled");
+
+    send("second");
+    assertEquals(tokens("second"), readTurn("end"), "The next turn should not receive tokens of the cancelled one");
+  }
+
+  @Test
+  void shouldCancelTheTurnWhenTheClientDisconnects() throws Exception {
+    send("first");
+    assertEquals("token", nextFrame().getString("type"));
+    await(webSocket.close());
+
+    assertTrue(model.cancelled.await(5, TimeUnit.SECONDS), "The upstream stream should be cancelled");
+  }
+
+  private void send(String message) {
+    webSocket.writeTextMessage(new JsonObject().put("type", "message").put("message", message).encode());
+  }
+
+  /**
+   * Reads the frames of the current turn up to the one of the given type, returning the streamed text.
+   */
+  private String readTurn(String lastFrameType) throws InterruptedException {
+    StringBuilder text = new StringBuilder();
+    for (JsonObject frame = nextFrame(); !lastFrameType.equals(frame.getString("type")); frame = nextFrame()) {
+      assertEquals("token", frame.getString("type"), "Unexpected frame: " + frame);
+      text.append(frame.getString("token"));
+    }
+    return text.toString();
+  }
+
+  private JsonObject nextFrame() throws InterruptedException {
+    JsonObject frame = frames.poll(10, TimeUnit.SECONDS);
+    assertNotNull(frame, "Timed out waiting for a frame");
+    return frame;
+  }
+
+  private static String tokens(String label) {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < TOKENS; i++) {
+      text.append(label).append(' ').append(i).append(';');
+    }
+    return text.toString();
+  }
+
+  private static <T> T await(Future<T> future) throws Exception {
+    return future.toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Streams a few tokens named after the user's question, slowly, until the stream is cancelled.
+   */
+  private static final class SlowStreamingModel implements CancellableStreamingChatLanguageModel {
+    private final List<List<ChatMessage>> conversations = new CopyOnWriteArrayList<>();
+    private final CountDownLatch cancelled = new CountDownLatch(1);
+
+    @Override
+    public StreamHandle stream(List<ChatMessage> messages, StreamingResponseHandler<AiMessage> handler) {
+      conversations.add(messages);
+      String prompt = ((UserMessage) messages.get(messages.size() - 1)).singleText();
+      String label = prompt.substring(prompt.lastIndexOf('\n') + 1);
+      StreamHandle handle = new StreamHandle();
+      handle.onCancel(cancelled::countDown);
+      Thread.ofVirtual().start(() -> {
+        try {
+          for (int i = 0; i < TOKENS && !handle.isCancelled(); i++) {
+            Thread.sleep(TOKEN_INTERVAL_MS);
+            handler.onNext(label + " " + i + ";");
+          }
+          if (!handle.isCancelled()) {
+            handler.onComplete(Response.from(AiMessage.from(label)));
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } finally {
+          handle.end();
+        }
+      });
+      return handle;
+    }
+  }
+}
@@ -0,0 +1,127 @@
+package me.vertx.AI.benchmark;
+
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.openai.OpenAiChatModel;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import vertx.AI.execution.BlockingExecutor;
+import vertx.AI.execution.ExecutionMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load benchmark comparing the {@code worker} and {@code virtual-thread} execution modes: each operation issues
+ * {@code concurrentCalls} blocking chat calls at once against a mock OpenAI endpoint that answers after
+ * {@code upstreamLatencyMs}, and completes when all of them have returned.
+ * <p>
+ * With the default 20-thread worker pool the calls run in waves of 20, while virtual threads let all of them
+ * wait on the upstream at the same time.
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec -Dbenchmark=BlockingExecutionBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BlockingExecutionBenchmark {
+
+  @Param({"worker", "virtual-thread"})
+  public String executionMode;
+
+  @Param({"200"})
+  public int concurrentCalls;
+
+  @Param({"500"})
+  public long upstreamLatencyMs;
+
+  @Param({"20"})
+  public int workerPoolSize;
+
+  private Vertx vertx;
+  private HttpServer mockServer;
+  private BlockingExecutor executor;
+  private ChatLanguageModel model;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    vertx = Vertx.vertx();
+
+    mockServer = vertx.createHttpServer()
+      .requestHandler(request -> vertx.setTimer(upstreamLatencyMs, id -> request.response()
+        .putHeader("Content-Type", "application/json")
+        .end(completion("ok").encode())))
+      .listen(0)
+      .toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+    executor = BlockingExecutor.create(vertx, ExecutionMode.fromConfig(executionMode), "chat", workerPoolSize, concurrentCalls);
+    model = OpenAiChatModel.builder()
+      .baseUrl("http://localhost:" + mockServer.actualPort() + "/v1/")
+      .apiKey("test-key")
+      .modelName("gpt-3.5-turbo")
+      .maxRetries(1)
+      .build();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    executor.close();
+    vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+  }
+
+  @Benchmark
+  public void concurrentUpstreamCalls() {
+    List<Future<String>> calls = new ArrayList<>(concurrentCalls);
+    for (int i = 0; i < concurrentCalls; i++) {
+      calls.add(executor.execute(() -> model.generate("Hello")));
+    }
+    Future.all(calls).toCompletionStage().toCompletableFuture().join();
+  }
+
+  private static JsonObject completion(String content) {
+    return new JsonObject()
+      .put("id", "chatcmpl-test")
+      .put("object", "chat.completion")
+      .put("created", 0)
+      .put("model", "gpt-3.5-turbo")
+      .put("choices", new JsonArray().add(new JsonObject()
+        .put("index", 0)
+        .put("message", new JsonObject().put("role", "assistant").put("content", content))
+        .put("finish_reason", "stop")))
+      .put("usage", new JsonObject()
+        .put("prompt_tokens", 1)
+        .put("completion_tokens", 1)
+        .put("total_tokens", 2));
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options options = new OptionsBuilder()
+      .include(BlockingExecutionBenchmark.class.getSimpleName())
+      .build();
+    new Runner(options).run();
+  }
+}
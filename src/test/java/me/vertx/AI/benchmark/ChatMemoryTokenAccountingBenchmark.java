@@ -0,0 +1,123 @@
+package me.vertx.AI.benchmark;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.memory.chat.TokenWindowChatMemory;
+import dev.langchain4j.model.Tokenizer;
+import dev.langchain4j.model.openai.OpenAiChatModelName;
+import dev.langchain4j.model.openai.OpenAiTokenizer;
+import dev.langchain4j.store.memory.chat.InMemoryChatMemoryStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import vertx.AI.memory.MappedLogChatMemoryStore;
+import vertx.AI.memory.TokenCountingChatMemory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of recording one chat turn (an augmented user message plus the model's reply) in a full
+ * token window, with langchain4j's {@code TokenWindowChatMemory} and with {@link TokenCountingChatMemory}.
+ * <p>
+ * Both memories are filled to {@code windowTokens} before measuring, so every turn also evicts older turns.
+ * The first re-tokenizes the whole window on each add; the second only tokenizes the new messages.
+ * With {@code store} set to {@code mapped-log}, each memory also writes its history through to a
+ * {@link MappedLogChatMemoryStore}, as with persistence enabled: langchain4j's memory once per message, and
+ * {@link TokenCountingChatMemory} once per turn.
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec -Dbenchmark=ChatMemoryTokenAccountingBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChatMemoryTokenAccountingBenchmark {
+
+  private static final Tokenizer TOKENIZER = new OpenAiTokenizer(OpenAiChatModelName.GPT_3_5_TURBO);
+
+  @Param({"4096", "131072"})
+  public int windowTokens;
+
+  @Param({"token-window", "token-counting"})
+  public String memoryType;
+
+  @Param({"none", "mapped-log"})
+  public String store;
+
+  private Path logFile;
+  private MappedLogChatMemoryStore backingStore;
+  private ChatMemory memory;
+  private UserMessage userMessage;
+  private AiMessage aiMessage;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    if ("mapped-log".equals(store)) {
+      logFile = Files.createTempFile("chat-memory-benchmark", ".log");
+      backingStore = new MappedLogChatMemoryStore(logFile, 64 * 1024 * 1024, 0.5, TimeUnit.DAYS.toMillis(1));
+    }
+    memory = "token-window".equals(memoryType)
+      ? TokenWindowChatMemory.builder().id("benchmark").maxTokens(windowTokens, TOKENIZER)
+          .chatMemoryStore(backingStore != null ? backingStore : new InMemoryChatMemoryStore()).build()
+      : new TokenCountingChatMemory("benchmark", windowTokens, TOKENIZER, backingStore);
+
+    // A turn as OpenAIVerticle records it: retrieved context pasted in front of the question
+    String context = "The refund policy allows a full refund within thirty days of purchase. ".repeat(40);
+    userMessage = UserMessage.from("Context:\n" + context + "\n\nUser Question:\nCan I still get a refund?");
+    aiMessage = AiMessage.from("Yes, purchases can be refunded in full within thirty days. ".repeat(10));
+
+    int turnTokens = TOKENIZER.estimateTokenCountInMessage(userMessage) + TOKENIZER.estimateTokenCountInMessage(aiMessage);
+    for (int i = 0; i <= windowTokens / turnTokens; i++) {
+      recordTurn();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    if (backingStore != null) {
+      backingStore.close();
+      Files.delete(logFile);
+    }
+  }
+
+  @Benchmark
+  public ChatMemory recordTurn() {
+    // Each memory records a turn the way its owner does: SessionMemoryStore adds both messages at once
+    if (memory instanceof TokenCountingChatMemory tokenCounting) {
+      tokenCounting.addAll(List.of(userMessage, aiMessage));
+    } else {
+      memory.add(userMessage);
+      memory.add(aiMessage);
+    }
+    return memory;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options options = new OptionsBuilder()
+      .include(ChatMemoryTokenAccountingBenchmark.class.getSimpleName())
+      .build();
+    new Runner(options).run();
+  }
+}
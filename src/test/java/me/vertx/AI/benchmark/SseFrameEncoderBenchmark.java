@@ -0,0 +1,68 @@
+package me.vertx.AI.benchmark;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import vertx.AI.http.SseFrameEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-token SSE frame construction used before {@link SseFrameEncoder}
+ * (JsonObject + encode + string concatenation + Buffer conversion) with the inline encoder.
+ * <p>
+ * Run with {@code -prof gc} to compare allocation rates:
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec -Dbenchmark=SseFrameEncoderBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SseFrameEncoderBenchmark {
+
+  private final String[] tokens = {
+    "Hello", ",", " the", " cancellation", " policy", " says", " \"full refund\"", "\n", " café", " 👍"
+  };
+  private int index;
+
+  private String nextToken() {
+    String token = tokens[index];
+    index = (index + 1) % tokens.length;
+    return token;
+  }
+
+  @Benchmark
+  public Buffer jsonObjectFrame() {
+    JsonObject chunk = new JsonObject().put("token", nextToken());
+    return Buffer.buffer("data: " + chunk.encode() + "\n\n");
+  }
+
+  @Benchmark
+  public Buffer encodedFrame() {
+    return SseFrameEncoder.encodeToken(nextToken());
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options options = new OptionsBuilder()
+      .include(SseFrameEncoderBenchmark.class.getSimpleName())
+      .addProfiler("gc")
+      .build();
+    new Runner(options).run();
+  }
+}